@@ -0,0 +1,78 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import org.picocontainer.MutablePicoContainer;
+import org.picocontainer.defaults.DefaultPicoContainer;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.BulkBuilderTaskFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSourceRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.BulkBuilderAnalyzer;
+import pl.mjedynak.idea.plugins.builder.psi.ClassHierarchySummaryCache;
+import pl.mjedynak.idea.plugins.builder.psi.ConstructorAssignmentsCache;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class CreateBuildersAction extends AnAction {
+
+    private static BulkBuilderTaskFactory bulkBuilderTaskFactory;
+    private static PsiHelper psiHelper;
+
+    private static MutablePicoContainer picoContainer = new DefaultPicoContainer();
+
+    static {
+        picoContainer.registerComponentImplementation(PsiHelper.class);
+        picoContainer.registerComponentImplementation(GuiHelper.class);
+        picoContainer.registerComponentImplementation(BuilderVerifier.class);
+        picoContainer.registerComponentImplementation(ClassFinder.class);
+        picoContainer.registerComponentImplementation(BuilderFinder.class);
+        picoContainer.registerComponentImplementation(PsiFieldVerifier.class);
+        picoContainer.registerComponentImplementation(PsiFieldSelector.class);
+        picoContainer.registerComponentImplementation(ClassHierarchySummaryCache.class);
+        picoContainer.registerComponentImplementation(ConstructorAssignmentsCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsAnalysisCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSpecFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSourceRenderer.class);
+        picoContainer.registerComponentImplementation(BuilderFormatter.class);
+        picoContainer.registerComponentImplementation(BuilderFileCreator.class);
+        picoContainer.registerComponentImplementation(InnerBuilderCreator.class);
+        picoContainer.registerComponentImplementation(BuilderWriter.class);
+        picoContainer.registerComponentImplementation(BulkBuilderAnalyzer.class);
+        picoContainer.registerComponentImplementation(BulkBuilderTaskFactory.class);
+
+        bulkBuilderTaskFactory = (BulkBuilderTaskFactory) picoContainer.getComponentInstanceOfType(BulkBuilderTaskFactory.class);
+        psiHelper = (PsiHelper) picoContainer.getComponentInstanceOfType(PsiHelper.class);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent e) {
+        Project project = e.getData(DataKeys.PROJECT);
+        PsiElement[] elements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        if (project != null && elements != null && elements.length > 0) {
+            psiHelper.getProgressManager().run(bulkBuilderTaskFactory.createBulkBuilderTask(project, elements));
+        }
+    }
+
+    @Override
+    public void update(AnActionEvent e) {
+        PsiElement[] elements = e.getData(LangDataKeys.PSI_ELEMENT_ARRAY);
+        e.getPresentation().setEnabledAndVisible(e.getData(DataKeys.PROJECT) != null && elements != null && elements.length > 0);
+    }
+}
@@ -5,11 +5,13 @@ import org.picocontainer.MutablePicoContainer;
 import org.picocontainer.defaults.DefaultPicoContainer;
 import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosersRunnable;
 import pl.mjedynak.idea.plugins.builder.action.handler.GoToBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderPsiClassBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
 import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
-import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.FieldChooserDialogFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PopupChooserBuilderFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PopupListFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsAnalysisTaskFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
 import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
@@ -17,8 +19,16 @@ import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.PopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplatesCache;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPreviewRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSourceRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.ClassHierarchySummaryCache;
+import pl.mjedynak.idea.plugins.builder.psi.ConstructorAssignmentsCache;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisCache;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
@@ -36,7 +46,12 @@ public class GoToBuilderAction extends EditorAction {
         picoContainer.registerComponentImplementation(PsiHelper.class);
         picoContainer.registerComponentImplementation(BuilderVerifier.class);
         picoContainer.registerComponentImplementation(ClassFinder.class);
-        picoContainer.registerComponentImplementation(BuilderPsiClassBuilder.class);
+        picoContainer.registerComponentImplementation(BuilderMethodTemplatesCache.class);
+        picoContainer.registerComponentImplementation(BuilderFormatter.class);
+        picoContainer.registerComponentImplementation(BuilderPsiClassBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSourceRenderer.class);
+        picoContainer.registerComponentImplementation(BuilderFileCreator.class);
+        picoContainer.registerComponentImplementation(InnerBuilderCreator.class);
         picoContainer.registerComponentImplementation(BuilderFinder.class);
         picoContainer.registerComponentImplementation(PopupChooserBuilderFactory.class);
         picoContainer.registerComponentImplementation(PopupDisplayer.class);
@@ -45,12 +60,17 @@ public class GoToBuilderAction extends EditorAction {
         picoContainer.registerComponentImplementation(CreateBuilderDialogFactory.class);
         picoContainer.registerComponentImplementation(GuiHelper.class);
         picoContainer.registerComponentImplementation(PsiFieldVerifier.class);
-        picoContainer.registerComponentImplementation(PsiElementClassMemberFactory.class);
         picoContainer.registerComponentImplementation(ReferenceEditorComboWithBrowseButtonFactory.class);
-        picoContainer.registerComponentImplementation(MemberChooserDialogFactory.class);
+        picoContainer.registerComponentImplementation(FieldChooserDialogFactory.class);
         picoContainer.registerComponentImplementation(BuilderWriter.class);
         picoContainer.registerComponentImplementation(PsiFieldSelector.class);
+        picoContainer.registerComponentImplementation(ClassHierarchySummaryCache.class);
+        picoContainer.registerComponentImplementation(ConstructorAssignmentsCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsAnalysisCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsAnalysisTaskFactory.class);
         picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSpecFactory.class);
+        picoContainer.registerComponentImplementation(BuilderPreviewRenderer.class);
         picoContainer.registerComponentImplementation(GoToBuilderActionHandler.class);
         picoContainer.registerComponentImplementation(DisplayChoosersRunnable.class);
 
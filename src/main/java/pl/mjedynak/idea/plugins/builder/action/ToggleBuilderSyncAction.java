@@ -0,0 +1,32 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DataKeys;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.Project;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderSyncSettings;
+
+public class ToggleBuilderSyncAction extends ToggleAction {
+
+    private BuilderSyncSettings builderSyncSettings = new BuilderSyncSettings();
+
+    @Override
+    public boolean isSelected(AnActionEvent e) {
+        Project project = e.getData(DataKeys.PROJECT);
+        return project != null && builderSyncSettings.isEnabled(project);
+    }
+
+    @Override
+    public void setSelected(AnActionEvent e, boolean state) {
+        Project project = e.getData(DataKeys.PROJECT);
+        if (project != null) {
+            builderSyncSettings.setEnabled(project, state);
+        }
+    }
+
+    @Override
+    public void update(AnActionEvent e) {
+        super.update(e);
+        e.getPresentation().setEnabled(e.getData(DataKeys.PROJECT) != null);
+    }
+}
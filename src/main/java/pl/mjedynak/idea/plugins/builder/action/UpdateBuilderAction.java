@@ -0,0 +1,60 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.editor.actionSystem.EditorAction;
+import org.picocontainer.MutablePicoContainer;
+import org.picocontainer.defaults.DefaultPicoContainer;
+import pl.mjedynak.idea.plugins.builder.action.handler.UpdateBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderDiffCalculator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplatesCache;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSourceRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.ClassHierarchySummaryCache;
+import pl.mjedynak.idea.plugins.builder.psi.ConstructorAssignmentsCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class UpdateBuilderAction extends EditorAction {
+
+    private static UpdateBuilderActionHandler updateBuilderActionHandler;
+
+    private static MutablePicoContainer picoContainer = new DefaultPicoContainer();
+
+    static {
+        picoContainer.registerComponentImplementation(PsiHelper.class);
+        picoContainer.registerComponentImplementation(BuilderVerifier.class);
+        picoContainer.registerComponentImplementation(ClassFinder.class);
+        picoContainer.registerComponentImplementation(BuilderFinder.class);
+        picoContainer.registerComponentImplementation(GuiHelper.class);
+        picoContainer.registerComponentImplementation(PsiFieldVerifier.class);
+        picoContainer.registerComponentImplementation(PsiFieldSelector.class);
+        picoContainer.registerComponentImplementation(ClassHierarchySummaryCache.class);
+        picoContainer.registerComponentImplementation(ConstructorAssignmentsCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsAnalysisCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSpecFactory.class);
+        picoContainer.registerComponentImplementation(BuilderDiffCalculator.class);
+        picoContainer.registerComponentImplementation(BuilderMethodTemplatesCache.class);
+        picoContainer.registerComponentImplementation(BuilderFormatter.class);
+        picoContainer.registerComponentImplementation(BuilderSourceRenderer.class);
+        picoContainer.registerComponentImplementation(BuilderUpdater.class);
+        picoContainer.registerComponentImplementation(BuilderUpdateWriter.class);
+        picoContainer.registerComponentImplementation(UpdateBuilderActionHandler.class);
+
+        updateBuilderActionHandler = (UpdateBuilderActionHandler) picoContainer.getComponentInstanceOfType(UpdateBuilderActionHandler.class);
+    }
+
+    protected UpdateBuilderAction() {
+        super(updateBuilderActionHandler);
+    }
+}
@@ -1,19 +1,27 @@
 package pl.mjedynak.idea.plugins.builder.action.handler;
 
-import com.intellij.codeInsight.generation.PsiElementClassMember;
-import com.intellij.ide.util.MemberChooser;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiPackage;
+import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
 import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
-import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.FieldChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsAnalysisTaskFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
 import pl.mjedynak.idea.plugins.builder.gui.CreateBuilderDialog;
-import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.gui.FieldChooserDialog;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
 
 import java.util.List;
@@ -26,66 +34,92 @@ public class DisplayChoosersRunnable implements Runnable {
     private Editor editor;
     private PsiHelper psiHelper;
     private CreateBuilderDialogFactory createBuilderDialogFactory;
-    private PsiFieldSelector psiFieldSelector;
-    private MemberChooserDialogFactory memberChooserDialogFactory;
+    private FieldChooserDialogFactory fieldChooserDialogFactory;
     private BuilderWriter builderWriter;
     private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private PsiFieldsAnalysisTaskFactory psiFieldsAnalysisTaskFactory;
+    private BuilderSpecFactory builderSpecFactory;
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
 
     @SuppressWarnings("PMD.ExcessiveParameterList")
     public DisplayChoosersRunnable(PsiHelper psiHelper, CreateBuilderDialogFactory createBuilderDialogFactory,
-                                   PsiFieldSelector psiFieldSelector, MemberChooserDialogFactory memberChooserDialogFactory,
-                                   BuilderWriter builderWriter, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory) {
+                                   FieldChooserDialogFactory fieldChooserDialogFactory, BuilderWriter builderWriter,
+                                   PsiFieldsForBuilderFactory psiFieldsForBuilderFactory, PsiFieldsAnalysisTaskFactory psiFieldsAnalysisTaskFactory,
+                                   BuilderSpecFactory builderSpecFactory) {
         this.psiHelper = psiHelper;
         this.createBuilderDialogFactory = createBuilderDialogFactory;
-        this.psiFieldSelector = psiFieldSelector;
-        this.memberChooserDialogFactory = memberChooserDialogFactory;
+        this.fieldChooserDialogFactory = fieldChooserDialogFactory;
         this.builderWriter = builderWriter;
         this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+        this.psiFieldsAnalysisTaskFactory = psiFieldsAnalysisTaskFactory;
+        this.builderSpecFactory = builderSpecFactory;
+    }
+
+    private DisplayChoosersRunnable(DisplayChoosersRunnable shared, Editor editor, Project project, PsiClass psiClassFromEditor) {
+        this(shared.psiHelper, shared.createBuilderDialogFactory, shared.fieldChooserDialogFactory, shared.builderWriter,
+                shared.psiFieldsForBuilderFactory, shared.psiFieldsAnalysisTaskFactory, shared.builderSpecFactory);
+        this.codeStyleSettings = shared.codeStyleSettings;
+        this.editor = editor;
+        this.project = project;
+        this.psiClassFromEditor = psiClassFromEditor;
+    }
+
+    public DisplayChoosersRunnable forClass(Editor editor, Project project, PsiClass psiClassFromEditor) {
+        return new DisplayChoosersRunnable(this, editor, project, psiClassFromEditor);
     }
 
     @Override
     public void run() {
-        CreateBuilderDialog createBuilderDialog = showDialog();
+        PsiDirectory srcDir = psiHelper.getPsiFileFromEditor(editor, project).getContainingDirectory();
+        PsiPackage srcPackage = psiHelper.getPackage(srcDir);
+        CreateBuilderDialog createBuilderDialog = showDialog(srcPackage);
         if (createBuilderDialog.isOK()) {
+            NamingConvention namingConvention = codeStyleSettings.getNamingConvention(project);
             PsiDirectory targetDirectory = createBuilderDialog.getTargetDirectory();
-            String className = createBuilderDialog.getClassName();
-            String methodPrefix = createBuilderDialog.getMethodPrefix();
-            List<PsiElementClassMember> fieldsToDisplay = getFieldsToIncludeInBuilder(psiClassFromEditor);
-            MemberChooser<PsiElementClassMember> memberChooserDialog = memberChooserDialogFactory.getMemberChooserDialog(fieldsToDisplay, project);
-            memberChooserDialog.show();
-            writeBuilderIfNecessary(targetDirectory, className, methodPrefix, memberChooserDialog);
+            BuilderPreviewContext context = new BuilderPreviewContext(targetDirectory, createBuilderDialog.getClassName(),
+                    psiClassFromEditor, namingConvention, new BuilderOptions(createBuilderDialog.isInnerBuilder(), createBuilderDialog.isImmutableTarget(),
+                    createBuilderDialog.isReusable(), isSamePackage(srcPackage, targetDirectory)));
+            FieldChooserDialog fieldChooserDialog = fieldChooserDialogFactory.createFieldChooserDialog(project, context);
+            psiHelper.getProgressManager().run(
+                    psiFieldsAnalysisTaskFactory.createPsiFieldsAnalysisTask(project, psiClassFromEditor, namingConvention, fieldChooserDialog));
+            fieldChooserDialog.show();
+            writeBuilderIfNecessary(context, fieldChooserDialog);
         }
     }
 
-    private void writeBuilderIfNecessary(PsiDirectory targetDirectory, String className, String methodPrefix, MemberChooser<PsiElementClassMember> memberChooserDialog) {
-        if (memberChooserDialog.isOK()) {
-            List<PsiElementClassMember> selectedElements = memberChooserDialog.getSelectedElements();
-            PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedElements, psiClassFromEditor);
-            builderWriter.writeBuilder(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix);
+    private void writeBuilderIfNecessary(BuilderPreviewContext context, FieldChooserDialog fieldChooserDialog) {
+        if (fieldChooserDialog.isOK()) {
+            List<PsiField> selectedFields = fieldChooserDialog.getSelectedFields();
+            BuilderPreview builderPreview = fieldChooserDialog.getBuilderPreview();
+            boolean innerClass = context.getOptions().isInnerClass();
+            if (builderPreview != null && builderPreview.isFor(selectedFields, psiHelper.getModificationCount(project))) {
+                if (innerClass) {
+                    builderWriter.writeInnerBuilder(project, builderPreview.getBuilderSpec(), builderPreview.getText(), psiClassFromEditor);
+                } else {
+                    builderWriter.writeBuilder(project, builderPreview.getBuilderSpec(), builderPreview.getText(), context.getTargetDirectory());
+                }
+            } else {
+                PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedFields, fieldChooserDialog.getPsiFieldsAnalysis(),
+                        context.getOptions());
+                BuilderSpec builderSpec = builderSpecFactory.createBuilderSpec(context.getTargetDirectory(), context.getBuilderClassName(), psiClassFromEditor,
+                        psiFieldsForBuilder, context.getNamingConvention()).withOptions(context.getOptions());
+                if (innerClass) {
+                    builderWriter.writeInnerBuilder(project, builderSpec, null, psiClassFromEditor);
+                } else {
+                    builderWriter.writeBuilder(project, builderSpec, context.getTargetDirectory());
+                }
+            }
         }
     }
 
-    private CreateBuilderDialog showDialog() {
-        PsiDirectory srcDir = psiHelper.getPsiFileFromEditor(editor, project).getContainingDirectory();
-        PsiPackage srcPackage = psiHelper.getPackage(srcDir);
+    private boolean isSamePackage(PsiPackage srcPackage, PsiDirectory targetDirectory) {
+        PsiPackage targetPackage = targetDirectory != null ? psiHelper.getPackage(targetDirectory) : null;
+        return srcPackage != null && targetPackage != null && StringUtils.equals(srcPackage.getQualifiedName(), targetPackage.getQualifiedName());
+    }
+
+    private CreateBuilderDialog showDialog(PsiPackage srcPackage) {
         CreateBuilderDialog dialog = createBuilderDialogFactory.createBuilderDialog(psiClassFromEditor, project, srcPackage);
         dialog.show();
         return dialog;
     }
-
-    private List<PsiElementClassMember> getFieldsToIncludeInBuilder(PsiClass clazz) {
-        return psiFieldSelector.selectFieldsToIncludeInBuilder(clazz);
-    }
-
-    public void setPsiClassFromEditor(PsiClass psiClassFromEditor) {
-        this.psiClassFromEditor = psiClassFromEditor;
-    }
-
-    public void setProject(Project project) {
-        this.project = project;
-    }
-
-    public void setEditor(Editor editor) {
-        this.editor = editor;
-    }
 }
@@ -62,10 +62,7 @@ public class GoToBuilderActionHandler extends EditorActionHandler {
     private void displayPopup(final Editor editor, final PsiClass psiClassFromEditor, final DataContext dataContext) {
         JList popupList = popupListFactory.getPopupList();
         Project project = (Project) dataContext.getData(DataKeys.PROJECT.getName());
-        displayChoosersRunnable.setEditor(editor);
-        displayChoosersRunnable.setProject(project);
-        displayChoosersRunnable.setPsiClassFromEditor(psiClassFromEditor);
-        popupDisplayer.displayPopupChooser(editor, popupList, displayChoosersRunnable);
+        popupDisplayer.displayPopupChooser(editor, popupList, displayChoosersRunnable.forClass(editor, project, psiClassFromEditor));
     }
 
     private PsiClass findClassToGo(PsiClass psiClassFromEditor, boolean isBuilder) {
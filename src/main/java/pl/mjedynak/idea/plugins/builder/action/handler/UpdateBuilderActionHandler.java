@@ -0,0 +1,94 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.DataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.actionSystem.EditorActionHandler;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderDiffCalculator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class UpdateBuilderActionHandler extends EditorActionHandler {
+
+    static final String BUILDER_NOT_FOUND = "No builder found to update";
+    static final String BUILDER_UP_TO_DATE = "Builder is up to date";
+    static final String BUILDER_NOT_UPDATABLE = "Only builders that pass values to setters of the built object can be updated";
+    static final String CHOOSER_TITLE = "Select Fields to Be Available in Builder";
+
+    private PsiHelper psiHelper;
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+    private BuilderDiffCalculator builderDiffCalculator;
+    private BuilderUpdateWriter builderUpdateWriter;
+    private GuiHelper guiHelper;
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public UpdateBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder,
+                                      BuilderDiffCalculator builderDiffCalculator, BuilderUpdateWriter builderUpdateWriter, GuiHelper guiHelper) {
+        this.psiHelper = psiHelper;
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+        this.builderDiffCalculator = builderDiffCalculator;
+        this.builderUpdateWriter = builderUpdateWriter;
+        this.guiHelper = guiHelper;
+    }
+
+    @Override
+    public void execute(Editor editor, DataContext dataContext) {
+        Project project = (Project) dataContext.getData(DataKeys.PROJECT.getName());
+        PsiClass psiClassFromEditor = psiHelper.getPsiClassFromEditor(editor, project);
+        if (psiClassFromEditor != null) {
+            boolean isBuilder = builderVerifier.isBuilder(psiClassFromEditor);
+            PsiClass srcClass = isBuilder ? builderFinder.findClassForBuilder(psiClassFromEditor) : psiClassFromEditor;
+            PsiClass builderClass = isBuilder ? psiClassFromEditor : builderFinder.findBuilderForClass(psiClassFromEditor);
+            if (srcClass == null || builderClass == null || !builderClass.isWritable()) {
+                guiHelper.showHint(editor, BUILDER_NOT_FOUND);
+            } else if (!builderDiffCalculator.isUpdatable(srcClass, builderClass)) {
+                guiHelper.showHint(editor, BUILDER_NOT_UPDATABLE);
+            } else {
+                updateBuilder(editor, project, srcClass, builderClass);
+            }
+        }
+    }
+
+    private void updateBuilder(Editor editor, Project project, PsiClass srcClass, PsiClass builderClass) {
+        NamingConvention namingConvention = codeStyleSettings.getNamingConvention(project);
+        List<PsiField> settableFields = builderDiffCalculator.getSettableFields(srcClass, namingConvention);
+        Set<String> fieldNamesInBuilder = builderDiffCalculator.getFieldNamesInBuilder(srcClass, builderClass, namingConvention);
+        List<PsiField> fieldsInBuilder = new ArrayList<PsiField>();
+        for (PsiField psiField : settableFields) {
+            if (fieldNamesInBuilder.contains(psiField.getName())) {
+                fieldsInBuilder.add(psiField);
+            }
+        }
+        List<PsiField> chosenFields = guiHelper.chooseFields(project, CHOOSER_TITLE, settableFields, fieldsInBuilder);
+        if (chosenFields == null) {
+            return;
+        }
+        Set<String> chosenFieldNames = new HashSet<String>();
+        for (PsiField psiField : chosenFields) {
+            chosenFieldNames.add(psiField.getName());
+        }
+        BuilderDiff builderDiff = builderDiffCalculator.calculate(srcClass, builderClass, namingConvention, chosenFieldNames);
+        if (builderDiff.isEmpty()) {
+            guiHelper.showHint(editor, BUILDER_UP_TO_DATE);
+        } else {
+            builderUpdateWriter.writeUpdate(project, builderClass, builderDiff);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package pl.mjedynak.idea.plugins.builder.component;
+
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.picocontainer.MutablePicoContainer;
+import org.picocontainer.defaults.DefaultPicoContainer;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSyncTaskFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderDiffCalculator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplatesCache;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSourceRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSyncListener;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSyncQueue;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.ClassHierarchySummaryCache;
+import pl.mjedynak.idea.plugins.builder.psi.ConstructorAssignmentsCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderSyncSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public class BuilderSyncComponent extends AbstractProjectComponent {
+
+    static final String COMPONENT_NAME = "BuilderSyncComponent";
+
+    private static MutablePicoContainer picoContainer = new DefaultPicoContainer();
+
+    static {
+        picoContainer.registerComponentImplementation(PsiHelper.class);
+        picoContainer.registerComponentImplementation(PsiManagerFactory.class);
+        picoContainer.registerComponentImplementation(BuilderVerifier.class);
+        picoContainer.registerComponentImplementation(ClassFinder.class);
+        picoContainer.registerComponentImplementation(BuilderFinder.class);
+        picoContainer.registerComponentImplementation(PsiFieldVerifier.class);
+        picoContainer.registerComponentImplementation(PsiFieldSelector.class);
+        picoContainer.registerComponentImplementation(ClassHierarchySummaryCache.class);
+        picoContainer.registerComponentImplementation(ConstructorAssignmentsCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsAnalysisCache.class);
+        picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSpecFactory.class);
+        picoContainer.registerComponentImplementation(BuilderDiffCalculator.class);
+        picoContainer.registerComponentImplementation(BuilderMethodTemplatesCache.class);
+        picoContainer.registerComponentImplementation(BuilderFormatter.class);
+        picoContainer.registerComponentImplementation(BuilderSourceRenderer.class);
+        picoContainer.registerComponentImplementation(BuilderUpdater.class);
+        picoContainer.registerComponentImplementation(BuilderUpdateWriter.class);
+        picoContainer.registerComponentImplementation(BuilderSyncTaskFactory.class);
+        picoContainer.registerComponentImplementation(BuilderSyncSettings.class);
+    }
+
+    public BuilderSyncComponent(Project project) {
+        super(project);
+    }
+
+    @Override
+    public void projectOpened() {
+        PsiHelper psiHelper = (PsiHelper) picoContainer.getComponentInstanceOfType(PsiHelper.class);
+        BuilderSyncTaskFactory builderSyncTaskFactory = (BuilderSyncTaskFactory) picoContainer.getComponentInstanceOfType(BuilderSyncTaskFactory.class);
+        BuilderSyncSettings builderSyncSettings = (BuilderSyncSettings) picoContainer.getComponentInstanceOfType(BuilderSyncSettings.class);
+        BuilderVerifier builderVerifier = (BuilderVerifier) picoContainer.getComponentInstanceOfType(BuilderVerifier.class);
+        PsiManagerFactory psiManagerFactory = (PsiManagerFactory) picoContainer.getComponentInstanceOfType(PsiManagerFactory.class);
+
+        Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, myProject);
+        BuilderSyncQueue builderSyncQueue = new BuilderSyncQueue(myProject, alarm, builderSyncTaskFactory, psiHelper);
+        BuilderSyncListener listener = new BuilderSyncListener(myProject, builderSyncQueue, builderSyncSettings, builderVerifier);
+        psiManagerFactory.getPsiManager(myProject).addPsiTreeChangeListener(listener, myProject);
+    }
+
+    @NotNull
+    @Override
+    public String getComponentName() {
+        return COMPONENT_NAME;
+    }
+}
@@ -0,0 +1,34 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDirectory;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplatesCache;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+public class BuilderPsiClassBuilderFactory {
+
+    private PsiHelper psiHelper;
+    private BuilderMethodTemplatesCache builderMethodTemplatesCache;
+    private BuilderFormatter builderFormatter;
+    private BuilderFileCreator builderFileCreator;
+    private BuilderRenderer<String> builderRenderer;
+
+    public BuilderPsiClassBuilderFactory(PsiHelper psiHelper, BuilderMethodTemplatesCache builderMethodTemplatesCache, BuilderFormatter builderFormatter,
+                                         BuilderFileCreator builderFileCreator, BuilderRenderer<String> builderRenderer) {
+        this.psiHelper = psiHelper;
+        this.builderMethodTemplatesCache = builderMethodTemplatesCache;
+        this.builderFormatter = builderFormatter;
+        this.builderFileCreator = builderFileCreator;
+        this.builderRenderer = builderRenderer;
+    }
+
+    public BuilderPsiClassBuilder createBuilderPsiClassBuilder(Project project, PsiDirectory targetDirectory, BuilderSpec builderSpec) {
+        return new BuilderPsiClassBuilder(project, targetDirectory, builderSpec, psiHelper, builderMethodTemplatesCache, builderFormatter,
+                builderFileCreator, builderRenderer);
+    }
+}
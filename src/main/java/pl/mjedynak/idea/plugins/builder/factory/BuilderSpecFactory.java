@@ -0,0 +1,86 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiPackage;
+import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.idea.plugins.builder.psi.PropertyNames;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.intellij.openapi.util.text.StringUtil.isVowel;
+
+public class BuilderSpecFactory {
+
+    static final String A_PREFIX = "a";
+    static final String AN_PREFIX = "an";
+
+    private PsiHelper psiHelper;
+
+    public BuilderSpecFactory(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public BuilderSpec createBuilderSpec(PsiDirectory targetDirectory, String builderClassName, PsiClass srcClass, PsiFieldsForBuilder psiFieldsForBuilder,
+                                         NamingConvention namingConvention) {
+        return createBuilderSpec(getPackageName(targetDirectory), builderClassName, srcClass, psiFieldsForBuilder, namingConvention);
+    }
+
+    public BuilderSpec createBuilderSpec(String packageName, String builderClassName, PsiClass srcClass, PsiFieldsForBuilder psiFieldsForBuilder,
+                                         NamingConvention namingConvention) {
+        List<PsiField> psiFieldsForSetters = psiFieldsForBuilder.getFieldsForSetters();
+        List<PsiField> psiFieldsForConstructor = psiFieldsForBuilder.getFieldsForConstructor();
+        List<PsiField> psiFields = new ArrayList<PsiField>(psiFieldsForSetters);
+        psiFields.addAll(psiFieldsForConstructor);
+        PropertyNames propertyNames = PropertyNames.of(psiFields, namingConvention);
+        List<PropertySpec> properties = new ArrayList<PropertySpec>(psiFields.size());
+        addProperties(properties, psiFieldsForSetters, propertyNames, FieldInitialization.SETTER);
+        addProperties(properties, psiFieldsForConstructor, propertyNames, FieldInitialization.CONSTRUCTOR);
+        String srcClassName = srcClass.getName();
+        String srcClassFieldName = StringUtils.uncapitalize(srcClassName);
+        return new BuilderSpec(packageName, builderClassName, srcClassName, srcClass.getQualifiedName(), srcClassFieldName,
+                initializingMethodName(srcClassName), withUniqueSetFlagNames(properties, srcClassFieldName), namingConvention);
+    }
+
+    private List<PropertySpec> withUniqueSetFlagNames(List<PropertySpec> properties, String srcClassFieldName) {
+        Set<String> takenNames = new HashSet<String>();
+        takenNames.add(srcClassFieldName);
+        for (PropertySpec property : properties) {
+            takenNames.add(property.getFieldName());
+        }
+        List<PropertySpec> result = new ArrayList<PropertySpec>(properties.size());
+        for (PropertySpec property : properties) {
+            PropertySpec flaggedProperty = property.withUniqueSetFlagName(takenNames);
+            takenNames.add(flaggedProperty.getSetFlagName());
+            result.add(flaggedProperty);
+        }
+        return result;
+    }
+
+    private void addProperties(List<PropertySpec> properties, List<PsiField> psiFields, PropertyNames propertyNames, FieldInitialization initialization) {
+        for (PsiField psiField : psiFields) {
+            properties.add(new PropertySpec(propertyNames.get(psiField), psiField.getType().getCanonicalText(), initialization));
+        }
+    }
+
+    private String initializingMethodName(String srcClassName) {
+        String prefix = isVowel(srcClassName.toLowerCase(Locale.ENGLISH).charAt(0)) ? AN_PREFIX : A_PREFIX;
+        return prefix + srcClassName;
+    }
+
+    private String getPackageName(PsiDirectory targetDirectory) {
+        PsiPackage targetPackage = psiHelper.getPackage(targetDirectory);
+        return targetPackage != null ? targetPackage.getQualifiedName() : "";
+    }
+}
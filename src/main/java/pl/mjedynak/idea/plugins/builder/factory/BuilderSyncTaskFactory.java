@@ -0,0 +1,33 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPsiElementPointer;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderDiffCalculator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSyncQueue;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSyncTask;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+import java.util.List;
+
+public class BuilderSyncTaskFactory {
+
+    private PsiHelper psiHelper;
+    private BuilderFinder builderFinder;
+    private BuilderDiffCalculator builderDiffCalculator;
+    private BuilderUpdateWriter builderUpdateWriter;
+
+    public BuilderSyncTaskFactory(PsiHelper psiHelper, BuilderFinder builderFinder, BuilderDiffCalculator builderDiffCalculator,
+                                  BuilderUpdateWriter builderUpdateWriter) {
+        this.psiHelper = psiHelper;
+        this.builderFinder = builderFinder;
+        this.builderDiffCalculator = builderDiffCalculator;
+        this.builderUpdateWriter = builderUpdateWriter;
+    }
+
+    public BuilderSyncTask createBuilderSyncTask(Project project, List<SmartPsiElementPointer<PsiClass>> classes, BuilderSyncQueue builderSyncQueue) {
+        return new BuilderSyncTask(project, classes, builderSyncQueue, psiHelper, builderFinder, builderDiffCalculator, builderUpdateWriter);
+    }
+}
@@ -0,0 +1,28 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BulkBuilderAnalyzer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+import pl.mjedynak.idea.plugins.builder.writer.BulkBuilderTask;
+
+public class BulkBuilderTaskFactory {
+
+    private BulkBuilderAnalyzer bulkBuilderAnalyzer;
+    private BuilderWriter builderWriter;
+    private PsiHelper psiHelper;
+    private GuiHelper guiHelper;
+
+    public BulkBuilderTaskFactory(BulkBuilderAnalyzer bulkBuilderAnalyzer, BuilderWriter builderWriter, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.bulkBuilderAnalyzer = bulkBuilderAnalyzer;
+        this.builderWriter = builderWriter;
+        this.psiHelper = psiHelper;
+        this.guiHelper = guiHelper;
+    }
+
+    public BulkBuilderTask createBulkBuilderTask(Project project, PsiElement[] elements) {
+        return new BulkBuilderTask(project, elements, bulkBuilderAnalyzer, builderWriter, psiHelper, guiHelper);
+    }
+}
@@ -0,0 +1,27 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.util.Alarm;
+import pl.mjedynak.idea.plugins.builder.gui.BuilderPreviewUpdater;
+import pl.mjedynak.idea.plugins.builder.gui.FieldChooserDialog;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPreviewRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+
+public class FieldChooserDialogFactory {
+
+    private BuilderPreviewRenderer builderPreviewRenderer;
+    private PsiHelper psiHelper;
+
+    public FieldChooserDialogFactory(BuilderPreviewRenderer builderPreviewRenderer, PsiHelper psiHelper) {
+        this.builderPreviewRenderer = builderPreviewRenderer;
+        this.psiHelper = psiHelper;
+    }
+
+    public FieldChooserDialog createFieldChooserDialog(Project project, BuilderPreviewContext builderPreviewContext) {
+        FieldChooserDialog dialog = new FieldChooserDialog(project);
+        Alarm alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, dialog.getDisposable());
+        dialog.setBuilderPreviewUpdater(new BuilderPreviewUpdater(alarm, builderPreviewRenderer, psiHelper, dialog, builderPreviewContext));
+        return dialog;
+    }
+}
@@ -0,0 +1,25 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisListener;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisTask;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+public class PsiFieldsAnalysisTaskFactory {
+
+    private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    private PsiHelper psiHelper;
+
+    public PsiFieldsAnalysisTaskFactory(PsiFieldsAnalysisCache psiFieldsAnalysisCache, PsiHelper psiHelper) {
+        this.psiFieldsAnalysisCache = psiFieldsAnalysisCache;
+        this.psiHelper = psiHelper;
+    }
+
+    public PsiFieldsAnalysisTask createPsiFieldsAnalysisTask(Project project, PsiClass psiClass, NamingConvention namingConvention,
+                                                             PsiFieldsAnalysisListener listener) {
+        return new PsiFieldsAnalysisTask(project, psiClass, namingConvention, psiFieldsAnalysisCache, psiHelper, listener);
+    }
+}
@@ -1,35 +1,67 @@
 package pl.mjedynak.idea.plugins.builder.factory;
 
-import com.intellij.codeInsight.generation.PsiElementClassMember;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.TargetConstructor;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class PsiFieldsForBuilderFactory {
 
+    public static final String NO_USABLE_CONSTRUCTOR_MESSAGE =
+            "Creating the object in build() needs a constructor accessible from the builder whose parameters all set fields";
+
     private PsiFieldVerifier psiFieldVerifier;
 
     public PsiFieldsForBuilderFactory(PsiFieldVerifier psiFieldVerifier) {
         this.psiFieldVerifier = psiFieldVerifier;
     }
 
-    public PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiElementClassMember> psiElementClassMembers, PsiClass psiClass) {
+    public PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiField> selectedPsiFields, PsiFieldsAnalysis psiFieldsAnalysis, BuilderOptions options) {
+        if (options.isTargetCreatedInBuild()) {
+            return createPsiFieldsForImmutableTarget(selectedPsiFields, psiFieldsAnalysis, options);
+        }
+        return createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis);
+    }
+
+    public PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiField> selectedPsiFields, PsiFieldsAnalysis psiFieldsAnalysis) {
         List<PsiField> psiFieldsForSetters = new ArrayList<PsiField>();
         List<PsiField> psiFieldsForConstructor = new ArrayList<PsiField>();
-        for (PsiElementClassMember psiElementClassMember : psiElementClassMembers) {
-            PsiElement psiElement = psiElementClassMember.getPsiElement();
-            if (psiElement instanceof PsiField) {
-                if (psiFieldVerifier.isSetInSetterMethod((PsiField) psiElement, psiClass)) {
-                    psiFieldsForSetters.add((PsiField) psiElement);
-
-                } else if (psiFieldVerifier.isSetInConstructor((PsiField) psiElement, psiClass)) {
-                    psiFieldsForConstructor.add((PsiField) psiElement);
-                }
+        for (PsiField psiField : selectedPsiFields) {
+            FieldInitialization initialization = psiFieldsAnalysis.getInitialization(psiField);
+            if (initialization != null && initialization.isSetInSetter()) {
+                psiFieldsForSetters.add(psiField);
+
+            } else if (initialization != null && initialization.isSetInConstructor()) {
+                psiFieldsForConstructor.add(psiField);
+            }
+        }
+        return new PsiFieldsForBuilder(psiFieldsForSetters, psiFieldsForConstructor);
+    }
+
+    public boolean hasUsableConstructor(PsiFieldsAnalysis psiFieldsAnalysis, BuilderOptions options) {
+        return !options.isTargetCreatedInBuild()
+                || psiFieldVerifier.chooseConstructor(psiFieldsAnalysis.getConstructors(), Collections.<PsiField>emptyList(), options) != null;
+    }
+
+    private PsiFieldsForBuilder createPsiFieldsForImmutableTarget(List<PsiField> selectedPsiFields, PsiFieldsAnalysis psiFieldsAnalysis,
+                                                                  BuilderOptions options) {
+        TargetConstructor constructor = psiFieldVerifier.chooseConstructor(psiFieldsAnalysis.getConstructors(), selectedPsiFields, options);
+        if (constructor == null) {
+            throw new IllegalStateException(NO_USABLE_CONSTRUCTOR_MESSAGE);
+        }
+        List<PsiField> psiFieldsForConstructor = constructor.getFields();
+        List<PsiField> psiFieldsForSetters = new ArrayList<PsiField>();
+        for (PsiField psiField : selectedPsiFields) {
+            FieldInitialization initialization = psiFieldsAnalysis.getInitialization(psiField);
+            if (!psiFieldsForConstructor.contains(psiField) && initialization != null && initialization.isSetInSetter()) {
+                psiFieldsForSetters.add(psiField);
             }
         }
         return new PsiFieldsForBuilder(psiFieldsForSetters, psiFieldsForConstructor);
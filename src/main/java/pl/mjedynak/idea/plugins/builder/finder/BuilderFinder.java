@@ -1,6 +1,7 @@
 package pl.mjedynak.idea.plugins.builder.finder;
 
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifier;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
 
@@ -16,15 +17,33 @@ public class BuilderFinder {
     }
 
     public PsiClass findBuilderForClass(PsiClass psiClass) {
+        PsiClass innerBuilder = typeIsCorrect(psiClass) ? findInnerBuilder(psiClass) : null;
+        if (innerBuilder != null) {
+            return innerBuilder;
+        }
         String searchName = psiClass.getName() + SEARCH_PATTERN;
         return findClass(psiClass, searchName);
     }
 
     public PsiClass findClassForBuilder(PsiClass psiClass) {
+        PsiClass containingClass = psiClass.getContainingClass();
+        if (containingClass != null && psiClass.hasModifierProperty(PsiModifier.STATIC)) {
+            return containingClass;
+        }
         String searchName = psiClass.getName().replaceFirst(SEARCH_PATTERN, EMPTY_STRING);
         return findClass(psiClass, searchName);
     }
 
+    private PsiClass findInnerBuilder(PsiClass psiClass) {
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            String name = innerClass.getName();
+            if (name != null && name.endsWith(SEARCH_PATTERN) && innerClass.hasModifierProperty(PsiModifier.STATIC)) {
+                return innerClass;
+            }
+        }
+        return null;
+    }
+
     private PsiClass findClass(PsiClass psiClass, String searchName) {
         PsiClass result = null;
         if (typeIsCorrect(psiClass)) {
@@ -0,0 +1,8 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+
+public interface BuilderPreviewListener {
+
+    void previewRendered(BuilderPreview builderPreview);
+}
@@ -0,0 +1,106 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.psi.PsiField;
+import com.intellij.util.Alarm;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPreviewRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+
+import java.util.List;
+
+public class BuilderPreviewUpdater {
+
+    static final int PREVIEW_DELAY_MILLIS = 300;
+
+    private Alarm alarm;
+    private BuilderPreviewRenderer builderPreviewRenderer;
+    private PsiHelper psiHelper;
+    private BuilderPreviewListener listener;
+    private BuilderPreviewContext context;
+    private volatile ProgressIndicator currentIndicator;
+
+    public BuilderPreviewUpdater(Alarm alarm, BuilderPreviewRenderer builderPreviewRenderer, PsiHelper psiHelper, BuilderPreviewListener listener,
+                                 BuilderPreviewContext context) {
+        this.alarm = alarm;
+        this.builderPreviewRenderer = builderPreviewRenderer;
+        this.psiHelper = psiHelper;
+        this.listener = listener;
+        this.context = context;
+    }
+
+    public void schedule(final List<PsiField> selectedFields, final PsiFieldsAnalysis psiFieldsAnalysis) {
+        cancelCurrentRendering();
+        alarm.cancelAllRequests();
+        alarm.addRequest(new Runnable() {
+            @Override
+            public void run() {
+                render(new EmptyProgressIndicator(), selectedFields, psiFieldsAnalysis);
+            }
+        }, PREVIEW_DELAY_MILLIS);
+    }
+
+    public boolean canRender(PsiFieldsAnalysis psiFieldsAnalysis) {
+        return builderPreviewRenderer.canRender(context, psiFieldsAnalysis);
+    }
+
+    public void dispose() {
+        cancelCurrentRendering();
+        alarm.cancelAllRequests();
+    }
+
+    void render(final ProgressIndicator indicator, List<PsiField> selectedFields, PsiFieldsAnalysis psiFieldsAnalysis) {
+        currentIndicator = indicator;
+        Application application = psiHelper.getApplication();
+        final BuilderPreview builderPreview = renderInReadAction(indicator, application, selectedFields, psiFieldsAnalysis);
+        if (builderPreview != null) {
+            application.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (currentIndicator == indicator && !indicator.isCanceled()) {
+                        listener.previewRendered(builderPreview);
+                    }
+                }
+            }, ModalityState.any());
+        }
+    }
+
+    private BuilderPreview renderInReadAction(final ProgressIndicator indicator, Application application, final List<PsiField> selectedFields,
+                                              final PsiFieldsAnalysis psiFieldsAnalysis) {
+        final BuilderPreview[] result = new BuilderPreview[1];
+        final boolean[] completed = new boolean[1];
+        while (!completed[0] && !indicator.isCanceled()) {
+            psiHelper.getProgressManager().runProcess(new Runnable() {
+                @Override
+                public void run() {
+                    completed[0] = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (context.getSrcClass().isValid()) {
+                                result[0] = builderPreviewRenderer.render(context, selectedFields, psiFieldsAnalysis);
+                            }
+                        }
+                    });
+                }
+            }, indicator);
+            if (!completed[0]) {
+                application.runReadAction(EmptyRunnable.getInstance());
+            }
+        }
+        return indicator.isCanceled() ? null : result[0];
+    }
+
+    private void cancelCurrentRendering() {
+        ProgressIndicator indicator = currentIndicator;
+        if (indicator != null) {
+            indicator.cancel();
+        }
+    }
+}
@@ -19,9 +19,11 @@ import com.intellij.ui.ReferenceEditorComboWithBrowseButton;
 import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PackageChooserDialogFactory;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderSourceRenderer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
 import javax.swing.Action;
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -34,6 +36,8 @@ import java.awt.FontMetrics;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 
@@ -41,6 +45,7 @@ import java.awt.event.KeyEvent;
 public class CreateBuilderDialog extends DialogWrapper {
 
     static final String RECENTS_KEY = "CreateBuilderDialog.RecentsKey";
+    static final String INNER_BUILDER_CLASS_NAME = "Builder";
     private static final int WIDTH = 40;
 
     private PsiHelper psiHelper;
@@ -50,6 +55,10 @@ public class CreateBuilderDialog extends DialogWrapper {
     private PsiClass sourceClass;
     private JTextField targetClassNameField;
     private JTextField targetMethodPrefix;
+    private JCheckBox innerBuilder;
+    private JCheckBox immutableTarget;
+    private JCheckBox reusable;
+    private String targetClassName;
     private ReferenceEditorComboWithBrowseButton targetPackageField;
 
     public CreateBuilderDialog(Project project,
@@ -66,6 +75,7 @@ public class CreateBuilderDialog extends DialogWrapper {
         this.guiHelper = guiHelper;
         this.project = project;
         this.sourceClass = sourceClass;
+        this.targetClassName = targetClassName;
         targetClassNameField = new JTextField(targetClassName);
         targetMethodPrefix = new JTextField(methodPrefix);
         setPreferredSize(targetClassNameField);
@@ -74,6 +84,17 @@ public class CreateBuilderDialog extends DialogWrapper {
         String targetPackageName = (targetPackage != null) ? targetPackage.getQualifiedName() : "";
         targetPackageField = referenceEditorComboWithBrowseButtonFactory.getReferenceEditorComboWithBrowseButton(project, targetPackageName, RECENTS_KEY);
         targetPackageField.addActionListener(new ChooserDisplayerActionListener(targetPackageField, new PackageChooserDialogFactory(), project));
+        innerBuilder = new JCheckBox("Create as inner static class");
+        innerBuilder.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                innerBuilderToggled();
+            }
+        });
+        immutableTarget = new JCheckBox("Build through constructor (immutable target)");
+        reusable = new JCheckBox("Reusable builder with reset(), one per thread");
+        reusable.setToolTipText("Adds " + BuilderSourceRenderer.THREAD_LOCAL_METHOD_NAME + "(), which returns the same builder on every call in a thread."
+                + " It is not reentrant: do not nest it or keep the builder after build(). The initializing method still creates a new builder.");
         setTitle(title);
     }
 
@@ -158,9 +179,27 @@ public class CreateBuilderDialog extends DialogWrapper {
 
         addInnerPanel(panel, gbConstraints);
 
+        gbConstraints.gridx = 0;
+        gbConstraints.gridy = 4;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 2;
+        panel.add(innerBuilder, gbConstraints);
+
+        gbConstraints.gridy = 5;
+        panel.add(immutableTarget, gbConstraints);
+
+        gbConstraints.gridy = 6;
+        panel.add(reusable, gbConstraints);
+
         return panel;
     }
 
+    private void innerBuilderToggled() {
+        boolean inner = innerBuilder.isSelected();
+        targetClassNameField.setText(inner ? INNER_BUILDER_CLASS_NAME : targetClassName);
+        targetPackageField.setEnabled(!inner);
+    }
+
     private void addInnerPanel(JPanel panel, GridBagConstraints gbConstraints) {
         JPanel innerPanel = createInnerPanel();
         panel.add(innerPanel, gbConstraints);
@@ -173,13 +212,17 @@ public class CreateBuilderDialog extends DialogWrapper {
     }
 
     protected void doOKAction() {
-        registerEntry(RECENTS_KEY, targetPackageField.getText());
-        Module module = psiHelper.findModuleForPsiClass(sourceClass, project);
-        if (module == null) {
-            throw new IllegalStateException("Cannot find module for class " + sourceClass.getName());
+        if (isInnerBuilder()) {
+            setTargetDirectory(sourceClass.getContainingFile().getContainingDirectory());
+        } else {
+            registerEntry(RECENTS_KEY, targetPackageField.getText());
+            Module module = psiHelper.findModuleForPsiClass(sourceClass, project);
+            if (module == null) {
+                throw new IllegalStateException("Cannot find module for class " + sourceClass.getName());
+            }
+            OKActionRunnable okActionRunnable = new OKActionRunnable(this, psiHelper, guiHelper, project, module, getPackageName(), getClassName());
+            executeCommand(okActionRunnable);
         }
-        OKActionRunnable okActionRunnable = new OKActionRunnable(this, psiHelper, guiHelper, project, module, getPackageName(), getClassName());
-        executeCommand(okActionRunnable);
         callSuper();
     }
 
@@ -212,6 +255,18 @@ public class CreateBuilderDialog extends DialogWrapper {
         return targetMethodPrefix.getText();
     }
 
+    public boolean isInnerBuilder() {
+        return innerBuilder.isSelected();
+    }
+
+    public boolean isImmutableTarget() {
+        return immutableTarget.isSelected();
+    }
+
+    public boolean isReusable() {
+        return reusable.isSelected();
+    }
+
     public PsiDirectory getTargetDirectory() {
         return targetDirectory;
     }
@@ -0,0 +1,193 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.psi.PsiField;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisListener;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.DocumentEvent;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+public class FieldChooserDialog extends DialogWrapper implements PsiFieldsAnalysisListener, BuilderPreviewListener {
+
+    static final String TITLE = "Select Fields to Be Available in Builder";
+    static final String TOGGLE_ACTION_KEY = "toggleFieldRows";
+    static final String TOGGLE_ALL_ACTION_KEY = "toggleAllFieldRows";
+    private static final String PROTOTYPE_ROW_TEXT = "fieldNamePrototype: TypePrototype<Parameter>";
+    private static final int VISIBLE_ROW_COUNT = 20;
+    private static final float LIST_PROPORTION = 0.4f;
+
+    private final FieldChooserListModel listModel = new FieldChooserListModel();
+    private JBList list;
+    private SearchTextField filterField;
+    private JTextArea previewArea;
+    private PsiFieldsAnalysis psiFieldsAnalysis;
+    private BuilderPreviewUpdater builderPreviewUpdater;
+    private BuilderPreview builderPreview;
+    private volatile boolean closed;
+
+    public FieldChooserDialog(Project project) {
+        super(project, true);
+        setTitle(TITLE);
+    }
+
+    @Override
+    public void show() {
+        super.init();
+        setOKActionEnabled(psiFieldsAnalysis != null);
+        super.show();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        list = new JBList(listModel);
+        list.setCellRenderer(new FieldRowRenderer());
+        list.setPrototypeCellValue(new FieldRow(null, PROTOTYPE_ROW_TEXT));
+        list.setVisibleRowCount(VISIBLE_ROW_COUNT);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), TOGGLE_ACTION_KEY);
+        list.getActionMap().put(TOGGLE_ACTION_KEY, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                listModel.toggle(list.getSelectedIndices());
+                selectionChanged();
+            }
+        });
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, Toolkit.getDefaultToolkit().getMenuShortcutKeyMask()), TOGGLE_ALL_ACTION_KEY);
+        list.getActionMap().put(TOGGLE_ALL_ACTION_KEY, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                listModel.toggleAllVisible();
+                selectionChanged();
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0 && list.getCellBounds(index, index).contains(e.getPoint())) {
+                    listModel.toggle(new int[]{index});
+                    selectionChanged();
+                }
+            }
+        });
+
+        filterField = new SearchTextField(false);
+        filterField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(DocumentEvent e) {
+                listModel.setFilter(filterField.getText());
+            }
+        });
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(filterField, BorderLayout.NORTH);
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.setPreferredSize(new Dimension(list.getPreferredScrollableViewportSize()));
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        previewArea = new JTextArea();
+        previewArea.setEditable(false);
+        previewArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, filterField.getFont().getSize()));
+        JBSplitter splitter = new JBSplitter(false, LIST_PROPORTION);
+        splitter.setFirstComponent(panel);
+        splitter.setSecondComponent(new JBScrollPane(previewArea));
+        return splitter;
+    }
+
+    private void selectionChanged() {
+        if (builderPreviewUpdater != null && psiFieldsAnalysis != null) {
+            builderPreviewUpdater.schedule(getSelectedFields(), psiFieldsAnalysis);
+        }
+    }
+
+    @Override
+    public JComponent getPreferredFocusedComponent() {
+        return filterField;
+    }
+
+    @Override
+    public void rowsAnalyzed(List<FieldRow> rows) {
+        listModel.addRows(rows);
+    }
+
+    @Override
+    public void analysisFinished(PsiFieldsAnalysis psiFieldsAnalysis) {
+        listModel.retainRows(psiFieldsAnalysis.getFields());
+        if (builderPreviewUpdater != null && !builderPreviewUpdater.canRender(psiFieldsAnalysis)) {
+            analysisFailed(PsiFieldsForBuilderFactory.NO_USABLE_CONSTRUCTOR_MESSAGE);
+            return;
+        }
+        this.psiFieldsAnalysis = psiFieldsAnalysis;
+        setOKActionEnabled(true);
+        selectionChanged();
+    }
+
+    @Override
+    public void analysisFailed(String message) {
+        setOKActionEnabled(false);
+        setErrorText(message);
+    }
+
+    @Override
+    public void previewRendered(BuilderPreview builderPreview) {
+        this.builderPreview = builderPreview;
+        if (previewArea != null) {
+            previewArea.setText(builderPreview.getText());
+            previewArea.setCaretPosition(0);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    protected void dispose() {
+        closed = true;
+        if (builderPreviewUpdater != null) {
+            builderPreviewUpdater.dispose();
+        }
+        super.dispose();
+    }
+
+    public List<PsiField> getSelectedFields() {
+        return listModel.getSelectedFields();
+    }
+
+    public PsiFieldsAnalysis getPsiFieldsAnalysis() {
+        return psiFieldsAnalysis;
+    }
+
+    public BuilderPreview getBuilderPreview() {
+        return builderPreview;
+    }
+
+    public void setBuilderPreviewUpdater(BuilderPreviewUpdater builderPreviewUpdater) {
+        this.builderPreviewUpdater = builderPreviewUpdater;
+    }
+}
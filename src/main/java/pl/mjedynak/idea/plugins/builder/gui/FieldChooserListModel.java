@@ -0,0 +1,130 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class FieldChooserListModel extends AbstractListModel {
+
+    private final List<FieldRow> rows = new ArrayList<FieldRow>();
+    private List<FieldRow> visibleRows = new ArrayList<FieldRow>();
+    private String filter = "";
+
+    public void addRows(List<FieldRow> newRows) {
+        rows.addAll(newRows);
+        int firstAdded = visibleRows.size();
+        for (FieldRow row : newRows) {
+            if (row.matches(filter)) {
+                visibleRows.add(row);
+            }
+        }
+        if (visibleRows.size() > firstAdded) {
+            fireIntervalAdded(this, firstAdded, visibleRows.size() - 1);
+        }
+    }
+
+    public void retainRows(Collection<PsiField> fields) {
+        Set<PsiField> retainedFields = new HashSet<PsiField>(fields);
+        boolean removed = false;
+        for (Iterator<FieldRow> iterator = rows.iterator(); iterator.hasNext();) {
+            if (!retainedFields.contains(iterator.next().getPsiField())) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        if (removed) {
+            List<FieldRow> filteredRows = new ArrayList<FieldRow>();
+            for (FieldRow row : rows) {
+                if (row.matches(filter)) {
+                    filteredRows.add(row);
+                }
+            }
+            replaceVisibleRows(filteredRows);
+        }
+    }
+
+    public void setFilter(String text) {
+        String newFilter = text.trim().toLowerCase(Locale.ENGLISH);
+        if (newFilter.equals(filter)) {
+            return;
+        }
+        List<FieldRow> candidates = newFilter.contains(filter) ? visibleRows : rows;
+        List<FieldRow> filteredRows = new ArrayList<FieldRow>();
+        for (FieldRow row : candidates) {
+            if (row.matches(newFilter)) {
+                filteredRows.add(row);
+            }
+        }
+        filter = newFilter;
+        replaceVisibleRows(filteredRows);
+    }
+
+    private void replaceVisibleRows(List<FieldRow> filteredRows) {
+        int oldSize = visibleRows.size();
+        int newSize = filteredRows.size();
+        visibleRows = filteredRows;
+        if (oldSize > newSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    public void toggle(int[] indices) {
+        if (indices.length == 0) {
+            return;
+        }
+        boolean selected = !visibleRows.get(indices[0]).isSelected();
+        for (int index : indices) {
+            visibleRows.get(index).setSelected(selected);
+        }
+        fireContentsChanged(this, indices[0], indices[indices.length - 1]);
+    }
+
+    public void toggleAllVisible() {
+        boolean selected = false;
+        for (FieldRow row : visibleRows) {
+            if (!row.isSelected()) {
+                selected = true;
+                break;
+            }
+        }
+        for (FieldRow row : visibleRows) {
+            row.setSelected(selected);
+        }
+        if (!visibleRows.isEmpty()) {
+            fireContentsChanged(this, 0, visibleRows.size() - 1);
+        }
+    }
+
+    public List<PsiField> getSelectedFields() {
+        List<PsiField> selectedFields = new ArrayList<PsiField>();
+        for (FieldRow row : rows) {
+            if (row.isSelected()) {
+                selectedFields.add(row.getPsiField());
+            }
+        }
+        return selectedFields;
+    }
+
+    @Override
+    public int getSize() {
+        return visibleRows.size();
+    }
+
+    @Override
+    public FieldRow getElementAt(int index) {
+        return visibleRows.get(index);
+    }
+}
@@ -0,0 +1,22 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.util.ui.UIUtil;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+
+import javax.swing.JCheckBox;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import java.awt.Component;
+
+public class FieldRowRenderer extends JCheckBox implements ListCellRenderer {
+
+    @Override
+    public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+        FieldRow row = (FieldRow) value;
+        setText(row.getText());
+        setSelected(row.isSelected());
+        setBackground(isSelected ? UIUtil.getListSelectionBackground() : UIUtil.getListBackground());
+        setForeground(isSelected ? UIUtil.getListSelectionForeground() : UIUtil.getListForeground());
+        return this;
+    }
+}
@@ -1,13 +1,21 @@
 package pl.mjedynak.idea.plugins.builder.gui.helper;
 
 import com.intellij.codeInsight.CodeInsightUtil;
+import com.intellij.codeInsight.generation.PsiFieldMember;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.ide.util.MemberChooser;
+import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.ex.IdeDocumentHistory;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class GuiHelper {
 
@@ -15,10 +23,40 @@ public class GuiHelper {
         Messages.showMessageDialog(project, message, title, icon);
     }
 
+    public void showHint(Editor editor, String message) {
+        HintManager.getInstance().showInformationHint(editor, message);
+    }
+
     public void includeCurrentPlaceAsChangePlace(Project project) {
         IdeDocumentHistory.getInstance(project).includeCurrentPlaceAsChangePlace();
     }
 
+    public List<PsiField> chooseFields(Project project, String title, List<PsiField> fields, Collection<PsiField> selectedFields) {
+        PsiFieldMember[] members = new PsiFieldMember[fields.size()];
+        List<PsiFieldMember> selectedMembers = new ArrayList<PsiFieldMember>();
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new PsiFieldMember(fields.get(i));
+            if (selectedFields.contains(fields.get(i))) {
+                selectedMembers.add(members[i]);
+            }
+        }
+        MemberChooser<PsiFieldMember> chooser = new MemberChooser<PsiFieldMember>(members, true, true, project);
+        chooser.setTitle(title);
+        chooser.selectElements(selectedMembers.toArray(new PsiFieldMember[selectedMembers.size()]));
+        chooser.show();
+        if (!chooser.isOK()) {
+            return null;
+        }
+        List<PsiField> chosenFields = new ArrayList<PsiField>();
+        List<PsiFieldMember> chosenMembers = chooser.getSelectedElements();
+        if (chosenMembers != null) {
+            for (PsiFieldMember member : chosenMembers) {
+                chosenFields.add(member.getElement());
+            }
+        }
+        return chosenFields;
+    }
+
     public void positionCursor(Project project, PsiFile psiFile, PsiElement psiElement) {
         CodeInsightUtil.positionCursor(project, psiFile, psiElement);
     }
@@ -0,0 +1,212 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiKeyword;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiThisExpression;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BuilderDiffCalculator {
+
+    private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderSpecFactory builderSpecFactory;
+
+    public BuilderDiffCalculator(PsiFieldsAnalysisCache psiFieldsAnalysisCache, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory,
+                                 BuilderSpecFactory builderSpecFactory) {
+        this.psiFieldsAnalysisCache = psiFieldsAnalysisCache;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+        this.builderSpecFactory = builderSpecFactory;
+    }
+
+    public List<PsiField> getSettableFields(PsiClass srcClass, NamingConvention namingConvention) {
+        PsiFieldsAnalysis psiFieldsAnalysis = psiFieldsAnalysisCache.getAnalysis(srcClass, namingConvention);
+        return psiFieldsForBuilderFactory.createPsiFieldsForBuilder(psiFieldsAnalysis.getFields(), psiFieldsAnalysis).getFieldsForSetters();
+    }
+
+    public boolean isUpdatable(PsiClass srcClass, PsiClass builderClass) {
+        return findSrcClassField(srcClass.getName(), builderClass) != null;
+    }
+
+    public Set<String> getFieldNamesInBuilder(PsiClass srcClass, PsiClass builderClass, NamingConvention namingConvention) {
+        BuilderSpec builderSpec = createBuilderSpec(srcClass, builderClass, getSettableFields(srcClass, namingConvention), namingConvention);
+        Map<String, PsiMethod> generatedSetMethods = getGeneratedSetMethods(builderClass, builderSpec.getSrcClassFieldName(), builderSpec.getProperties());
+        Set<String> fieldNames = new HashSet<String>();
+        for (PropertySpec property : builderSpec.getProperties()) {
+            if (generatedSetMethods.containsKey(property.getPropertyName())) {
+                fieldNames.add(property.getFieldName());
+            }
+        }
+        return fieldNames;
+    }
+
+    public BuilderDiff calculate(PsiClass srcClass, PsiClass builderClass, NamingConvention namingConvention, Set<String> chosenFieldNames) {
+        BuilderSpec settableSpec = createBuilderSpec(srcClass, builderClass, getSettableFields(srcClass, namingConvention), namingConvention);
+        List<PropertySpec> chosenProperties = new ArrayList<PropertySpec>();
+        for (PropertySpec property : settableSpec.getProperties()) {
+            if (chosenFieldNames.contains(property.getFieldName())) {
+                chosenProperties.add(property);
+            }
+        }
+        return calculate(builderClass, settableSpec.withProperties(chosenProperties), settableSpec.getProperties());
+    }
+
+    BuilderDiff calculate(PsiClass builderClass, BuilderSpec builderSpec, List<PropertySpec> srcProperties) {
+        Map<String, PsiMethod> generatedSetMethods = getGeneratedSetMethods(builderClass, builderSpec.getSrcClassFieldName(), srcProperties);
+        Set<String> otherMethodNames = new HashSet<String>();
+        for (PsiMethod method : builderClass.getMethods()) {
+            if (!generatedSetMethods.containsValue(method)) {
+                otherMethodNames.add(method.getName());
+            }
+        }
+        List<PropertySpec> addedProperties = new ArrayList<PropertySpec>();
+        Map<PsiMethod, PropertySpec> retypedMethods = new LinkedHashMap<PsiMethod, PropertySpec>();
+        for (PropertySpec property : builderSpec.getProperties()) {
+            if (property.getInitialization().isSetInSetter()) {
+                PsiMethod method = generatedSetMethods.remove(property.getPropertyName());
+                if (method == null) {
+                    if (!otherMethodNames.contains(property.getPropertyName())) {
+                        addedProperties.add(property);
+                    }
+                } else if (!property.getTypeText().equals(getParameter(method).getType().getCanonicalText())) {
+                    retypedMethods.put(method, property);
+                }
+            }
+        }
+        return new BuilderDiff(builderSpec, addedProperties, new ArrayList<PsiMethod>(generatedSetMethods.values()), retypedMethods);
+    }
+
+    private BuilderSpec createBuilderSpec(PsiClass srcClass, PsiClass builderClass, List<PsiField> settableFields, NamingConvention namingConvention) {
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(settableFields, Collections.<PsiField>emptyList());
+        BuilderSpec builderSpec = builderSpecFactory.createBuilderSpec(getPackageName(builderClass), builderClass.getName(), srcClass, psiFieldsForBuilder,
+                namingConvention);
+        return withExistingSrcClassField(builderClass, builderSpec);
+    }
+
+    private Map<String, PsiMethod> getGeneratedSetMethods(PsiClass builderClass, String srcClassFieldName, List<PropertySpec> srcProperties) {
+        Map<String, PropertySpec> propertiesBySetterName = new HashMap<String, PropertySpec>();
+        for (PropertySpec property : srcProperties) {
+            propertiesBySetterName.put(property.getSetterName(), property);
+        }
+        Map<String, PsiMethod> generatedSetMethods = new LinkedHashMap<String, PsiMethod>();
+        for (PsiMethod method : builderClass.getMethods()) {
+            if (isGeneratedSetMethod(method, srcClassFieldName, propertiesBySetterName)) {
+                generatedSetMethods.put(method.getName(), method);
+            }
+        }
+        return generatedSetMethods;
+    }
+
+    private boolean isGeneratedSetMethod(PsiMethod method, String srcClassFieldName, Map<String, PropertySpec> propertiesBySetterName) {
+        if (method.isConstructor() || method.hasModifierProperty(PsiModifier.STATIC) || method.getParameterList().getParametersCount() != 1
+                || method.getBody() == null) {
+            return false;
+        }
+        PsiStatement[] statements = method.getBody().getStatements();
+        int count = statements.length;
+        String parameterName = getParameter(method).getName();
+        String setterName = count >= 2 && isReturnThis(statements[count - 1]) ? getCalledSetterName(statements[count - 2], srcClassFieldName, parameterName)
+                : null;
+        if (setterName == null) {
+            return false;
+        }
+        PropertySpec property = propertiesBySetterName.get(setterName);
+        return property == null || property.getPropertyName().equals(method.getName()) && count == 4
+                && isValueAssignment(statements[0], parameterName) && isSetFlagAssignment(statements[1]);
+    }
+
+    private String getCalledSetterName(PsiStatement statement, String srcClassFieldName, String parameterName) {
+        if (!(statement instanceof PsiExpressionStatement)
+                || !(((PsiExpressionStatement) statement).getExpression() instanceof PsiMethodCallExpression)) {
+            return null;
+        }
+        PsiMethodCallExpression call = (PsiMethodCallExpression) ((PsiExpressionStatement) statement).getExpression();
+        PsiExpression[] arguments = call.getArgumentList().getExpressions();
+        boolean setterCall = isSimpleReference(call.getMethodExpression().getQualifierExpression(), srcClassFieldName)
+                && arguments.length == 1 && isSimpleReference(arguments[0], parameterName);
+        return setterCall ? call.getMethodExpression().getReferenceName() : null;
+    }
+
+    private boolean isValueAssignment(PsiStatement statement, String parameterName) {
+        PsiAssignmentExpression assignment = asAssignment(statement);
+        return assignment != null && assignment.getLExpression() instanceof PsiReferenceExpression
+                && ((PsiReferenceExpression) assignment.getLExpression()).getQualifierExpression() instanceof PsiThisExpression
+                && isSimpleReference(assignment.getRExpression(), parameterName);
+    }
+
+    private boolean isSetFlagAssignment(PsiStatement statement) {
+        PsiAssignmentExpression assignment = asAssignment(statement);
+        return assignment != null && assignment.getLExpression() instanceof PsiReferenceExpression && assignment.getRExpression() != null
+                && PsiKeyword.TRUE.equals(assignment.getRExpression().getText());
+    }
+
+    private PsiAssignmentExpression asAssignment(PsiStatement statement) {
+        if (statement instanceof PsiExpressionStatement && ((PsiExpressionStatement) statement).getExpression() instanceof PsiAssignmentExpression) {
+            return (PsiAssignmentExpression) ((PsiExpressionStatement) statement).getExpression();
+        }
+        return null;
+    }
+
+    private boolean isSimpleReference(PsiExpression expression, String name) {
+        if (!(expression instanceof PsiReferenceExpression)) {
+            return false;
+        }
+        PsiReferenceExpression reference = (PsiReferenceExpression) expression;
+        return reference.getQualifierExpression() == null && name.equals(reference.getReferenceName());
+    }
+
+    private boolean isReturnThis(PsiStatement statement) {
+        return statement instanceof PsiReturnStatement && ((PsiReturnStatement) statement).getReturnValue() instanceof PsiThisExpression;
+    }
+
+    private PsiParameter getParameter(PsiMethod method) {
+        return method.getParameterList().getParameters()[0];
+    }
+
+    private BuilderSpec withExistingSrcClassField(PsiClass builderClass, BuilderSpec builderSpec) {
+        PsiField srcClassField = findSrcClassField(builderSpec.getSrcClassName(), builderClass);
+        return srcClassField != null ? builderSpec.withSrcClassFieldName(srcClassField.getName()) : builderSpec;
+    }
+
+    private PsiField findSrcClassField(String srcClassName, PsiClass builderClass) {
+        for (PsiField field : builderClass.getFields()) {
+            if (field.getType().getPresentableText().equals(srcClassName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private String getPackageName(PsiClass builderClass) {
+        PsiFile builderFile = builderClass.getContainingFile();
+        return builderFile instanceof PsiJavaFile ? ((PsiJavaFile) builderFile).getPackageName() : "";
+    }
+}
@@ -0,0 +1,50 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+public class BuilderFileCreator {
+
+    private PsiHelper psiHelper;
+    private BuilderRenderer<String> builderRenderer;
+    private BuilderFormatter builderFormatter;
+
+    public BuilderFileCreator(PsiHelper psiHelper, BuilderRenderer<String> builderRenderer, BuilderFormatter builderFormatter) {
+        this.psiHelper = psiHelper;
+        this.builderRenderer = builderRenderer;
+        this.builderFormatter = builderFormatter;
+    }
+
+    public PsiClass createBuilder(Project project, PsiDirectory targetDirectory, BuilderSpec builderSpec) {
+        return createBuilder(project, targetDirectory, builderSpec, builderRenderer.render(builderSpec));
+    }
+
+    public PsiClass createBuilder(Project project, PsiDirectory targetDirectory, BuilderSpec builderSpec, String builderText) {
+        String builderClassName = builderSpec.getBuilderClassName();
+        checkCanCreate(targetDirectory, builderClassName);
+        PsiJavaFile builderFile = psiHelper.createJavaFile(project, builderClassName, builderText);
+        builderFormatter.format(project, getSingleClass(builderFile, builderClassName));
+        return attach(targetDirectory, builderFile, builderClassName);
+    }
+
+    public void checkCanCreate(PsiDirectory targetDirectory, String builderClassName) {
+        targetDirectory.checkCreateFile(builderClassName + "." + JavaFileType.DEFAULT_EXTENSION);
+    }
+
+    public PsiClass attach(PsiDirectory targetDirectory, PsiJavaFile builderFile, String builderClassName) {
+        return getSingleClass((PsiJavaFile) targetDirectory.add(builderFile), builderClassName);
+    }
+
+    private PsiClass getSingleClass(PsiJavaFile builderFile, String builderClassName) {
+        PsiClass[] classes = builderFile.getClasses();
+        if (classes.length != 1) {
+            throw new IncorrectOperationException("Cannot parse generated builder " + builderClassName);
+        }
+        return classes[0];
+    }
+}
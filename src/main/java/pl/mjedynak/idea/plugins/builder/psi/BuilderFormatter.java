@@ -0,0 +1,38 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+
+import java.util.List;
+
+public class BuilderFormatter {
+
+    private PsiHelper psiHelper;
+
+    public BuilderFormatter(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public void format(Project project, PsiClass builderClass) {
+        JavaCodeStyleManager javaCodeStyleManager = psiHelper.getJavaCodeStyleManager(project);
+        javaCodeStyleManager.shortenClassReferences(builderClass);
+        PsiFile builderFile = builderClass.getContainingFile();
+        if (builderFile instanceof PsiJavaFile) {
+            javaCodeStyleManager.optimizeImports(builderFile);
+        }
+        psiHelper.getCodeStyleManager(project).reformat(builderClass);
+    }
+
+    public void formatElements(Project project, List<PsiElement> elements) {
+        JavaCodeStyleManager javaCodeStyleManager = psiHelper.getJavaCodeStyleManager(project);
+        CodeStyleManager codeStyleManager = psiHelper.getCodeStyleManager(project);
+        for (PsiElement element : elements) {
+            codeStyleManager.reformat(javaCodeStyleManager.shortenClassReferences(element));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiTypeElement;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+
+public class BuilderMethodTemplates {
+
+    static final String BUILDER_CLASS = "BuilderClass__";
+    static final String SRC_CLASS = "SrcClass__";
+    static final String SRC_FIELD = "srcField__";
+    static final String METHOD_NAME = "method__";
+    static final String SETTER_NAME = "setter__";
+    static final String PARAMETER_NAME = "parameter__";
+    static final String SET_FLAG_NAME = "flag__";
+
+    static final String FIELD_TEMPLATE = "private " + SRC_CLASS + " " + SRC_FIELD + ";";
+    static final String VALUE_FIELD_TEMPLATE = "private " + SRC_CLASS + " " + PARAMETER_NAME + ";";
+    static final String SET_FLAG_FIELD_TEMPLATE = "private boolean " + SET_FLAG_NAME + ";";
+    static final String CONSTRUCTOR_TEMPLATE = "private " + BUILDER_CLASS + "() { " + SRC_FIELD + " = new " + SRC_CLASS + "(); }";
+    static final String INITIALIZING_METHOD_TEMPLATE = "public static " + BUILDER_CLASS + " " + METHOD_NAME + "() { return new " + BUILDER_CLASS + "(); }";
+    static final String SET_METHOD_TEMPLATE = "public " + BUILDER_CLASS + " " + METHOD_NAME + "(" + SRC_CLASS + " " + PARAMETER_NAME + ") { "
+            + "this." + PARAMETER_NAME + " = " + PARAMETER_NAME + "; " + SET_FLAG_NAME + " = true; "
+            + SRC_FIELD + "." + SETTER_NAME + "(" + PARAMETER_NAME + "); return this; }";
+    static final String BUILD_METHOD_TEMPLATE = "public " + SRC_CLASS + " build() { return " + SRC_FIELD + "; }";
+
+    private final PsiElementFactory elementFactory;
+    private final PsiField fieldTemplate;
+    private final PsiField valueFieldTemplate;
+    private final PsiField setFlagFieldTemplate;
+    private final PsiMethod constructorTemplate;
+    private final PsiMethod initializingMethodTemplate;
+    private final PsiMethod setMethodTemplate;
+    private final PsiMethod buildMethodTemplate;
+
+    public BuilderMethodTemplates(PsiElementFactory elementFactory) {
+        this.elementFactory = elementFactory;
+        this.fieldTemplate = elementFactory.createFieldFromText(FIELD_TEMPLATE, null);
+        this.valueFieldTemplate = elementFactory.createFieldFromText(VALUE_FIELD_TEMPLATE, null);
+        this.setFlagFieldTemplate = elementFactory.createFieldFromText(SET_FLAG_FIELD_TEMPLATE, null);
+        this.constructorTemplate = elementFactory.createMethodFromText(CONSTRUCTOR_TEMPLATE, null);
+        this.initializingMethodTemplate = elementFactory.createMethodFromText(INITIALIZING_METHOD_TEMPLATE, null);
+        this.setMethodTemplate = elementFactory.createMethodFromText(SET_METHOD_TEMPLATE, null);
+        this.buildMethodTemplate = elementFactory.createMethodFromText(BUILD_METHOD_TEMPLATE, null);
+    }
+
+    public PsiField createField(String srcClassName, String srcClassFieldName) {
+        PsiField field = (PsiField) fieldTemplate.copy();
+        field.setName(srcClassFieldName);
+        renameType(field.getTypeElement(), srcClassName);
+        return field;
+    }
+
+    public PsiField createValueField(PsiTypeElement typeElement, PropertySpec property) {
+        PsiField field = (PsiField) valueFieldTemplate.copy();
+        field.setName(property.getFieldName());
+        field.getTypeElement().replace(typeElement);
+        return field;
+    }
+
+    public PsiField createSetFlagField(PropertySpec property) {
+        PsiField field = (PsiField) setFlagFieldTemplate.copy();
+        field.setName(property.getSetFlagName());
+        return field;
+    }
+
+    public PsiMethod createConstructor(String builderClassName, String srcClassName, String srcClassFieldName) {
+        PsiMethod constructor = copy(constructorTemplate);
+        constructor.setName(builderClassName);
+        PsiAssignmentExpression assignment = (PsiAssignmentExpression) ((PsiExpressionStatement) firstStatement(constructor)).getExpression();
+        rename((PsiReferenceExpression) assignment.getLExpression(), srcClassFieldName);
+        rename(((PsiNewExpression) assignment.getRExpression()).getClassReference(), srcClassName);
+        return constructor;
+    }
+
+    public PsiMethod createInitializingMethod(String builderClassName, String methodName) {
+        PsiMethod method = copy(initializingMethodTemplate);
+        method.setName(methodName);
+        renameType(method.getReturnTypeElement(), builderClassName);
+        PsiNewExpression newExpression = (PsiNewExpression) ((PsiReturnStatement) firstStatement(method)).getReturnValue();
+        rename(newExpression.getClassReference(), builderClassName);
+        return method;
+    }
+
+    public PsiMethod createSetMethod(String builderClassName, String srcClassFieldName, PsiTypeElement typeElement, PropertySpec property) {
+        PsiMethod method = copy(setMethodTemplate);
+        method.setName(property.getPropertyName());
+        renameType(method.getReturnTypeElement(), builderClassName);
+        PsiParameter parameter = method.getParameterList().getParameters()[0];
+        parameter.setName(property.getFieldName());
+        parameter.getTypeElement().replace(typeElement);
+        PsiStatement[] statements = method.getBody().getStatements();
+        PsiAssignmentExpression valueAssignment = (PsiAssignmentExpression) ((PsiExpressionStatement) statements[0]).getExpression();
+        rename((PsiReferenceExpression) valueAssignment.getLExpression(), property.getFieldName());
+        rename((PsiReferenceExpression) valueAssignment.getRExpression(), property.getFieldName());
+        PsiAssignmentExpression flagAssignment = (PsiAssignmentExpression) ((PsiExpressionStatement) statements[1]).getExpression();
+        rename((PsiReferenceExpression) flagAssignment.getLExpression(), property.getSetFlagName());
+        PsiMethodCallExpression setterCall = (PsiMethodCallExpression) ((PsiExpressionStatement) statements[2]).getExpression();
+        PsiReferenceExpression setterReference = setterCall.getMethodExpression();
+        rename((PsiReferenceExpression) setterReference.getQualifierExpression(), srcClassFieldName);
+        rename(setterReference, property.getSetterName());
+        rename((PsiReferenceExpression) setterCall.getArgumentList().getExpressions()[0], property.getFieldName());
+        return method;
+    }
+
+    public PsiMethod createBuildMethod(String srcClassName, String srcClassFieldName) {
+        PsiMethod method = copy(buildMethodTemplate);
+        renameType(method.getReturnTypeElement(), srcClassName);
+        rename((PsiReferenceExpression) ((PsiReturnStatement) firstStatement(method)).getReturnValue(), srcClassFieldName);
+        return method;
+    }
+
+    private void renameType(PsiTypeElement typeElement, String className) {
+        rename(typeElement.getInnermostComponentReferenceElement(), className);
+    }
+
+    private void rename(PsiJavaCodeReferenceElement reference, String name) {
+        reference.getReferenceNameElement().replace(elementFactory.createIdentifier(name));
+    }
+
+    private PsiStatement firstStatement(PsiMethod method) {
+        return method.getBody().getStatements()[0];
+    }
+
+    private PsiMethod copy(PsiMethod template) {
+        return (PsiMethod) template.copy();
+    }
+}
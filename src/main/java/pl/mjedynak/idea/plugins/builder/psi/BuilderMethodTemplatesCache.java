@@ -0,0 +1,30 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+
+public class BuilderMethodTemplatesCache {
+
+    static final Key<CachedValue<BuilderMethodTemplates>> TEMPLATES_KEY =
+            Key.create("pl.mjedynak.idea.plugins.builder.BuilderMethodTemplates");
+
+    private PsiHelper psiHelper;
+
+    public BuilderMethodTemplatesCache(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public BuilderMethodTemplates getTemplates(final Project project) {
+        return psiHelper.getCachedValuesManager(project).getCachedValue(project, TEMPLATES_KEY,
+                new CachedValueProvider<BuilderMethodTemplates>() {
+                    @Override
+                    public Result<BuilderMethodTemplates> compute() {
+                        return Result.create(new BuilderMethodTemplates(psiHelper.getJavaPsiFacade(project).getElementFactory()),
+                                ModificationTracker.NEVER_CHANGED);
+                    }
+                }, false);
+    }
+}
@@ -0,0 +1,44 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+
+import java.util.List;
+
+public class BuilderPreviewRenderer {
+
+    private PsiHelper psiHelper;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderSpecFactory builderSpecFactory;
+    private BuilderRenderer<String> builderRenderer;
+
+    public BuilderPreviewRenderer(PsiHelper psiHelper, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory, BuilderSpecFactory builderSpecFactory,
+                                  BuilderRenderer<String> builderRenderer) {
+        this.psiHelper = psiHelper;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+        this.builderSpecFactory = builderSpecFactory;
+        this.builderRenderer = builderRenderer;
+    }
+
+    public boolean canRender(BuilderPreviewContext context, PsiFieldsAnalysis psiFieldsAnalysis) {
+        return psiFieldsForBuilderFactory.hasUsableConstructor(psiFieldsAnalysis, context.getOptions());
+    }
+
+    public BuilderPreview render(BuilderPreviewContext context, List<PsiField> selectedFields, PsiFieldsAnalysis psiFieldsAnalysis) {
+        long modificationCount = psiHelper.getModificationCount(context.getSrcClass().getProject());
+        PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedFields, psiFieldsAnalysis,
+                context.getOptions());
+        ProgressIndicatorProvider.checkCanceled();
+        BuilderSpec builderSpec = builderSpecFactory.createBuilderSpec(context.getTargetDirectory(), context.getBuilderClassName(), context.getSrcClass(),
+                psiFieldsForBuilder, context.getNamingConvention()).withOptions(context.getOptions());
+        ProgressIndicatorProvider.checkCanceled();
+        return new BuilderPreview(builderSpec, builderRenderer.render(builderSpec), selectedFields, modificationCount);
+    }
+}
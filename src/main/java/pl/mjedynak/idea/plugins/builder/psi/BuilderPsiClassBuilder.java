@@ -2,165 +2,121 @@ package pl.mjedynak.idea.plugins.builder.psi;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.util.IncorrectOperationException;
 import org.apache.commons.lang.StringUtils;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
-
-import java.util.List;
-import java.util.Locale;
-
-import static com.intellij.openapi.util.text.StringUtil.isVowel;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
 
 @SuppressWarnings("PMD.TooManyMethods")
 public class BuilderPsiClassBuilder {
 
-    private static final String PRIVATE_STRING = "private";
-    private static final String SPACE = " ";
-    private static final String A_PREFIX = " a";
-    private static final String AN_PREFIX = " an";
-    private static final String SEMICOLON = ",";
-
-    private PsiHelper psiHelper;
-    private PsiFieldsModifier psiFieldsModifier = new PsiFieldsModifier();
-    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
-    private ButMethodCreator butMethodCreator;
+    private BuilderFormatter builderFormatter;
+    private BuilderFileCreator builderFileCreator;
+    private BuilderRenderer<String> builderRenderer;
+    private PsiElementFactory elementFactory;
     private MethodCreator methodCreator;
 
-    private Project project = null;
-    private PsiDirectory targetDirectory = null;
-    private PsiClass srcClass = null;
-    private String builderClassName = null;
-
-    private List<PsiField> psiFieldsForSetters = null;
-    private List<PsiField> psiFieldsForConstructor = null;
+    private Project project;
+    private PsiDirectory targetDirectory;
+    private BuilderSpec builderSpec;
 
-    private PsiClass builderClass = null;
-    private PsiElementFactory elementFactory = null;
-    private String srcClassName = null;
-    private String srcClassFieldName = null;
+    private PsiJavaFile builderFile;
+    private PsiClass builderClass;
+    private BuilderMethodTemplates builderMethodTemplates;
 
-    public BuilderPsiClassBuilder(PsiHelper psiHelper) {
-        this.psiHelper = psiHelper;
-    }
-
-    public BuilderPsiClassBuilder aBuilder(Project project, PsiDirectory targetDirectory, PsiClass psiClass, String builderClassName, PsiFieldsForBuilder psiFieldsForBuilder) {
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BuilderPsiClassBuilder(Project project, PsiDirectory targetDirectory, BuilderSpec builderSpec, PsiHelper psiHelper,
+                                  BuilderMethodTemplatesCache builderMethodTemplatesCache, BuilderFormatter builderFormatter,
+                                  BuilderFileCreator builderFileCreator, BuilderRenderer<String> builderRenderer) {
         this.project = project;
         this.targetDirectory = targetDirectory;
-        this.srcClass = psiClass;
-        this.builderClassName = builderClassName;
-        JavaDirectoryService javaDirectoryService = psiHelper.getJavaDirectoryService();
-        builderClass = javaDirectoryService.createClass(targetDirectory, builderClassName);
-        JavaPsiFacade javaPsiFacade = psiHelper.getJavaPsiFacade(project);
-        elementFactory = javaPsiFacade.getElementFactory();
-        srcClassName = psiClass.getName();
-        srcClassFieldName = StringUtils.uncapitalize(srcClassName);
-        psiFieldsForSetters = psiFieldsForBuilder.getFieldsForSetters();
-        psiFieldsForConstructor = psiFieldsForBuilder.getFieldsForConstructor();
-        methodCreator = new MethodCreator(elementFactory, builderClassName);
-        butMethodCreator = new ButMethodCreator(elementFactory);
-
-        return this;
+        this.builderSpec = builderSpec;
+        this.builderFormatter = builderFormatter;
+        this.builderFileCreator = builderFileCreator;
+        this.builderRenderer = builderRenderer;
+        builderFileCreator.checkCanCreate(targetDirectory, builderSpec.getBuilderClassName());
+        builderFile = psiHelper.createJavaFile(project, builderSpec.getBuilderClassName(), emptyClassText());
+        builderClass = builderFile.getClasses()[0];
+        elementFactory = psiHelper.getJavaPsiFacade(project).getElementFactory();
+        builderMethodTemplates = builderMethodTemplatesCache.getTemplates(project);
+        methodCreator = new MethodCreator(elementFactory, builderMethodTemplates, builderSpec.getBuilderClassName());
     }
 
     public BuilderPsiClassBuilder withFields() {
-        checkClassFieldsRequiredForBuilding();
-        builderClass.add(psiHelper.createField(srcClass, srcClassFieldName));
-       // psiFieldsModifier.modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
+        checkNotBuilt();
+        builderClass.add(builderMethodTemplates.createField(builderSpec.getSrcClassName(), builderSpec.getSrcClassFieldName()));
+        for (PropertySpec property : builderSpec.getProperties()) {
+            builderClass.add(methodCreator.createValueField(property));
+            builderClass.add(methodCreator.createSetFlagField(property));
+        }
         return this;
     }
 
     public BuilderPsiClassBuilder withPrivateConstructor() {
-        checkClassFieldsRequiredForBuilding();
-        PsiMethod constructor = elementFactory.createConstructor();
-        constructor.getModifierList().setModifierProperty(PRIVATE_STRING, true);
-        String srcClassInitializer = classInitializer();
-        insertCodeBlock(elementFactory, constructor, srcClassInitializer);
-        builderClass.add(constructor);
+        checkNotBuilt();
+        builderClass.add(builderMethodTemplates.createConstructor(builderSpec.getBuilderClassName(), builderSpec.getSrcClassName(),
+                builderSpec.getSrcClassFieldName()));
         return this;
     }
 
-    private String classInitializer(){
-        StringBuilder buildMethodText = new StringBuilder();
-        return buildMethodText.append(srcClassFieldName).append(" = new ").append(srcClassName).append("();").toString();
+    public BuilderPsiClassBuilder withSetMethods(String methodPrefix) {
+        checkNotBuilt();
+        for (PropertySpec property : builderSpec.getProperties()) {
+            builderClass.add(methodCreator.createMethod(property, builderSpec.getSrcClassFieldName()));
+        }
+        return this;
     }
 
-    protected void insertCodeBlock(PsiElementFactory factory, PsiMethod method, String template) {
-        //insert code checker into method
+    public PsiClass build() {
+        checkNotBuilt();
         try {
-            PsiCodeBlock body = method.getBody();
-            PsiElement code = factory.createStatementFromText(template, method);
-            if (body.getLBrace() != null) {
-                method.addAfter(code, body.getLBrace());
-            } else {
-                body.add(code);
-            }
-        } catch (IncorrectOperationException e) {
-            throw new RuntimeException(e);
+            builderClass.add(builderMethodTemplates.createBuildMethod(builderSpec.getSrcClassName(), builderSpec.getSrcClassFieldName()));
+            builderFormatter.format(project, builderClass);
+            return builderFileCreator.attach(targetDirectory, builderFile, builderSpec.getBuilderClassName());
+        } finally {
+            release();
         }
     }
 
-    public BuilderPsiClassBuilder withSetMethods(String methodPrefix) {
-        checkClassFieldsRequiredForBuilding();
-        for (PsiField psiFieldForSetter : psiFieldsForSetters) {
-            createAndAddMethod(psiFieldForSetter, methodPrefix);
-        }
-        for (PsiField psiFieldForConstructor : psiFieldsForConstructor) {
-            createAndAddMethod(psiFieldForConstructor, methodPrefix);
+    private String emptyClassText() {
+        StringBuilder text = new StringBuilder();
+        if (StringUtils.isNotEmpty(builderSpec.getPackageName())) {
+            text.append("package ").append(builderSpec.getPackageName()).append(";\n\n");
         }
-        return this;
-    }
-
-    private void createAndAddMethod(PsiField psiField, String methodPrefix) {
-        builderClass.add(methodCreator.createMethod(psiField, srcClassFieldName));
+        return text.append("public class ").append(builderSpec.getBuilderClassName()).append(" {\n}\n").toString();
     }
 
-    public PsiClass build() {
-        checkBuilderField();
-        StringBuilder buildMethodText = new StringBuilder();
-        buildMethodText.append("public ").append(srcClassName).append(" build() { ");
-        buildMethodText.append("return ").append(srcClassFieldName).append(";}");
-        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText.toString(), srcClass);
-        builderClass.add(buildMethod);
-        return builderClass;
+    public BuilderPsiClassBuilder withButMethod() {
+        checkNotBuilt();
+        builderClass.add(elementFactory.createMethodFromText(builderRenderer.renderButMethod(builderSpec), builderClass));
+        return this;
     }
 
-    public BuilderPsiClassBuilder withButMethod() {
-        //  PsiMethod method = butMethodCreator.butMethod(builderClassName, builderClass, srcClass);
-        // builderClass.add(method);
+    public BuilderPsiClassBuilder withBuildIntoMethod() {
+        checkNotBuilt();
+        builderClass.add(elementFactory.createMethodFromText(builderRenderer.renderBuildIntoMethod(builderSpec), builderClass));
         return this;
     }
 
     public BuilderPsiClassBuilder withInitializingMethod() {
-        checkClassFieldsRequiredForBuilding();
-        String prefix = isVowel(srcClassName.toLowerCase(Locale.ENGLISH).charAt(0)) ? AN_PREFIX : A_PREFIX;
-        PsiMethod staticMethod = elementFactory.createMethodFromText(
-                "public static " + builderClassName + prefix + srcClassName + "() { return new " + builderClassName + "();}", srcClass);
-        builderClass.add(staticMethod);
+        checkNotBuilt();
+        builderClass.add(builderMethodTemplates.createInitializingMethod(builderSpec.getBuilderClassName(), builderSpec.getInitializingMethodName()));
         return this;
     }
 
-    private void removeLastSemicolon(StringBuilder sb) {
-        if (sb.toString().endsWith(SEMICOLON)) {
-            sb.deleteCharAt(sb.length() - 1);
-        }
+    private void release() {
+        project = null;
+        targetDirectory = null;
+        builderSpec = null;
+        builderFile = null;
+        builderClass = null;
+        builderMethodTemplates = null;
+        elementFactory = null;
+        methodCreator = null;
     }
 
-    private void checkBuilderField() {
+    private void checkNotBuilt() {
         if (builderClass == null) {
-            throw new IllegalStateException("Builder field not created. Invoke at least aBuilder() method before.");
-        }
-    }
-
-    private void checkClassFieldsRequiredForBuilding() {
-        if (anyFieldIsNull()) {
-            throw new IllegalStateException("Fields not set. Invoke aBuilder() method before.");
+            throw new IllegalStateException("Builder already built. Create a new one for each generation run.");
         }
     }
-
-    private boolean anyFieldIsNull() {
-        return (project == null || targetDirectory == null || srcClass == null || builderClassName == null
-                || psiFieldsForSetters == null || psiFieldsForConstructor == null);
-    }
-
 }
@@ -0,0 +1,12 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+public interface BuilderRenderer<T> {
+
+    T render(BuilderSpec builderSpec);
+
+    T renderButMethod(BuilderSpec builderSpec);
+
+    T renderBuildIntoMethod(BuilderSpec builderSpec);
+}
@@ -0,0 +1,219 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class BuilderSourceRenderer implements BuilderRenderer<String> {
+
+    public static final String THREAD_LOCAL_METHOD_NAME = "threadLocalBuilder";
+    static final String BUT_METHOD_NAME = "but";
+    static final String BUILD_INTO_METHOD_NAME = "buildInto";
+    static final String TARGET_PARAMETER_NAME = "target";
+    private static final String INDENT = "    ";
+    private static final String BODY_INDENT = INDENT + INDENT;
+    private static final int AVERAGE_MEMBER_LENGTH = 160;
+    private static final String THREAD_BUILDER_FIELD_NAME = "THREAD_BUILDER";
+    private static final Set<String> NUMERIC_PRIMITIVE_TYPES = new HashSet<String>(Arrays.asList("byte", "short", "int", "long", "float", "double",
+            "char"));
+
+    @Override
+    public String render(BuilderSpec builderSpec) {
+        StringBuilder text = new StringBuilder(AVERAGE_MEMBER_LENGTH * (3 * builderSpec.getProperties().size() + 6));
+        BuilderOptions options = builderSpec.getOptions();
+        boolean innerClass = options.isInnerClass();
+        boolean targetCreatedInBuild = options.isTargetCreatedInBuild();
+        if (!innerClass && StringUtils.isNotEmpty(builderSpec.getPackageName())) {
+            text.append("package ").append(builderSpec.getPackageName()).append(";\n\n");
+        }
+        text.append(innerClass ? "public static final class " : "public class ").append(builderSpec.getBuilderClassName()).append(" {\n");
+        if (options.isReusable()) {
+            renderThreadBuilderField(text, builderSpec);
+        }
+        if (!targetCreatedInBuild) {
+            text.append(INDENT).append("private ").append(builderSpec.getSrcClassQualifiedName()).append(' ').append(builderSpec.getSrcClassFieldName())
+                    .append(";\n");
+        }
+        for (PropertySpec property : builderSpec.getProperties()) {
+            renderValueFields(text, property);
+        }
+        text.append('\n');
+        renderPrivateConstructor(text, builderSpec, targetCreatedInBuild);
+        renderInitializingMethod(text, builderSpec);
+        if (options.isReusable()) {
+            renderThreadLocalMethod(text, builderSpec);
+        }
+        for (PropertySpec property : builderSpec.getProperties()) {
+            renderSetMethod(text, builderSpec, property, targetCreatedInBuild);
+        }
+        if (options.isReusable()) {
+            renderResetMethod(text, builderSpec);
+        }
+        renderButMethod(text, builderSpec);
+        if (targetCreatedInBuild) {
+            renderTargetCreatingBuildMethod(text, builderSpec, options.isReusable());
+        } else {
+            renderBuildIntoMethod(text, builderSpec);
+            renderBuildMethod(text, builderSpec);
+        }
+        text.append("}\n");
+        return text.toString();
+    }
+
+    @Override
+    public String renderButMethod(BuilderSpec builderSpec) {
+        StringBuilder text = new StringBuilder(AVERAGE_MEMBER_LENGTH * (builderSpec.getProperties().size() + 2));
+        renderButMethod(text, builderSpec);
+        return text.toString();
+    }
+
+    @Override
+    public String renderBuildIntoMethod(BuilderSpec builderSpec) {
+        StringBuilder text = new StringBuilder(AVERAGE_MEMBER_LENGTH * (builderSpec.getProperties().size() + 2));
+        renderBuildIntoMethod(text, builderSpec);
+        return text.toString();
+    }
+
+    private void renderThreadBuilderField(StringBuilder text, BuilderSpec builderSpec) {
+        String builderClassName = builderSpec.getBuilderClassName();
+        text.append(INDENT).append("private static final ThreadLocal<").append(builderClassName).append("> ").append(THREAD_BUILDER_FIELD_NAME)
+                .append(" = new ThreadLocal<").append(builderClassName).append(">() {\n");
+        text.append(BODY_INDENT).append("@Override\n");
+        text.append(BODY_INDENT).append("protected ").append(builderClassName).append(" initialValue() {\n");
+        text.append(BODY_INDENT).append(INDENT).append("return new ").append(builderClassName).append("();\n");
+        text.append(BODY_INDENT).append("}\n");
+        text.append(INDENT).append("};\n");
+    }
+
+    private void renderValueFields(StringBuilder text, PropertySpec property) {
+        text.append(INDENT).append("private ").append(property.getTypeText()).append(' ').append(property.getFieldName()).append(";\n");
+        text.append(INDENT).append("private boolean ").append(property.getSetFlagName()).append(";\n");
+    }
+
+    private void renderPrivateConstructor(StringBuilder text, BuilderSpec builderSpec, boolean targetCreatedInBuild) {
+        text.append(INDENT).append("private ").append(builderSpec.getBuilderClassName()).append("() {\n");
+        if (!targetCreatedInBuild) {
+            text.append(BODY_INDENT).append(builderSpec.getSrcClassFieldName()).append(" = new ").append(builderSpec.getSrcClassQualifiedName())
+                    .append("();\n");
+        }
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderInitializingMethod(StringBuilder text, BuilderSpec builderSpec) {
+        String builderClassName = builderSpec.getBuilderClassName();
+        text.append(INDENT).append("public static ").append(builderClassName).append(' ').append(builderSpec.getInitializingMethodName()).append("() {\n");
+        text.append(BODY_INDENT).append("return new ").append(builderClassName).append("();\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderThreadLocalMethod(StringBuilder text, BuilderSpec builderSpec) {
+        text.append(INDENT).append("// Returns the same reset builder on every call in this thread, so it is not reentrant:\n");
+        text.append(INDENT).append("// finish one build() before the next call and do not keep the builder or pass it on.\n");
+        text.append(INDENT).append("public static ").append(builderSpec.getBuilderClassName()).append(' ').append(THREAD_LOCAL_METHOD_NAME).append("() {\n");
+        text.append(BODY_INDENT).append("return ").append(THREAD_BUILDER_FIELD_NAME).append(".get().reset();\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderSetMethod(StringBuilder text, BuilderSpec builderSpec, PropertySpec property, boolean targetCreatedInBuild) {
+        String fieldName = property.getFieldName();
+        text.append(INDENT).append("public ").append(builderSpec.getBuilderClassName()).append(' ').append(property.getPropertyName())
+                .append('(').append(property.getTypeText()).append(' ').append(fieldName).append(") {\n");
+        text.append(BODY_INDENT).append("this.").append(fieldName).append(" = ").append(fieldName).append(";\n");
+        text.append(BODY_INDENT).append(property.getSetFlagName()).append(" = true;\n");
+        if (!targetCreatedInBuild) {
+            text.append(BODY_INDENT).append(builderSpec.getSrcClassFieldName()).append('.').append(property.getSetterName()).append('(').append(fieldName)
+                    .append(");\n");
+        }
+        text.append(BODY_INDENT).append("return this;\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderResetMethod(StringBuilder text, BuilderSpec builderSpec) {
+        text.append(INDENT).append("public ").append(builderSpec.getBuilderClassName()).append(" reset() {\n");
+        for (PropertySpec property : builderSpec.getProperties()) {
+            text.append(BODY_INDENT).append(property.getFieldName()).append(" = ").append(defaultValueOf(property.getTypeText())).append(";\n");
+            text.append(BODY_INDENT).append(property.getSetFlagName()).append(" = false;\n");
+        }
+        text.append(BODY_INDENT).append("return this;\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private String defaultValueOf(String typeText) {
+        if ("boolean".equals(typeText)) {
+            return "false";
+        }
+        return NUMERIC_PRIMITIVE_TYPES.contains(typeText) ? "0" : "null";
+    }
+
+    private void renderButMethod(StringBuilder text, BuilderSpec builderSpec) {
+        String builderClassName = builderSpec.getBuilderClassName();
+        text.append(INDENT).append("public ").append(builderClassName).append(' ').append(BUT_METHOD_NAME).append("() {\n");
+        text.append(BODY_INDENT).append(builderClassName).append(" builder = ").append(builderSpec.getInitializingMethodName()).append("();\n");
+        for (PropertySpec property : builderSpec.getProperties()) {
+            text.append(BODY_INDENT).append("if (").append(property.getSetFlagName()).append(") {\n");
+            text.append(BODY_INDENT).append(INDENT).append("builder.").append(property.getPropertyName()).append("(this.").append(property.getFieldName())
+                    .append(");\n");
+            text.append(BODY_INDENT).append("}\n");
+        }
+        text.append(BODY_INDENT).append("return builder;\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderBuildIntoMethod(StringBuilder text, BuilderSpec builderSpec) {
+        String srcClassQualifiedName = builderSpec.getSrcClassQualifiedName();
+        String target = TARGET_PARAMETER_NAME;
+        text.append(INDENT).append("public ").append(srcClassQualifiedName).append(' ').append(BUILD_INTO_METHOD_NAME)
+                .append('(').append(srcClassQualifiedName).append(' ').append(target).append(") {\n");
+        for (PropertySpec property : builderSpec.getProperties()) {
+            if (property.getInitialization() != FieldInitialization.CONSTRUCTOR) {
+                text.append(BODY_INDENT).append("if (").append(property.getSetFlagName()).append(") {\n");
+                text.append(BODY_INDENT).append(INDENT).append(target).append('.').append(property.getSetterName()).append("(this.")
+                        .append(property.getFieldName()).append(");\n");
+                text.append(BODY_INDENT).append("}\n");
+            }
+        }
+        text.append(BODY_INDENT).append("return ").append(target).append(";\n");
+        text.append(INDENT).append("}\n\n");
+    }
+
+    private void renderBuildMethod(StringBuilder text, BuilderSpec builderSpec) {
+        text.append(INDENT).append("public ").append(builderSpec.getSrcClassQualifiedName()).append(" build() {\n");
+        text.append(BODY_INDENT).append("return ").append(builderSpec.getSrcClassFieldName()).append(";\n");
+        text.append(INDENT).append("}\n");
+    }
+
+    private void renderTargetCreatingBuildMethod(StringBuilder text, BuilderSpec builderSpec, boolean reusable) {
+        String srcClassQualifiedName = builderSpec.getSrcClassQualifiedName();
+        String srcClassFieldName = builderSpec.getSrcClassFieldName();
+        text.append(INDENT).append("public ").append(srcClassQualifiedName).append(" build() {\n");
+        text.append(BODY_INDENT).append(srcClassQualifiedName).append(' ').append(srcClassFieldName).append(" = new ").append(srcClassQualifiedName)
+                .append('(');
+        String separator = "";
+        for (PropertySpec property : builderSpec.getProperties()) {
+            if (property.getInitialization() == FieldInitialization.CONSTRUCTOR) {
+                text.append(separator).append("this.").append(property.getFieldName());
+                separator = ", ";
+            }
+        }
+        text.append(");\n");
+        for (PropertySpec property : builderSpec.getProperties()) {
+            if (property.getInitialization() != FieldInitialization.CONSTRUCTOR) {
+                text.append(BODY_INDENT).append("if (").append(property.getSetFlagName()).append(") {\n");
+                text.append(BODY_INDENT).append(INDENT).append(srcClassFieldName).append('.').append(property.getSetterName()).append("(this.")
+                        .append(property.getFieldName()).append(");\n");
+                text.append(BODY_INDENT).append("}\n");
+            }
+        }
+        if (reusable) {
+            text.append(BODY_INDENT).append("reset();\n");
+        }
+        text.append(BODY_INDENT).append("return ").append(srcClassFieldName).append(";\n");
+        text.append(INDENT).append("}\n");
+    }
+}
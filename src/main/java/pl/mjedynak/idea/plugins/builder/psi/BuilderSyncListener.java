@@ -0,0 +1,105 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderSyncSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BuilderSyncListener extends PsiTreeChangeAdapter {
+
+    private Project project;
+    private BuilderSyncQueue builderSyncQueue;
+    private BuilderSyncSettings builderSyncSettings;
+    private BuilderVerifier builderVerifier;
+
+    public BuilderSyncListener(Project project, BuilderSyncQueue builderSyncQueue, BuilderSyncSettings builderSyncSettings,
+                               BuilderVerifier builderVerifier) {
+        this.project = project;
+        this.builderSyncQueue = builderSyncQueue;
+        this.builderSyncSettings = builderSyncSettings;
+        this.builderVerifier = builderVerifier;
+    }
+
+    @Override
+    public void beforeChildAddition(@NotNull PsiTreeChangeEvent event) {
+        rememberFieldNames(event);
+    }
+
+    @Override
+    public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event) {
+        rememberFieldNames(event);
+    }
+
+    @Override
+    public void beforeChildReplacement(@NotNull PsiTreeChangeEvent event) {
+        rememberFieldNames(event);
+    }
+
+    @Override
+    public void beforeChildMovement(@NotNull PsiTreeChangeEvent event) {
+        rememberFieldNames(event);
+    }
+
+    @Override
+    public void beforeChildrenChange(@NotNull PsiTreeChangeEvent event) {
+        rememberFieldNames(event);
+    }
+
+    @Override
+    public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+    }
+
+    @Override
+    public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+    }
+
+    @Override
+    public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+    }
+
+    @Override
+    public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+    }
+
+    @Override
+    public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+    }
+
+    private void rememberFieldNames(PsiTreeChangeEvent event) {
+        for (PsiClass psiClass : getSourceClasses(event)) {
+            builderSyncQueue.rememberFieldNames(psiClass);
+        }
+    }
+
+    private void markDirty(PsiTreeChangeEvent event) {
+        for (PsiClass psiClass : getSourceClasses(event)) {
+            builderSyncQueue.markDirty(psiClass);
+        }
+    }
+
+    private List<PsiClass> getSourceClasses(PsiTreeChangeEvent event) {
+        List<PsiClass> sourceClasses = new ArrayList<PsiClass>();
+        PsiFile file = event.getFile();
+        if (file instanceof PsiJavaFile && file.isPhysical() && builderSyncSettings.isEnabled(project)) {
+            for (PsiClass psiClass : ((PsiJavaFile) file).getClasses()) {
+                if (psiClass.getName() != null && !builderVerifier.isBuilder(psiClass)) {
+                    sourceClasses.add(psiClass);
+                }
+            }
+        }
+        return sourceClasses;
+    }
+}
@@ -0,0 +1,97 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.Alarm;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSyncTaskFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BuilderSyncQueue {
+
+    static final int SYNC_DELAY_MILLIS = 1000;
+
+    private final Map<String, SmartPsiElementPointer<PsiClass>> dirtyClasses = new LinkedHashMap<String, SmartPsiElementPointer<PsiClass>>();
+    private final Map<String, Set<String>> knownFieldNames = new HashMap<String, Set<String>>();
+    private Project project;
+    private Alarm alarm;
+    private BuilderSyncTaskFactory builderSyncTaskFactory;
+    private PsiHelper psiHelper;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public BuilderSyncQueue(Project project, Alarm alarm, BuilderSyncTaskFactory builderSyncTaskFactory, PsiHelper psiHelper) {
+        this.project = project;
+        this.alarm = alarm;
+        this.builderSyncTaskFactory = builderSyncTaskFactory;
+        this.psiHelper = psiHelper;
+    }
+
+    public void markDirty(PsiClass psiClass) {
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName != null) {
+            synchronized (dirtyClasses) {
+                if (!dirtyClasses.containsKey(qualifiedName)) {
+                    dirtyClasses.put(qualifiedName, psiHelper.createSmartPointer(psiClass));
+                }
+            }
+            alarm.cancelAllRequests();
+            alarm.addRequest(flushRunnable, SYNC_DELAY_MILLIS);
+        }
+    }
+
+    public void rememberFieldNames(PsiClass psiClass) {
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName != null) {
+            synchronized (knownFieldNames) {
+                if (!knownFieldNames.containsKey(qualifiedName)) {
+                    knownFieldNames.put(qualifiedName, getFieldNames(psiClass));
+                }
+            }
+        }
+    }
+
+    Set<String> getKnownFieldNames(String qualifiedName) {
+        synchronized (knownFieldNames) {
+            return knownFieldNames.get(qualifiedName);
+        }
+    }
+
+    void setKnownFieldNames(String qualifiedName, Set<String> fieldNames) {
+        synchronized (knownFieldNames) {
+            knownFieldNames.put(qualifiedName, fieldNames);
+        }
+    }
+
+    static Set<String> getFieldNames(PsiClass psiClass) {
+        Set<String> fieldNames = new HashSet<String>();
+        for (PsiField psiField : psiClass.getAllFields()) {
+            fieldNames.add(psiField.getName());
+        }
+        return fieldNames;
+    }
+
+    void flush() {
+        List<SmartPsiElementPointer<PsiClass>> classes;
+        synchronized (dirtyClasses) {
+            classes = new ArrayList<SmartPsiElementPointer<PsiClass>>(dirtyClasses.values());
+            dirtyClasses.clear();
+        }
+        if (!classes.isEmpty() && !project.isDisposed()) {
+            psiHelper.getProgressManager().run(builderSyncTaskFactory.createBuilderSyncTask(project, classes, this));
+        }
+    }
+}
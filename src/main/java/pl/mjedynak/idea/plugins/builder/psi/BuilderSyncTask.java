@@ -0,0 +1,175 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPsiElementPointer;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BuilderSyncTask extends Task.Backgroundable {
+
+    static final String TITLE = "Synchronizing Builders";
+
+    private List<SmartPsiElementPointer<PsiClass>> classes;
+    private BuilderSyncQueue builderSyncQueue;
+    private PsiHelper psiHelper;
+    private BuilderFinder builderFinder;
+    private BuilderDiffCalculator builderDiffCalculator;
+    private BuilderUpdateWriter builderUpdateWriter;
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BuilderSyncTask(Project project, List<SmartPsiElementPointer<PsiClass>> classes, BuilderSyncQueue builderSyncQueue, PsiHelper psiHelper,
+                           BuilderFinder builderFinder, BuilderDiffCalculator builderDiffCalculator, BuilderUpdateWriter builderUpdateWriter) {
+        super(project, TITLE, true);
+        this.classes = classes;
+        this.builderSyncQueue = builderSyncQueue;
+        this.psiHelper = psiHelper;
+        this.builderFinder = builderFinder;
+        this.builderDiffCalculator = builderDiffCalculator;
+        this.builderUpdateWriter = builderUpdateWriter;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        Application application = psiHelper.getApplication();
+        final List<PendingUpdate> pendingUpdates = new ArrayList<PendingUpdate>();
+        for (int i = 0; i < classes.size(); i++) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) i / classes.size());
+            PendingUpdate pendingUpdate = calculateInReadAction(indicator, application, classes.get(i));
+            if (pendingUpdate != null) {
+                pendingUpdates.add(pendingUpdate);
+            }
+        }
+        if (!pendingUpdates.isEmpty()) {
+            application.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    apply(pendingUpdates);
+                }
+            }, ModalityState.NON_MODAL);
+        }
+    }
+
+    private PendingUpdate calculateInReadAction(ProgressIndicator indicator, Application application, final SmartPsiElementPointer<PsiClass> pointer) {
+        final PendingUpdate[] result = new PendingUpdate[1];
+        boolean completed = false;
+        while (!completed) {
+            indicator.checkCanceled();
+            completed = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(new Runnable() {
+                @Override
+                public void run() {
+                    result[0] = calculate(pointer);
+                }
+            });
+            if (!completed) {
+                application.runReadAction(EmptyRunnable.getInstance());
+            }
+        }
+        return result[0];
+    }
+
+    PendingUpdate calculate(SmartPsiElementPointer<PsiClass> pointer) {
+        PsiClass srcClass = pointer.getElement();
+        if (srcClass == null || !srcClass.isValid()) {
+            return null;
+        }
+        PsiClass builderClass = builderFinder.findBuilderForClass(srcClass);
+        if (builderClass == null || !builderClass.isWritable() || !builderDiffCalculator.isUpdatable(srcClass, builderClass)) {
+            return null;
+        }
+        NamingConvention namingConvention = codeStyleSettings.getNamingConvention(myProject);
+        String qualifiedName = srcClass.getQualifiedName();
+        Set<String> fieldNames = BuilderSyncQueue.getFieldNames(srcClass);
+        Set<String> chosenFieldNames = new HashSet<String>(builderDiffCalculator.getFieldNamesInBuilder(srcClass, builderClass, namingConvention));
+        Set<String> knownFieldNames = builderSyncQueue.getKnownFieldNames(qualifiedName);
+        if (knownFieldNames != null) {
+            for (String fieldName : fieldNames) {
+                if (!knownFieldNames.contains(fieldName)) {
+                    chosenFieldNames.add(fieldName);
+                }
+            }
+        }
+        BuilderDiff builderDiff = builderDiffCalculator.calculate(srcClass, builderClass, namingConvention, chosenFieldNames);
+        if (builderDiff.isEmpty()) {
+            builderSyncQueue.setKnownFieldNames(qualifiedName, fieldNames);
+            return null;
+        }
+        return new PendingUpdate(pointer, getModificationStamp(srcClass), builderClass, getModificationStamp(builderClass), builderDiff, qualifiedName,
+                fieldNames);
+    }
+
+    void apply(List<PendingUpdate> pendingUpdates) {
+        if (myProject.isDisposed()) {
+            return;
+        }
+        Map<PsiClass, BuilderDiff> builderDiffs = new LinkedHashMap<PsiClass, BuilderDiff>();
+        for (PendingUpdate pendingUpdate : pendingUpdates) {
+            if (pendingUpdate.isUpToDate()) {
+                builderDiffs.put(pendingUpdate.builderClass, pendingUpdate.builderDiff);
+                builderSyncQueue.setKnownFieldNames(pendingUpdate.qualifiedName, pendingUpdate.fieldNames);
+            } else {
+                PsiClass srcClass = pendingUpdate.pointer.getElement();
+                if (srcClass != null) {
+                    builderSyncQueue.markDirty(srcClass);
+                }
+            }
+        }
+        if (!builderDiffs.isEmpty()) {
+            builderUpdateWriter.writeUpdates(myProject, builderDiffs);
+        }
+    }
+
+    private static long getModificationStamp(PsiClass psiClass) {
+        PsiFile file = psiClass.getContainingFile();
+        return file != null ? file.getModificationStamp() : -1;
+    }
+
+    static class PendingUpdate {
+
+        private final SmartPsiElementPointer<PsiClass> pointer;
+        private final long srcModificationStamp;
+        private final PsiClass builderClass;
+        private final long builderModificationStamp;
+        private final BuilderDiff builderDiff;
+        private final String qualifiedName;
+        private final Set<String> fieldNames;
+
+        @SuppressWarnings("PMD.ExcessiveParameterList")
+        PendingUpdate(SmartPsiElementPointer<PsiClass> pointer, long srcModificationStamp, PsiClass builderClass, long builderModificationStamp,
+                      BuilderDiff builderDiff, String qualifiedName, Set<String> fieldNames) {
+            this.pointer = pointer;
+            this.srcModificationStamp = srcModificationStamp;
+            this.builderClass = builderClass;
+            this.builderModificationStamp = builderModificationStamp;
+            this.builderDiff = builderDiff;
+            this.qualifiedName = qualifiedName;
+            this.fieldNames = fieldNames;
+        }
+
+        boolean isUpToDate() {
+            PsiClass srcClass = pointer.getElement();
+            return srcClass != null && srcClass.isValid() && builderClass.isValid()
+                    && getModificationStamp(srcClass) == srcModificationStamp && getModificationStamp(builderClass) == builderModificationStamp;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiKeyword;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiTypeElement;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BuilderUpdater {
+
+    static final String BUILD_METHOD_NAME = "build";
+
+    private PsiHelper psiHelper;
+    private BuilderMethodTemplatesCache builderMethodTemplatesCache;
+    private BuilderRenderer<String> builderRenderer;
+    private BuilderFormatter builderFormatter;
+
+    public BuilderUpdater(PsiHelper psiHelper, BuilderMethodTemplatesCache builderMethodTemplatesCache, BuilderRenderer<String> builderRenderer,
+                          BuilderFormatter builderFormatter) {
+        this.psiHelper = psiHelper;
+        this.builderMethodTemplatesCache = builderMethodTemplatesCache;
+        this.builderRenderer = builderRenderer;
+        this.builderFormatter = builderFormatter;
+    }
+
+    public List<PsiElement> update(Project project, PsiClass builderClass, BuilderDiff builderDiff) {
+        BuilderSpec builderSpec = builderDiff.getBuilderSpec();
+        PsiElementFactory elementFactory = psiHelper.getJavaPsiFacade(project).getElementFactory();
+        List<PsiElement> changedElements = new ArrayList<PsiElement>();
+        for (PsiMethod removedMethod : builderDiff.getRemovedMethods()) {
+            String setFlagName = setFlagNameOf(removedMethod);
+            deleteField(builderClass, removedMethod.getParameterList().getParameters()[0].getName());
+            if (setFlagName != null) {
+                deleteField(builderClass, setFlagName);
+            }
+            removedMethod.delete();
+        }
+        for (Map.Entry<PsiMethod, PropertySpec> retypedMethod : builderDiff.getRetypedMethods().entrySet()) {
+            PropertySpec property = retypedMethod.getValue();
+            PsiTypeElement typeElement = retypedMethod.getKey().getParameterList().getParameters()[0].getTypeElement();
+            changedElements.add(typeElement.replace(elementFactory.createTypeElementFromText(property.getTypeText(), builderClass)));
+            PsiField valueField = builderClass.findFieldByName(property.getFieldName(), false);
+            if (valueField != null) {
+                changedElements.add(valueField.getTypeElement().replace(elementFactory.createTypeElementFromText(property.getTypeText(), builderClass)));
+            }
+        }
+        MethodCreator methodCreator = new MethodCreator(elementFactory, builderMethodTemplatesCache.getTemplates(project), builderSpec.getBuilderClassName());
+        PsiMethod buildMethod = findMethod(builderClass, BUILD_METHOD_NAME);
+        for (PropertySpec addedProperty : builderDiff.getAddedProperties()) {
+            PropertySpec property = withFreeSetFlagName(builderClass, addedProperty);
+            changedElements.add(addField(builderClass, methodCreator.createValueField(property)));
+            changedElements.add(addField(builderClass, methodCreator.createSetFlagField(property)));
+            PsiMethod method = methodCreator.createMethod(property, builderSpec.getSrcClassFieldName());
+            changedElements.add(buildMethod != null ? builderClass.addBefore(method, buildMethod) : builderClass.add(method));
+        }
+        if (!builderDiff.isEmpty()) {
+            BuilderSpec copiedSpec = builderSpec.withProperties(getCopiedProperties(builderClass, builderSpec));
+            PsiMethod butMethod = findMethod(builderClass, BuilderSourceRenderer.BUT_METHOD_NAME);
+            if (butMethod != null) {
+                changedElements.add(butMethod.replace(createMethod(elementFactory, builderRenderer.renderButMethod(copiedSpec), builderClass)));
+            }
+            PsiMethod buildIntoMethod = findMethod(builderClass, BuilderSourceRenderer.BUILD_INTO_METHOD_NAME);
+            if (buildIntoMethod != null) {
+                changedElements.add(buildIntoMethod.replace(createMethod(elementFactory, builderRenderer.renderBuildIntoMethod(copiedSpec), builderClass)));
+            }
+        }
+        builderFormatter.formatElements(project, changedElements);
+        return changedElements;
+    }
+
+    private PsiMethod createMethod(PsiElementFactory elementFactory, String methodText, PsiClass builderClass) {
+        return elementFactory.createMethodFromText(methodText.trim(), builderClass);
+    }
+
+    private PropertySpec withFreeSetFlagName(PsiClass builderClass, PropertySpec property) {
+        if (builderClass.findFieldByName(property.getSetFlagName(), false) == null) {
+            return property;
+        }
+        Set<String> fieldNames = new HashSet<String>();
+        for (PsiField field : builderClass.getFields()) {
+            fieldNames.add(field.getName());
+        }
+        return property.withUniqueSetFlagName(fieldNames);
+    }
+
+    private List<PropertySpec> getCopiedProperties(PsiClass builderClass, BuilderSpec builderSpec) {
+        List<PropertySpec> copiedProperties = new ArrayList<PropertySpec>();
+        for (PropertySpec property : builderSpec.getProperties()) {
+            PsiMethod setMethod = findSetMethod(builderClass, property.getPropertyName());
+            String setFlagName = setMethod != null ? setFlagNameOf(setMethod) : null;
+            if (setFlagName != null && builderClass.findFieldByName(property.getFieldName(), false) != null
+                    && builderClass.findFieldByName(setFlagName, false) != null) {
+                copiedProperties.add(property.withSetFlagName(setFlagName));
+            }
+        }
+        return copiedProperties;
+    }
+
+    private PsiMethod findSetMethod(PsiClass builderClass, String propertyName) {
+        for (PsiMethod method : builderClass.findMethodsByName(propertyName, false)) {
+            if (method.getParameterList().getParametersCount() == 1) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private String setFlagNameOf(PsiMethod setMethod) {
+        PsiCodeBlock body = setMethod.getBody();
+        if (body == null) {
+            return null;
+        }
+        for (PsiStatement statement : body.getStatements()) {
+            if (statement instanceof PsiExpressionStatement && ((PsiExpressionStatement) statement).getExpression() instanceof PsiAssignmentExpression) {
+                PsiAssignmentExpression assignment = (PsiAssignmentExpression) ((PsiExpressionStatement) statement).getExpression();
+                PsiExpression value = assignment.getRExpression();
+                if (assignment.getLExpression() instanceof PsiReferenceExpression && value != null && PsiKeyword.TRUE.equals(value.getText())) {
+                    return ((PsiReferenceExpression) assignment.getLExpression()).getReferenceName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private PsiElement addField(PsiClass builderClass, PsiField field) {
+        PsiField[] fields = builderClass.getFields();
+        return fields.length > 0 ? builderClass.addAfter(field, fields[fields.length - 1]) : builderClass.add(field);
+    }
+
+    private void deleteField(PsiClass builderClass, String fieldName) {
+        PsiField field = builderClass.findFieldByName(fieldName, false);
+        if (field != null) {
+            field.delete();
+        }
+    }
+
+    private PsiMethod findMethod(PsiClass builderClass, String methodName) {
+        PsiMethod[] methods = builderClass.findMethodsByName(methodName, false);
+        return methods.length > 0 ? methods[0] : null;
+    }
+}
@@ -0,0 +1,103 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassOwner;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BulkBuilderAnalyzer {
+
+    static final String BUILDER_SUFFIX = "Builder";
+    static final String NOT_A_CLASS = "not a class";
+    static final String BUILDER_EXISTS = "builder already exists";
+    static final String NO_FIELDS = "no fields that can be set";
+    static final String NO_USABLE_CONSTRUCTOR = "fields set only in constructor, but no constructor usable from the builder";
+    static final BuilderOptions CONSTRUCTOR_OPTIONS = new BuilderOptions(false, true, false, true);
+
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+    private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderSpecFactory builderSpecFactory;
+
+    public BulkBuilderAnalyzer(BuilderVerifier builderVerifier, BuilderFinder builderFinder, PsiFieldsAnalysisCache psiFieldsAnalysisCache,
+                               PsiFieldsForBuilderFactory psiFieldsForBuilderFactory, BuilderSpecFactory builderSpecFactory) {
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+        this.psiFieldsAnalysisCache = psiFieldsAnalysisCache;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+        this.builderSpecFactory = builderSpecFactory;
+    }
+
+    public List<PsiClass> collectClasses(PsiElement[] elements) {
+        Set<PsiClass> classes = new LinkedHashSet<PsiClass>();
+        for (PsiElement element : elements) {
+            collectClasses(element, classes);
+        }
+        return new ArrayList<PsiClass>(classes);
+    }
+
+    private void collectClasses(PsiElement element, Set<PsiClass> classes) {
+        ProgressIndicatorProvider.checkCanceled();
+        if (element instanceof PsiDirectory) {
+            for (PsiDirectory subdirectory : ((PsiDirectory) element).getSubdirectories()) {
+                collectClasses(subdirectory, classes);
+            }
+            for (PsiFile file : ((PsiDirectory) element).getFiles()) {
+                collectClasses(file, classes);
+            }
+        } else if (element instanceof PsiClassOwner) {
+            for (PsiClass psiClass : ((PsiClassOwner) element).getClasses()) {
+                collectClasses(psiClass, classes);
+            }
+        } else if (element instanceof PsiClass && ((PsiClass) element).getName() != null && !builderVerifier.isBuilder((PsiClass) element)) {
+            classes.add((PsiClass) element);
+        }
+    }
+
+    public BuilderTarget analyze(PsiClass psiClass, NamingConvention namingConvention) {
+        String className = psiClass.getName();
+        if (psiClass.isInterface() || psiClass.isEnum() || psiClass.isAnnotationType()) {
+            return BuilderTarget.skipped(className, NOT_A_CLASS);
+        }
+        if (builderFinder.findBuilderForClass(psiClass) != null) {
+            return BuilderTarget.skipped(className, BUILDER_EXISTS);
+        }
+        PsiFieldsAnalysis psiFieldsAnalysis = psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention);
+        if (psiFieldsAnalysis.getFields().isEmpty()) {
+            return BuilderTarget.skipped(className, NO_FIELDS);
+        }
+        List<PsiField> fields = psiFieldsAnalysis.getFields();
+        PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis);
+        BuilderOptions options = BuilderOptions.DEFAULT;
+        if (!psiFieldsForBuilder.getFieldsForConstructor().isEmpty()) {
+            if (!psiFieldsForBuilderFactory.hasUsableConstructor(psiFieldsAnalysis, CONSTRUCTOR_OPTIONS)) {
+                return BuilderTarget.skipped(className, NO_USABLE_CONSTRUCTOR);
+            }
+            options = CONSTRUCTOR_OPTIONS;
+            psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis, options);
+        }
+        PsiDirectory targetDirectory = psiClass.getContainingFile().getContainingDirectory();
+        BuilderSpec builderSpec = builderSpecFactory.createBuilderSpec(targetDirectory, className + BUILDER_SUFFIX, psiClass, psiFieldsForBuilder,
+                namingConvention).withOptions(options);
+        return BuilderTarget.of(className, builderSpec, targetDirectory);
+    }
+}
@@ -0,0 +1,73 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class ClassHierarchySummaryCache {
+
+    static final Key<CachedValue<ClassHierarchySummary>> SUMMARY_KEY =
+            Key.create("pl.mjedynak.idea.plugins.builder.ClassHierarchySummary");
+    static final String PRIVATE_MODIFIER = "private";
+
+    private static final RecursionGuard RECURSION_GUARD = RecursionManager.createGuard("pl.mjedynak.idea.plugins.builder.ClassHierarchySummary");
+
+    private PsiHelper psiHelper;
+
+    public ClassHierarchySummaryCache(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public ClassHierarchySummary getSummary(final PsiClass psiClass) {
+        return psiHelper.getCachedValuesManager(psiClass.getProject()).getCachedValue(psiClass, SUMMARY_KEY,
+                new CachedValueProvider<ClassHierarchySummary>() {
+                    @Override
+                    public Result<ClassHierarchySummary> compute() {
+                        return Result.create(summarize(psiClass), psiHelper.getStructureModificationTracker(psiClass));
+                    }
+                }, false);
+    }
+
+    ClassHierarchySummary summarize(PsiClass psiClass) {
+        Set<PsiField> fields = new LinkedHashSet<PsiField>(Arrays.asList(psiClass.getFields()));
+        Set<String> nonPrivateMethodNames = new LinkedHashSet<String>();
+        for (PsiMethod method : psiClass.getMethods()) {
+            ProgressIndicatorProvider.checkCanceled();
+            if (methodIsNotPrivate(method)) {
+                nonPrivateMethodNames.add(method.getName());
+            }
+        }
+        for (PsiClass superClass : psiClass.getSupers()) {
+            ClassHierarchySummary superSummary = getSummaryPreventingCycles(superClass);
+            fields.addAll(superSummary.getFields());
+            nonPrivateMethodNames.addAll(superSummary.getNonPrivateMethodNames());
+        }
+        return new ClassHierarchySummary(fields, nonPrivateMethodNames);
+    }
+
+    private ClassHierarchySummary getSummaryPreventingCycles(final PsiClass superClass) {
+        ClassHierarchySummary superSummary = RECURSION_GUARD.doPreventingRecursion(superClass, false, new Computable<ClassHierarchySummary>() {
+            @Override
+            public ClassHierarchySummary compute() {
+                return getSummary(superClass);
+            }
+        });
+        return superSummary != null ? superSummary : ClassHierarchySummary.EMPTY;
+    }
+
+    private boolean methodIsNotPrivate(PsiMethod method) {
+        return !method.getModifierList().hasExplicitModifier(PRIVATE_MODIFIER);
+    }
+}
@@ -0,0 +1,52 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.PsiModificationTracker;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+
+import java.util.Arrays;
+
+public class ConstructorAssignmentsCache {
+
+    static final Key<CachedValue<ConstructorAssignments>> ASSIGNMENTS_KEY =
+            Key.create("pl.mjedynak.idea.plugins.builder.ConstructorAssignments");
+
+    private PsiHelper psiHelper;
+
+    public ConstructorAssignmentsCache(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public ConstructorAssignments getAssignments(final PsiClass psiClass) {
+        if (psiClass instanceof PsiCompiledElement) {
+            return ConstructorAssignments.EMPTY;
+        }
+        return psiHelper.getCachedValuesManager(psiClass.getProject()).getCachedValue(psiClass, ASSIGNMENTS_KEY,
+                new CachedValueProvider<ConstructorAssignments>() {
+                    @Override
+                    public Result<ConstructorAssignments> compute() {
+                        return Result.create(collectAssignments(psiClass),
+                                PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT, psiClass.getContainingFile());
+                    }
+                }, false);
+    }
+
+    ConstructorAssignments collectAssignments(PsiClass psiClass) {
+        ConstructorAssignmentsVisitor visitor = new ConstructorAssignmentsVisitor();
+        for (PsiMethod constructor : psiClass.getConstructors()) {
+            ProgressIndicatorProvider.checkCanceled();
+            PsiCodeBlock body = constructor.getBody();
+            if (body != null) {
+                body.accept(visitor);
+            }
+        }
+        return new ConstructorAssignments(Arrays.asList(psiClass.getFields()), visitor.getParametersByField());
+    }
+}
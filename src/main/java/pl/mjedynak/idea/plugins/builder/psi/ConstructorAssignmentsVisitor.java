@@ -0,0 +1,73 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.JavaRecursiveElementVisitor;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.util.PsiUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ConstructorAssignmentsVisitor extends JavaRecursiveElementVisitor {
+
+    private final Map<PsiField, PsiParameter> parametersByField = new LinkedHashMap<PsiField, PsiParameter>();
+
+    @Override
+    public void visitClass(PsiClass aClass) {
+        // assignments in anonymous and local classes do not initialize fields of the constructed object
+    }
+
+    @Override
+    public void visitAssignmentExpression(PsiAssignmentExpression expression) {
+        super.visitAssignmentExpression(expression);
+        PsiField psiField = findAssignedField(expression.getLExpression());
+        if (psiField != null && !parametersByField.containsKey(psiField)) {
+            PsiParameter parameter = findConstructorParameter(expression.getRExpression());
+            if (parameter != null) {
+                parametersByField.put(psiField, parameter);
+            }
+        }
+    }
+
+    private PsiField findAssignedField(PsiExpression lExpression) {
+        PsiExpression expression = PsiUtil.skipParenthesizedExprDown(lExpression);
+        if (expression instanceof PsiReferenceExpression) {
+            PsiReferenceExpression reference = (PsiReferenceExpression) expression;
+            PsiExpression qualifier = reference.getQualifierExpression();
+            if (qualifier == null || isUnqualifiedThis(qualifier)) {
+                PsiElement target = reference.resolve();
+                return target instanceof PsiField ? (PsiField) target : null;
+            }
+        }
+        return null;
+    }
+
+    private boolean isUnqualifiedThis(PsiExpression expression) {
+        return expression instanceof PsiThisExpression && ((PsiThisExpression) expression).getQualifier() == null;
+    }
+
+    private PsiParameter findConstructorParameter(PsiExpression rExpression) {
+        PsiExpression expression = PsiUtil.skipParenthesizedExprDown(rExpression);
+        if (expression instanceof PsiReferenceExpression && ((PsiReferenceExpression) expression).getQualifierExpression() == null) {
+            PsiElement target = ((PsiReferenceExpression) expression).resolve();
+            if (target instanceof PsiParameter) {
+                PsiElement declarationScope = ((PsiParameter) target).getDeclarationScope();
+                if (declarationScope instanceof PsiMethod && ((PsiMethod) declarationScope).isConstructor()) {
+                    return (PsiParameter) target;
+                }
+            }
+        }
+        return null;
+    }
+
+    public Map<PsiField, PsiParameter> getParametersByField() {
+        return parametersByField;
+    }
+}
@@ -0,0 +1,14 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiField;
+
+public interface FieldClassificationListener {
+
+    FieldClassificationListener NONE = new FieldClassificationListener() {
+        @Override
+        public void fieldClassified(PsiField psiField) {
+        }
+    };
+
+    void fieldClassified(PsiField psiField);
+}
@@ -0,0 +1,64 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+import java.util.Collections;
+
+public class InnerBuilderCreator {
+
+    private PsiHelper psiHelper;
+    private BuilderRenderer<String> builderRenderer;
+    private BuilderFormatter builderFormatter;
+
+    public InnerBuilderCreator(PsiHelper psiHelper, BuilderRenderer<String> builderRenderer, BuilderFormatter builderFormatter) {
+        this.psiHelper = psiHelper;
+        this.builderRenderer = builderRenderer;
+        this.builderFormatter = builderFormatter;
+    }
+
+    public PsiClass createInnerBuilder(Project project, PsiClass srcClass, BuilderSpec builderSpec) {
+        return createInnerBuilder(project, srcClass, builderSpec, builderRenderer.render(builderSpec));
+    }
+
+    public PsiClass createInnerBuilder(Project project, PsiClass srcClass, BuilderSpec builderSpec, String builderText) {
+        String builderClassName = builderSpec.getBuilderClassName();
+        if (srcClass.findInnerClassByName(builderClassName, false) != null) {
+            throw new IncorrectOperationException(srcClass.getName() + " already contains class " + builderClassName);
+        }
+        PsiDocumentManager psiDocumentManager = psiHelper.getPsiDocumentManager(project);
+        Document document = psiDocumentManager.getDocument(srcClass.getContainingFile());
+        if (document == null) {
+            throw new IncorrectOperationException("Cannot edit " + srcClass.getName());
+        }
+        psiDocumentManager.doPostponedOperationsAndUnblockDocument(document);
+        SmartPsiElementPointer<PsiClass> srcClassPointer = psiHelper.createSmartPointer(srcClass);
+        document.insertString(getInsertionOffset(srcClass), "\n" + builderText);
+        psiDocumentManager.commitDocument(document);
+        PsiClass builderClass = findInnerBuilder(srcClassPointer.getElement(), builderClassName);
+        builderFormatter.formatElements(project, Collections.<PsiElement>singletonList(builderClass));
+        return builderClass;
+    }
+
+    private int getInsertionOffset(PsiClass srcClass) {
+        PsiElement rBrace = srcClass.getRBrace();
+        if (rBrace == null) {
+            throw new IncorrectOperationException("Cannot find end of class " + srcClass.getName());
+        }
+        return rBrace.getTextRange().getStartOffset();
+    }
+
+    private PsiClass findInnerBuilder(PsiClass srcClass, String builderClassName) {
+        PsiClass builderClass = srcClass != null ? srcClass.findInnerClassByName(builderClassName, false) : null;
+        if (builderClass == null) {
+            throw new IncorrectOperationException("Cannot parse generated builder " + builderClassName);
+        }
+        return builderClass;
+    }
+}
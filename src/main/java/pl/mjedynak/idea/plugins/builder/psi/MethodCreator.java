@@ -3,35 +3,43 @@ package pl.mjedynak.idea.plugins.builder.psi;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import org.apache.commons.lang.StringUtils;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import com.intellij.psi.PsiTypeElement;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class MethodCreator {
 
-    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
-    private MethodNameCreator methodNameCreator = new MethodNameCreator();
     private PsiElementFactory elementFactory;
+    private BuilderMethodTemplates builderMethodTemplates;
     private String builderClassName;
+    private Map<String, PsiTypeElement> typeElements = new HashMap<String, PsiTypeElement>();
 
-    public MethodCreator(PsiElementFactory elementFactory, String builderClassName) {
+    public MethodCreator(PsiElementFactory elementFactory, BuilderMethodTemplates builderMethodTemplates, String builderClassName) {
         this.elementFactory = elementFactory;
+        this.builderMethodTemplates = builderMethodTemplates;
         this.builderClassName = builderClassName;
     }
 
-    public PsiMethod createMethod(PsiField psiField, String srcClassFieldName) {
-        String fieldName = psiField.getName();
-        String fieldType = psiField.getType().getPresentableText();
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldNameWithoutPrefix = fieldName.replaceFirst(fieldNamePrefix, "");
-
-        String methodName = fieldNameWithoutPrefix;//methodNameCreator.createMethodName(methodPrefix, fieldNameWithoutPrefix);
-        String fieldNameUppercase = StringUtils.capitalize(fieldNameWithoutPrefix);
-        StringBuilder buildMethodText = new StringBuilder();
-        buildMethodText.append(srcClassFieldName).append(".set").append(fieldNameUppercase).append("(").append(fieldName).append(");");
-
-        String methodText = "public " + builderClassName + " " + methodName + "(" + fieldType + " " + fieldName + ") {"
-                + buildMethodText.toString() +
-                "return this; }";
-        return elementFactory.createMethodFromText(methodText, psiField);
+    public PsiMethod createMethod(PropertySpec property, String srcClassFieldName) {
+        return builderMethodTemplates.createSetMethod(builderClassName, srcClassFieldName, typeElementOf(property), property);
+    }
+
+    public PsiField createValueField(PropertySpec property) {
+        return builderMethodTemplates.createValueField(typeElementOf(property), property);
+    }
+
+    public PsiField createSetFlagField(PropertySpec property) {
+        return builderMethodTemplates.createSetFlagField(property);
+    }
+
+    private PsiTypeElement typeElementOf(PropertySpec property) {
+        PsiTypeElement typeElement = typeElements.get(property.getTypeText());
+        if (typeElement == null) {
+            typeElement = elementFactory.createTypeElementFromText(property.getTypeText(), null);
+            typeElements.put(property.getTypeText(), typeElement);
+        }
+        return typeElement;
     }
 }
@@ -0,0 +1,73 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PropertyNames {
+
+    static final String SETTER_PREFIX = "set";
+
+    private final NamingConvention namingConvention;
+    private final Map<String, PropertyName> propertyNamesByFieldName;
+
+    private PropertyNames(NamingConvention namingConvention, int expectedSize) {
+        this.namingConvention = namingConvention;
+        this.propertyNamesByFieldName = new HashMap<String, PropertyName>(expectedSize * 2);
+    }
+
+    public static PropertyNames of(Collection<PsiField> psiFields, NamingConvention namingConvention) {
+        PropertyNames propertyNames = new PropertyNames(namingConvention, psiFields.size());
+        for (PsiField psiField : psiFields) {
+            propertyNames.get(psiField);
+        }
+        return propertyNames;
+    }
+
+    public PropertyName get(PsiField psiField) {
+        return get(psiField.getName());
+    }
+
+    public PropertyName get(String fieldName) {
+        PropertyName propertyName = propertyNamesByFieldName.get(fieldName);
+        if (propertyName == null) {
+            String name = strip(fieldName, namingConvention.getFieldNamePrefix(), namingConvention.getFieldNameSuffix());
+            propertyName = new PropertyName(fieldName, name, SETTER_PREFIX + capitalize(name));
+            propertyNamesByFieldName.put(fieldName, propertyName);
+        }
+        return propertyName;
+    }
+
+    public String getPropertyNameOfParameter(String parameterName) {
+        return strip(parameterName, namingConvention.getParameterNamePrefix(), namingConvention.getParameterNameSuffix());
+    }
+
+    public String getFieldNameOfParameter(String parameterName) {
+        return namingConvention.getFieldNamePrefix() + getPropertyNameOfParameter(parameterName) + namingConvention.getFieldNameSuffix();
+    }
+
+    static String strip(String name, String prefix, String suffix) {
+        int begin = 0;
+        int end = name.length();
+        if (!prefix.isEmpty() && name.startsWith(prefix) && end > prefix.length()) {
+            begin = prefix.length();
+        }
+        if (!suffix.isEmpty() && name.endsWith(suffix) && end - suffix.length() > begin) {
+            end -= suffix.length();
+        }
+        return name.substring(begin, end);
+    }
+
+    static String capitalize(String name) {
+        if (name.isEmpty() || Character.toTitleCase(name.charAt(0)) == name.charAt(0)) {
+            return name;
+        }
+        char[] chars = name.toCharArray();
+        chars[0] = Character.toTitleCase(chars[0]);
+        return new String(chars);
+    }
+}
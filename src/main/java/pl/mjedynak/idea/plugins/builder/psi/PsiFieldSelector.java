@@ -1,49 +1,49 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
-import com.google.common.base.Predicate;
-import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
-import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
-import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassMembersIndex;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
-import static com.google.common.collect.Iterables.filter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class PsiFieldSelector {
 
-    private PsiElementClassMemberFactory psiElementClassMemberFactory;
     private PsiFieldVerifier psiFieldVerifier;
+    private ClassHierarchySummaryCache classHierarchySummaryCache;
+    private ConstructorAssignmentsCache constructorAssignmentsCache;
 
-    public PsiFieldSelector(PsiElementClassMemberFactory psiElementClassMemberFactory, PsiFieldVerifier psiFieldVerifier) {
-        this.psiElementClassMemberFactory = psiElementClassMemberFactory;
+    public PsiFieldSelector(PsiFieldVerifier psiFieldVerifier, ClassHierarchySummaryCache classHierarchySummaryCache,
+                            ConstructorAssignmentsCache constructorAssignmentsCache) {
         this.psiFieldVerifier = psiFieldVerifier;
+        this.classHierarchySummaryCache = classHierarchySummaryCache;
+        this.constructorAssignmentsCache = constructorAssignmentsCache;
     }
 
-    public List<PsiElementClassMember> selectFieldsToIncludeInBuilder(final PsiClass psiClass) {
-        List<PsiElementClassMember> result = new ArrayList<PsiElementClassMember>();
-        List<PsiField> psiFields = Arrays.asList(psiClass.getAllFields());
-        Iterable<PsiField> filtered = filter(psiFields, new Predicate<PsiField>() {
-            @Override
-            public boolean apply(PsiField psiField) {
-                return isAppropriate(psiClass, psiField);
-            }
-        });
-
-        for (PsiField psiField : filtered) {
-            result.add(psiElementClassMemberFactory.createPsiElementClassMember(psiField));
-        }
-        return result;
+    public PsiFieldsAnalysis analyzeFields(PsiClass psiClass, NamingConvention namingConvention) {
+        return analyzeFields(psiClass, namingConvention, FieldClassificationListener.NONE);
     }
 
-    private boolean isAppropriate(PsiClass psiClass, PsiField psiField) {
-        return psiFieldVerifier.isSetInSetterMethod(psiField, psiClass) || psiFieldVerifier.isSetInConstructor(psiField, psiClass);
-
+    public PsiFieldsAnalysis analyzeFields(PsiClass psiClass, NamingConvention namingConvention, FieldClassificationListener listener) {
+        Map<PsiField, FieldInitialization> initializations = new LinkedHashMap<PsiField, FieldInitialization>();
+        ClassHierarchySummary classHierarchySummary = classHierarchySummaryCache.getSummary(psiClass);
+        ConstructorAssignments constructorAssignments = constructorAssignmentsCache.getAssignments(psiClass);
+        PsiClassMembersIndex index = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention);
+        for (PsiField psiField : classHierarchySummary.getFields()) {
+            ProgressIndicatorProvider.checkCanceled();
+            FieldInitialization initialization = FieldInitialization.of(index.isSetInSetterMethod(psiField), index.isSetInConstructor(psiField));
+            if (initialization != null) {
+                initializations.put(psiField, initialization);
+                listener.fieldClassified(psiField);
+            }
+        }
+        return new PsiFieldsAnalysis(initializations, index.getTargetConstructors());
     }
-
-
 }
@@ -0,0 +1,65 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PsiFieldsAnalysisCache {
+
+    static final Key<CachedValue<ConcurrentMap<NamingConvention, PsiFieldsAnalysis>>> ANALYSIS_KEY =
+            Key.create("pl.mjedynak.idea.plugins.builder.PsiFieldsAnalysis");
+
+    private static final Logger LOG = Logger.getInstance(PsiFieldsAnalysisCache.class);
+
+    private PsiHelper psiHelper;
+    private PsiFieldSelector psiFieldSelector;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PsiFieldsAnalysisCache(PsiHelper psiHelper, PsiFieldSelector psiFieldSelector) {
+        this.psiHelper = psiHelper;
+        this.psiFieldSelector = psiFieldSelector;
+    }
+
+    public PsiFieldsAnalysis getAnalysis(PsiClass psiClassFromEditor, NamingConvention namingConvention) {
+        return getAnalysis(psiClassFromEditor, namingConvention, FieldClassificationListener.NONE);
+    }
+
+    public PsiFieldsAnalysis getAnalysis(PsiClass psiClassFromEditor, NamingConvention namingConvention, FieldClassificationListener listener) {
+        final PsiClass psiClass = psiHelper.getOriginalClass(psiClassFromEditor);
+        CachedValuesManager cachedValuesManager = psiHelper.getCachedValuesManager(psiClass.getProject());
+        ConcurrentMap<NamingConvention, PsiFieldsAnalysis> analysesByConvention = cachedValuesManager.getCachedValue(psiClass, ANALYSIS_KEY,
+                new CachedValueProvider<ConcurrentMap<NamingConvention, PsiFieldsAnalysis>>() {
+                    @Override
+                    public Result<ConcurrentMap<NamingConvention, PsiFieldsAnalysis>> compute() {
+                        return Result.<ConcurrentMap<NamingConvention, PsiFieldsAnalysis>>create(
+                                new ConcurrentHashMap<NamingConvention, PsiFieldsAnalysis>(),
+                                psiHelper.getStructureModificationTracker(psiClass), psiClass.getContainingFile());
+                    }
+                }, false);
+        PsiFieldsAnalysis result = analysesByConvention.get(namingConvention);
+        boolean miss = result == null;
+        if (miss) {
+            result = psiFieldSelector.analyzeFields(psiClass, namingConvention, listener);
+            PsiFieldsAnalysis concurrentResult = analysesByConvention.putIfAbsent(namingConvention, result);
+            result = concurrentResult != null ? concurrentResult : result;
+        }
+        long missCount = miss ? misses.incrementAndGet() : misses.get();
+        long hitCount = miss ? hits.get() : hits.incrementAndGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Fields analysis cache " + (miss ? "miss" : "hit") + " for " + psiClass.getQualifiedName()
+                    + " (hits: " + hitCount + ", misses: " + missCount + ")");
+        }
+        return result;
+    }
+}
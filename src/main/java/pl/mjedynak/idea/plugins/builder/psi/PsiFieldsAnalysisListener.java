@@ -0,0 +1,17 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+
+import java.util.List;
+
+public interface PsiFieldsAnalysisListener {
+
+    void rowsAnalyzed(List<FieldRow> rows);
+
+    void analysisFinished(PsiFieldsAnalysis psiFieldsAnalysis);
+
+    void analysisFailed(String message);
+
+    boolean isClosed();
+}
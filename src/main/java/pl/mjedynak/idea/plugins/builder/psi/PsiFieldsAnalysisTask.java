@@ -0,0 +1,182 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PsiFieldsAnalysisTask extends Task.Backgroundable {
+
+    static final String TITLE = "Analyzing Fields for Builder";
+    static final int ROWS_CHUNK_SIZE = 200;
+    static final String CLASS_INVALIDATED_MESSAGE = "Class was removed or replaced before its fields were analyzed";
+
+    private PsiClass psiClass;
+    private NamingConvention namingConvention;
+    private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    private PsiHelper psiHelper;
+    private PsiFieldsAnalysisListener listener;
+    private volatile PsiFieldsAnalysis psiFieldsAnalysis;
+    private final List<FieldRow> pendingRows = new ArrayList<FieldRow>();
+    private final Set<PsiField> publishedFields = new HashSet<PsiField>();
+
+    public PsiFieldsAnalysisTask(Project project, PsiClass psiClass, NamingConvention namingConvention, PsiFieldsAnalysisCache psiFieldsAnalysisCache,
+                                 PsiHelper psiHelper, PsiFieldsAnalysisListener listener) {
+        super(project, TITLE, true);
+        this.psiClass = psiClass;
+        this.namingConvention = namingConvention;
+        this.psiFieldsAnalysisCache = psiFieldsAnalysisCache;
+        this.psiHelper = psiHelper;
+        this.listener = listener;
+    }
+
+    @Override
+    public void run(@NotNull final ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        final Application application = psiHelper.getApplication();
+        final FieldClassificationListener classificationListener = new FieldClassificationListener() {
+            @Override
+            public void fieldClassified(PsiField psiField) {
+                addRow(indicator, application, psiField);
+            }
+        };
+        while (psiFieldsAnalysis == null && isClassValid(application)) {
+            checkCanceled(indicator);
+            pendingRows.clear();
+            boolean completed = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(new Runnable() {
+                @Override
+                public void run() {
+                    if (psiClass.isValid()) {
+                        psiFieldsAnalysis = psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention, classificationListener);
+                    }
+                }
+            });
+            if (!completed) {
+                waitForPendingWriteAction(application);
+            }
+        }
+        if (psiFieldsAnalysis != null) {
+            publishPendingRows(application);
+            publishRows(indicator, application, psiFieldsAnalysis);
+        } else {
+            publishFailure(application);
+        }
+    }
+
+    private void publishFailure(Application application) {
+        application.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                listener.analysisFailed(CLASS_INVALIDATED_MESSAGE);
+            }
+        }, ModalityState.any());
+    }
+
+    void addRow(ProgressIndicator indicator, Application application, PsiField psiField) {
+        if (publishedFields.contains(psiField)) {
+            return;
+        }
+        pendingRows.add(createRow(psiField));
+        if (pendingRows.size() >= ROWS_CHUNK_SIZE) {
+            checkCanceled(indicator);
+            publishPendingRows(application);
+        }
+    }
+
+    void publishRows(ProgressIndicator indicator, Application application, final PsiFieldsAnalysis analysis) {
+        List<PsiField> fields = getUnpublishedFields(analysis);
+        for (int from = 0; from < fields.size(); from += ROWS_CHUNK_SIZE) {
+            checkCanceled(indicator);
+            final List<PsiField> chunk = fields.subList(from, Math.min(from + ROWS_CHUNK_SIZE, fields.size()));
+            pendingRows.addAll(application.runReadAction(new Computable<List<FieldRow>>() {
+                @Override
+                public List<FieldRow> compute() {
+                    return createRows(chunk);
+                }
+            }));
+            publishPendingRows(application);
+        }
+        application.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                listener.analysisFinished(analysis);
+            }
+        }, ModalityState.any());
+    }
+
+    private void publishPendingRows(Application application) {
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+        final List<FieldRow> rows = new ArrayList<FieldRow>(pendingRows);
+        pendingRows.clear();
+        for (FieldRow row : rows) {
+            publishedFields.add(row.getPsiField());
+        }
+        application.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                listener.rowsAnalyzed(rows);
+            }
+        }, ModalityState.any());
+    }
+
+    private List<PsiField> getUnpublishedFields(PsiFieldsAnalysis analysis) {
+        List<PsiField> fields = new ArrayList<PsiField>();
+        for (PsiField psiField : analysis.getFields()) {
+            if (!publishedFields.contains(psiField)) {
+                fields.add(psiField);
+            }
+        }
+        return fields;
+    }
+
+    private List<FieldRow> createRows(List<PsiField> fields) {
+        List<FieldRow> rows = new ArrayList<FieldRow>(fields.size());
+        for (PsiField psiField : fields) {
+            if (psiField.isValid()) {
+                rows.add(createRow(psiField));
+            }
+        }
+        return rows;
+    }
+
+    private FieldRow createRow(PsiField psiField) {
+        return new FieldRow(psiField, psiField.getName() + ": " + psiField.getType().getPresentableText());
+    }
+
+    private void checkCanceled(ProgressIndicator indicator) {
+        if (listener.isClosed()) {
+            indicator.cancel();
+        }
+        indicator.checkCanceled();
+    }
+
+    private boolean isClassValid(Application application) {
+        return application.runReadAction(new Computable<Boolean>() {
+            @Override
+            public Boolean compute() {
+                return psiClass.isValid();
+            }
+        });
+    }
+
+    private void waitForPendingWriteAction(Application application) {
+        application.runReadAction(EmptyRunnable.getInstance());
+    }
+}
@@ -1,5 +1,6 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
+import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.ide.util.PackageUtil;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
@@ -7,10 +8,16 @@ import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
 import com.intellij.pom.Navigatable;
 import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiUtilBase;
 import com.intellij.refactoring.util.RefactoringMessageUtil;
 
@@ -42,6 +49,22 @@ public class PsiHelper {
         return PsiShortNamesCache.getInstance(project);
     }
 
+    public CachedValuesManager getCachedValuesManager(Project project) {
+        return CachedValuesManager.getManager(project);
+    }
+
+    public PsiClass getOriginalClass(PsiClass psiClass) {
+        PsiElement originalElement = psiClass.getOriginalElement();
+        return originalElement instanceof PsiClass ? (PsiClass) originalElement : psiClass;
+    }
+
+    public Object getStructureModificationTracker(PsiClass psiClass) {
+        if (psiClass instanceof PsiCompiledElement) {
+            return ProjectRootModificationTracker.getInstance(psiClass.getProject());
+        }
+        return PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT;
+    }
+
     public PsiDirectory getDirectoryFromModuleAndPackageName(Module module, String packageName) {
         PsiDirectory baseDir = PackageUtil.findPossiblePackageDirectoryInModule(module, packageName);
         return PackageUtil.findOrCreateDirectoryForPackage(module, packageName, baseDir, true);
@@ -72,6 +95,10 @@ public class PsiHelper {
         return JavaPsiFacade.getInstance(project);
     }
 
+    public ProgressManager getProgressManager() {
+        return ProgressManager.getInstance();
+    }
+
     public CommandProcessor getCommandProcessor() {
         return CommandProcessor.getInstance();
     }
@@ -84,6 +111,31 @@ public class PsiHelper {
         return ModuleUtil.findModuleForFile(psiClass.getContainingFile().getVirtualFile(), project);
     }
 
+    public PsiJavaFile createJavaFile(Project project, String className, String text) {
+        String fileName = className + "." + JavaFileType.DEFAULT_EXTENSION;
+        return (PsiJavaFile) PsiFileFactory.getInstance(project).createFileFromText(fileName, JavaFileType.INSTANCE, text);
+    }
+
+    public JavaCodeStyleManager getJavaCodeStyleManager(Project project) {
+        return JavaCodeStyleManager.getInstance(project);
+    }
+
+    public CodeStyleManager getCodeStyleManager(Project project) {
+        return CodeStyleManager.getInstance(project);
+    }
+
+    public SmartPsiElementPointer<PsiClass> createSmartPointer(PsiClass psiClass) {
+        return SmartPointerManager.getInstance(psiClass.getProject()).createSmartPsiElementPointer(psiClass);
+    }
+
+    public PsiDocumentManager getPsiDocumentManager(Project project) {
+        return PsiDocumentManager.getInstance(project);
+    }
+
+    public long getModificationCount(Project project) {
+        return PsiManager.getInstance(project).getModificationTracker().getModificationCount();
+    }
+
     public PsiField createField(PsiClass viewClass, String fieldName) {
         PsiElementFactory factory = JavaPsiFacade.getElementFactory(viewClass.getProject());
         PsiField field = factory.createField(fieldName, factory.createType(viewClass));
@@ -0,0 +1,44 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.intellij.psi.PsiMethod;
+
+import java.util.List;
+import java.util.Map;
+
+public class BuilderDiff {
+
+    private final BuilderSpec builderSpec;
+    private final List<PropertySpec> addedProperties;
+    private final List<PsiMethod> removedMethods;
+    private final Map<PsiMethod, PropertySpec> retypedMethods;
+
+    public BuilderDiff(BuilderSpec builderSpec, List<PropertySpec> addedProperties, List<PsiMethod> removedMethods,
+                       Map<PsiMethod, PropertySpec> retypedMethods) {
+        this.builderSpec = builderSpec;
+        this.addedProperties = ImmutableList.copyOf(addedProperties);
+        this.removedMethods = ImmutableList.copyOf(removedMethods);
+        this.retypedMethods = ImmutableMap.copyOf(retypedMethods);
+    }
+
+    public BuilderSpec getBuilderSpec() {
+        return builderSpec;
+    }
+
+    public List<PropertySpec> getAddedProperties() {
+        return addedProperties;
+    }
+
+    public List<PsiMethod> getRemovedMethods() {
+        return removedMethods;
+    }
+
+    public Map<PsiMethod, PropertySpec> getRetypedMethods() {
+        return retypedMethods;
+    }
+
+    public boolean isEmpty() {
+        return addedProperties.isEmpty() && removedMethods.isEmpty() && retypedMethods.isEmpty();
+    }
+}
@@ -0,0 +1,38 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+public class BuilderOptions {
+
+    public static final BuilderOptions DEFAULT = new BuilderOptions(false, false, false, true);
+
+    private final boolean innerClass;
+    private final boolean immutableTarget;
+    private final boolean reusable;
+    private final boolean samePackage;
+
+    public BuilderOptions(boolean innerClass, boolean immutableTarget, boolean reusable, boolean samePackage) {
+        this.innerClass = innerClass;
+        this.immutableTarget = immutableTarget;
+        this.reusable = reusable;
+        this.samePackage = samePackage;
+    }
+
+    public boolean isInnerClass() {
+        return innerClass;
+    }
+
+    public boolean isImmutableTarget() {
+        return immutableTarget;
+    }
+
+    public boolean isReusable() {
+        return reusable;
+    }
+
+    public boolean isSamePackage() {
+        return samePackage;
+    }
+
+    public boolean isTargetCreatedInBuild() {
+        return immutableTarget || reusable;
+    }
+}
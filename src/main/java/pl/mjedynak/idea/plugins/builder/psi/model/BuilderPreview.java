@@ -0,0 +1,33 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.psi.PsiField;
+
+import java.util.List;
+
+public class BuilderPreview {
+
+    private final BuilderSpec builderSpec;
+    private final String text;
+    private final List<PsiField> selectedFields;
+    private final long modificationCount;
+
+    public BuilderPreview(BuilderSpec builderSpec, String text, List<PsiField> selectedFields, long modificationCount) {
+        this.builderSpec = builderSpec;
+        this.text = text;
+        this.selectedFields = ImmutableList.copyOf(selectedFields);
+        this.modificationCount = modificationCount;
+    }
+
+    public BuilderSpec getBuilderSpec() {
+        return builderSpec;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFor(List<PsiField> fields, long currentModificationCount) {
+        return modificationCount == currentModificationCount && selectedFields.equals(fields);
+    }
+}
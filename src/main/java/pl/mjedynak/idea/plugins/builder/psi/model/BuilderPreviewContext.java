@@ -0,0 +1,47 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+public class BuilderPreviewContext {
+
+    private final PsiDirectory targetDirectory;
+    private final String builderClassName;
+    private final PsiClass srcClass;
+    private final NamingConvention namingConvention;
+    private final BuilderOptions options;
+
+    public BuilderPreviewContext(PsiDirectory targetDirectory, String builderClassName, PsiClass srcClass, NamingConvention namingConvention) {
+        this(targetDirectory, builderClassName, srcClass, namingConvention, BuilderOptions.DEFAULT);
+    }
+
+    public BuilderPreviewContext(PsiDirectory targetDirectory, String builderClassName, PsiClass srcClass, NamingConvention namingConvention,
+                                 BuilderOptions options) {
+        this.targetDirectory = targetDirectory;
+        this.builderClassName = builderClassName;
+        this.srcClass = srcClass;
+        this.namingConvention = namingConvention;
+        this.options = options;
+    }
+
+    public PsiDirectory getTargetDirectory() {
+        return targetDirectory;
+    }
+
+    public String getBuilderClassName() {
+        return builderClassName;
+    }
+
+    public PsiClass getSrcClass() {
+        return srcClass;
+    }
+
+    public NamingConvention getNamingConvention() {
+        return namingConvention;
+    }
+
+    public BuilderOptions getOptions() {
+        return options;
+    }
+}
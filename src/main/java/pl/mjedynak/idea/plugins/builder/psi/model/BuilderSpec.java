@@ -0,0 +1,91 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.List;
+
+public class BuilderSpec {
+
+    private final String packageName;
+    private final String builderClassName;
+    private final String srcClassName;
+    private final String srcClassQualifiedName;
+    private final String srcClassFieldName;
+    private final String initializingMethodName;
+    private final List<PropertySpec> properties;
+    private final NamingConvention namingConvention;
+    private final BuilderOptions options;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BuilderSpec(String packageName, String builderClassName, String srcClassName, String srcClassQualifiedName, String srcClassFieldName,
+                       String initializingMethodName, List<PropertySpec> properties, NamingConvention namingConvention) {
+        this(packageName, builderClassName, srcClassName, srcClassQualifiedName, srcClassFieldName, initializingMethodName, properties,
+                namingConvention, BuilderOptions.DEFAULT);
+    }
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private BuilderSpec(String packageName, String builderClassName, String srcClassName, String srcClassQualifiedName, String srcClassFieldName,
+                        String initializingMethodName, List<PropertySpec> properties, NamingConvention namingConvention, BuilderOptions options) {
+        this.packageName = packageName;
+        this.builderClassName = builderClassName;
+        this.srcClassName = srcClassName;
+        this.srcClassQualifiedName = srcClassQualifiedName;
+        this.srcClassFieldName = srcClassFieldName;
+        this.initializingMethodName = initializingMethodName;
+        this.properties = ImmutableList.copyOf(properties);
+        this.namingConvention = namingConvention;
+        this.options = options;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getBuilderClassName() {
+        return builderClassName;
+    }
+
+    public String getSrcClassName() {
+        return srcClassName;
+    }
+
+    public String getSrcClassQualifiedName() {
+        return srcClassQualifiedName;
+    }
+
+    public String getSrcClassFieldName() {
+        return srcClassFieldName;
+    }
+
+    public String getInitializingMethodName() {
+        return initializingMethodName;
+    }
+
+    public List<PropertySpec> getProperties() {
+        return properties;
+    }
+
+    public NamingConvention getNamingConvention() {
+        return namingConvention;
+    }
+
+    public BuilderOptions getOptions() {
+        return options;
+    }
+
+    public BuilderSpec withSrcClassFieldName(String newSrcClassFieldName) {
+        return new BuilderSpec(packageName, builderClassName, srcClassName, srcClassQualifiedName, newSrcClassFieldName, initializingMethodName,
+                properties, namingConvention, options);
+    }
+
+    public BuilderSpec withProperties(List<PropertySpec> newProperties) {
+        return new BuilderSpec(packageName, builderClassName, srcClassName, srcClassQualifiedName, srcClassFieldName, initializingMethodName,
+                newProperties, namingConvention, options);
+    }
+
+    public BuilderSpec withOptions(BuilderOptions newOptions) {
+        return new BuilderSpec(packageName, builderClassName, srcClassName, srcClassQualifiedName, srcClassFieldName, initializingMethodName,
+                properties, namingConvention, newOptions);
+    }
+}
@@ -0,0 +1,46 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.intellij.psi.PsiDirectory;
+
+public class BuilderTarget {
+
+    private final String className;
+    private final BuilderSpec builderSpec;
+    private final PsiDirectory targetDirectory;
+    private final String skipReason;
+
+    private BuilderTarget(String className, BuilderSpec builderSpec, PsiDirectory targetDirectory, String skipReason) {
+        this.className = className;
+        this.builderSpec = builderSpec;
+        this.targetDirectory = targetDirectory;
+        this.skipReason = skipReason;
+    }
+
+    public static BuilderTarget of(String className, BuilderSpec builderSpec, PsiDirectory targetDirectory) {
+        return new BuilderTarget(className, builderSpec, targetDirectory, null);
+    }
+
+    public static BuilderTarget skipped(String className, String skipReason) {
+        return new BuilderTarget(className, null, null, skipReason);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public BuilderSpec getBuilderSpec() {
+        return builderSpec;
+    }
+
+    public PsiDirectory getTargetDirectory() {
+        return targetDirectory;
+    }
+
+    public String getSkipReason() {
+        return skipReason;
+    }
+
+    public boolean isSkipped() {
+        return skipReason != null;
+    }
+}
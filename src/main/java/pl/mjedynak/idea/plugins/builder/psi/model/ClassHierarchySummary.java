@@ -0,0 +1,30 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiField;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public class ClassHierarchySummary {
+
+    public static final ClassHierarchySummary EMPTY = new ClassHierarchySummary(ImmutableList.<PsiField>of(), ImmutableSet.<String>of());
+
+    private final ImmutableList<PsiField> fields;
+    private final ImmutableSet<String> nonPrivateMethodNames;
+
+    public ClassHierarchySummary(Collection<PsiField> fields, Collection<String> nonPrivateMethodNames) {
+        this.fields = ImmutableList.copyOf(fields);
+        this.nonPrivateMethodNames = ImmutableSet.copyOf(nonPrivateMethodNames);
+    }
+
+    public List<PsiField> getFields() {
+        return fields;
+    }
+
+    public Set<String> getNonPrivateMethodNames() {
+        return nonPrivateMethodNames;
+    }
+}
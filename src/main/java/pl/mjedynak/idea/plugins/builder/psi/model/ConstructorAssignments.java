@@ -0,0 +1,54 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiParameter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class ConstructorAssignments {
+
+    public static final ConstructorAssignments EMPTY = new ConstructorAssignments(ImmutableSet.<PsiField>of(), ImmutableMap.<PsiField, PsiParameter>of());
+
+    private final ImmutableSet<PsiField> analyzedFields;
+    private final ImmutableMap<PsiField, PsiParameter> parametersByField;
+    private final Map<PsiParameter, PsiField> fieldsByParameter;
+    private final Set<PsiParameter> parametersOfSeveralFields = new HashSet<PsiParameter>();
+
+    public ConstructorAssignments(Collection<PsiField> analyzedFields, Map<PsiField, PsiParameter> parametersByField) {
+        this.analyzedFields = ImmutableSet.copyOf(analyzedFields);
+        this.parametersByField = ImmutableMap.copyOf(parametersByField);
+        this.fieldsByParameter = new HashMap<PsiParameter, PsiField>(parametersByField.size() * 2);
+        for (Map.Entry<PsiField, PsiParameter> entry : this.parametersByField.entrySet()) {
+            if (fieldsByParameter.put(entry.getValue(), entry.getKey()) != null) {
+                parametersOfSeveralFields.add(entry.getValue());
+            }
+        }
+        fieldsByParameter.keySet().removeAll(parametersOfSeveralFields);
+    }
+
+    public boolean isAnalyzed(PsiField psiField) {
+        return analyzedFields.contains(psiField);
+    }
+
+    public boolean isAssigned(PsiField psiField) {
+        return parametersByField.containsKey(psiField);
+    }
+
+    public PsiParameter getParameter(PsiField psiField) {
+        return parametersByField.get(psiField);
+    }
+
+    public PsiField getField(PsiParameter psiParameter) {
+        return fieldsByParameter.get(psiParameter);
+    }
+
+    public boolean isAssignedToSeveralFields(PsiParameter psiParameter) {
+        return parametersOfSeveralFields.contains(psiParameter);
+    }
+}
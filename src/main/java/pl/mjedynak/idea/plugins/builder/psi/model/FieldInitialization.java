@@ -0,0 +1,26 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+public enum FieldInitialization {
+    SETTER,
+    CONSTRUCTOR,
+    BOTH;
+
+    public static FieldInitialization of(boolean setInSetter, boolean setInConstructor) {
+        if (setInSetter && setInConstructor) {
+            return BOTH;
+        } else if (setInSetter) {
+            return SETTER;
+        } else if (setInConstructor) {
+            return CONSTRUCTOR;
+        }
+        return null;
+    }
+
+    public boolean isSetInSetter() {
+        return this == SETTER || this == BOTH;
+    }
+
+    public boolean isSetInConstructor() {
+        return this == CONSTRUCTOR || this == BOTH;
+    }
+}
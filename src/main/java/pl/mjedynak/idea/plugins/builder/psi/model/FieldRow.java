@@ -0,0 +1,39 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.intellij.psi.PsiField;
+
+import java.util.Locale;
+
+public class FieldRow {
+
+    private final PsiField psiField;
+    private final String text;
+    private final String filterKey;
+    private boolean selected = true;
+
+    public FieldRow(PsiField psiField, String text) {
+        this.psiField = psiField;
+        this.text = text;
+        this.filterKey = text.toLowerCase(Locale.ENGLISH);
+    }
+
+    public PsiField getPsiField() {
+        return psiField;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean matches(String lowerCaseFilter) {
+        return filterKey.contains(lowerCaseFilter);
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+
+    public void setSelected(boolean selected) {
+        this.selected = selected;
+    }
+}
@@ -0,0 +1,26 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+public class PropertyName {
+
+    private final String fieldName;
+    private final String propertyName;
+    private final String setterName;
+
+    public PropertyName(String fieldName, String propertyName, String setterName) {
+        this.fieldName = fieldName;
+        this.propertyName = propertyName;
+        this.setterName = setterName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public String getSetterName() {
+        return setterName;
+    }
+}
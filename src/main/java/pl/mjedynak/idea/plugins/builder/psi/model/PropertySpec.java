@@ -0,0 +1,60 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import java.util.Set;
+
+public class PropertySpec {
+
+    private static final String SET_FLAG_SUFFIX = "Set";
+
+    private final PropertyName name;
+    private final String typeText;
+    private final FieldInitialization initialization;
+    private final String setFlagName;
+
+    public PropertySpec(PropertyName name, String typeText, FieldInitialization initialization) {
+        this(name, typeText, initialization, name.getPropertyName() + SET_FLAG_SUFFIX);
+    }
+
+    public PropertySpec(PropertyName name, String typeText, FieldInitialization initialization, String setFlagName) {
+        this.name = name;
+        this.typeText = typeText;
+        this.initialization = initialization;
+        this.setFlagName = setFlagName;
+    }
+
+    public String getFieldName() {
+        return name.getFieldName();
+    }
+
+    public String getPropertyName() {
+        return name.getPropertyName();
+    }
+
+    public String getSetterName() {
+        return name.getSetterName();
+    }
+
+    public String getSetFlagName() {
+        return setFlagName;
+    }
+
+    public PropertySpec withUniqueSetFlagName(Set<String> takenNames) {
+        String candidate = name.getPropertyName() + SET_FLAG_SUFFIX;
+        for (int i = 2; takenNames.contains(candidate); i++) {
+            candidate = name.getPropertyName() + SET_FLAG_SUFFIX + i;
+        }
+        return withSetFlagName(candidate);
+    }
+
+    public PropertySpec withSetFlagName(String newSetFlagName) {
+        return new PropertySpec(name, typeText, initialization, newSetFlagName);
+    }
+
+    public String getTypeText() {
+        return typeText;
+    }
+
+    public FieldInitialization getInitialization() {
+        return initialization;
+    }
+}
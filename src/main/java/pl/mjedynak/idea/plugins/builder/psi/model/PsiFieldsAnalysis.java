@@ -0,0 +1,35 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.intellij.psi.PsiField;
+
+import java.util.List;
+import java.util.Map;
+
+public class PsiFieldsAnalysis {
+
+    private final ImmutableMap<PsiField, FieldInitialization> initializations;
+    private final ImmutableList<TargetConstructor> constructors;
+
+    public PsiFieldsAnalysis(Map<PsiField, FieldInitialization> initializations) {
+        this(initializations, ImmutableList.<TargetConstructor>of());
+    }
+
+    public PsiFieldsAnalysis(Map<PsiField, FieldInitialization> initializations, List<TargetConstructor> constructors) {
+        this.initializations = ImmutableMap.copyOf(initializations);
+        this.constructors = ImmutableList.copyOf(constructors);
+    }
+
+    public List<PsiField> getFields() {
+        return initializations.keySet().asList();
+    }
+
+    public FieldInitialization getInitialization(PsiField psiField) {
+        return initializations.get(psiField);
+    }
+
+    public List<TargetConstructor> getConstructors() {
+        return constructors;
+    }
+}
@@ -0,0 +1,43 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+
+import java.util.Collection;
+import java.util.List;
+
+public class TargetConstructor {
+
+    private final ImmutableList<PsiField> fields;
+    private final String accessModifier;
+
+    public TargetConstructor(List<PsiField> fields, String accessModifier) {
+        this.fields = ImmutableList.copyOf(fields);
+        this.accessModifier = accessModifier;
+    }
+
+    public List<PsiField> getFields() {
+        return fields;
+    }
+
+    public boolean isAccessibleFrom(BuilderOptions options) {
+        if (PsiModifier.PUBLIC.equals(accessModifier)) {
+            return true;
+        }
+        if (PsiModifier.PRIVATE.equals(accessModifier)) {
+            return options.isInnerClass();
+        }
+        return options.isInnerClass() || options.isSamePackage();
+    }
+
+    public int countCovered(Collection<PsiField> psiFields) {
+        int count = 0;
+        for (PsiField psiField : fields) {
+            if (psiFields.contains(psiField)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,17 @@
+package pl.mjedynak.idea.plugins.builder.settings;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.Project;
+
+public class BuilderSyncSettings {
+
+    static final String SYNC_ENABLED_KEY = "pl.mjedynak.idea.plugins.builder.syncEnabled";
+
+    public boolean isEnabled(Project project) {
+        return PropertiesComponent.getInstance(project).isTrueValue(SYNC_ENABLED_KEY);
+    }
+
+    public void setEnabled(Project project, boolean enabled) {
+        PropertiesComponent.getInstance(project).setValue(SYNC_ENABLED_KEY, String.valueOf(enabled));
+    }
+}
@@ -1,16 +1,16 @@
 package pl.mjedynak.idea.plugins.builder.settings
 
+import com.intellij.openapi.project.Project
 import com.intellij.psi.codeStyle.CodeStyleSettingsManager
 import groovy.transform.CompileStatic
 
+import com.intellij.psi.codeStyle.CodeStyleSettings as IdeaCodeStyleSettings
+
 @CompileStatic
 class CodeStyleSettings {
 
-    String getFieldNamePrefix() {
-        CodeStyleSettingsManager.getInstance().getCurrentSettings().FIELD_NAME_PREFIX
-    }
-
-    String getParameterNamePrefix() {
-        CodeStyleSettingsManager.getInstance().getCurrentSettings().PARAMETER_NAME_PREFIX
+    NamingConvention getNamingConvention(Project project) {
+        IdeaCodeStyleSettings settings = CodeStyleSettingsManager.getSettings(project)
+        new NamingConvention(settings.FIELD_NAME_PREFIX, settings.FIELD_NAME_SUFFIX, settings.PARAMETER_NAME_PREFIX, settings.PARAMETER_NAME_SUFFIX)
     }
 }
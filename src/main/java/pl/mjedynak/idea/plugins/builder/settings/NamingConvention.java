@@ -0,0 +1,66 @@
+package pl.mjedynak.idea.plugins.builder.settings;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import static org.apache.commons.lang.StringUtils.defaultString;
+
+public final class NamingConvention {
+
+    public static final NamingConvention EMPTY = new NamingConvention(null, null, null, null);
+
+    private final String fieldNamePrefix;
+    private final String fieldNameSuffix;
+    private final String parameterNamePrefix;
+    private final String parameterNameSuffix;
+
+    public NamingConvention(String fieldNamePrefix, String fieldNameSuffix, String parameterNamePrefix, String parameterNameSuffix) {
+        this.fieldNamePrefix = defaultString(fieldNamePrefix);
+        this.fieldNameSuffix = defaultString(fieldNameSuffix);
+        this.parameterNamePrefix = defaultString(parameterNamePrefix);
+        this.parameterNameSuffix = defaultString(parameterNameSuffix);
+    }
+
+    public String getFieldNamePrefix() {
+        return fieldNamePrefix;
+    }
+
+    public String getFieldNameSuffix() {
+        return fieldNameSuffix;
+    }
+
+    public String getParameterNamePrefix() {
+        return parameterNamePrefix;
+    }
+
+    public String getParameterNameSuffix() {
+        return parameterNameSuffix;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof NamingConvention)) {
+            return false;
+        }
+        NamingConvention other = (NamingConvention) obj;
+        return new EqualsBuilder()
+                .append(fieldNamePrefix, other.fieldNamePrefix)
+                .append(fieldNameSuffix, other.fieldNameSuffix)
+                .append(parameterNamePrefix, other.parameterNamePrefix)
+                .append(parameterNameSuffix, other.parameterNameSuffix)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(fieldNamePrefix)
+                .append(fieldNameSuffix)
+                .append(parameterNamePrefix)
+                .append(parameterNameSuffix)
+                .toHashCode();
+    }
+}
@@ -0,0 +1,121 @@
+package pl.mjedynak.idea.plugins.builder.verifier;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+import pl.mjedynak.idea.plugins.builder.psi.PropertyNames;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+import pl.mjedynak.idea.plugins.builder.psi.model.TargetConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PsiClassMembersIndex {
+
+    private final PropertyNames propertyNames;
+    private final Set<String> nonPrivateMethodNames;
+    private final ConstructorAssignments constructorAssignments;
+    private final Map<String, List<PsiType>> constructorParameterTypes = new HashMap<String, List<PsiType>>();
+    private final Map<String, PsiField> fieldsByPropertyName = new HashMap<String, PsiField>();
+    private final List<TargetConstructor> targetConstructors = new ArrayList<TargetConstructor>();
+
+    public PsiClassMembersIndex(PsiClass psiClass, ClassHierarchySummary classHierarchySummary, ConstructorAssignments constructorAssignments,
+                                PropertyNames propertyNames) {
+        this.propertyNames = propertyNames;
+        this.nonPrivateMethodNames = classHierarchySummary.getNonPrivateMethodNames();
+        this.constructorAssignments = constructorAssignments;
+        for (PsiField psiField : classHierarchySummary.getFields()) {
+            fieldsByPropertyName.put(propertyNames.get(psiField).getPropertyName(), psiField);
+        }
+        indexConstructors(psiClass);
+    }
+
+    private void indexConstructors(PsiClass psiClass) {
+        PsiMethod[] constructors = psiClass.getConstructors();
+        if (constructors.length == 0) {
+            targetConstructors.add(new TargetConstructor(Collections.<PsiField>emptyList(), accessModifierOf(psiClass)));
+        }
+        for (PsiMethod constructor : constructors) {
+            List<PsiField> fields = new ArrayList<PsiField>();
+            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+                String propertyName = propertyNames.getPropertyNameOfParameter(parameter.getName());
+                typesForParameterName(propertyName).add(parameter.getType());
+                PsiField psiField = fieldOfParameter(parameter, propertyName);
+                if (fields != null && psiField != null && !fields.contains(psiField)) {
+                    fields.add(psiField);
+                } else {
+                    fields = null;
+                }
+            }
+            if (fields != null) {
+                targetConstructors.add(new TargetConstructor(fields, accessModifierOf(constructor)));
+            }
+        }
+    }
+
+    private String accessModifierOf(PsiModifierListOwner owner) {
+        for (String modifier : new String[]{PsiModifier.PUBLIC, PsiModifier.PROTECTED, PsiModifier.PRIVATE}) {
+            if (owner.hasModifierProperty(modifier)) {
+                return modifier;
+            }
+        }
+        return PsiModifier.PACKAGE_LOCAL;
+    }
+
+    private PsiField fieldOfParameter(PsiParameter parameter, String propertyName) {
+        PsiField psiField = constructorAssignments.getField(parameter);
+        if (psiField == null && !constructorAssignments.isAssignedToSeveralFields(parameter)) {
+            PsiField candidate = fieldsByPropertyName.get(propertyName);
+            if (candidate != null && !constructorAssignments.isAnalyzed(candidate) && parameter.getType().equals(candidate.getType())) {
+                psiField = candidate;
+            }
+        }
+        return psiField;
+    }
+
+    private List<PsiType> typesForParameterName(String parameterName) {
+        List<PsiType> types = constructorParameterTypes.get(parameterName);
+        if (types == null) {
+            types = new ArrayList<PsiType>();
+            constructorParameterTypes.put(parameterName, types);
+        }
+        return types;
+    }
+
+    public List<TargetConstructor> getTargetConstructors() {
+        return targetConstructors;
+    }
+
+    public boolean isSetInSetterMethod(PsiField psiField) {
+        return nonPrivateMethodNames.contains(propertyNames.get(psiField).getSetterName());
+    }
+
+    public boolean isSetInConstructor(PsiField psiField) {
+        if (constructorAssignments.isAssigned(psiField)) {
+            return true;
+        }
+        return !constructorAssignments.isAnalyzed(psiField) && hasConstructorParameterWithSameNameAndType(psiField);
+    }
+
+    private boolean hasConstructorParameterWithSameNameAndType(PsiField psiField) {
+        List<PsiType> types = constructorParameterTypes.get(propertyNames.get(psiField).getPropertyName());
+        return types != null && containsType(types, psiField.getType());
+    }
+
+    private boolean containsType(List<PsiType> types, PsiType fieldType) {
+        boolean result = false;
+        for (int i = 0; i < types.size() && !result; i++) {
+            result = types.get(i).equals(fieldType);
+        }
+        return result;
+    }
+}
@@ -2,87 +2,40 @@ package pl.mjedynak.idea.plugins.builder.verifier;
 
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifierList;
-import com.intellij.psi.PsiParameter;
-import com.intellij.psi.PsiParameterList;
-import org.apache.commons.lang.WordUtils;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
-
-import static org.apache.commons.lang.StringUtils.EMPTY;
+import pl.mjedynak.idea.plugins.builder.psi.PropertyNames;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+import pl.mjedynak.idea.plugins.builder.psi.model.TargetConstructor;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class PsiFieldVerifier {
 
-    static final String PRIVATE_MODIFIER = "private";
-    static final String SET_PREFIX = "set";
-
-    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
-
-    public boolean isSetInConstructor(PsiField psiField, PsiClass psiClass) {
-        boolean result = false;
-        PsiMethod[] constructors = psiClass.getConstructors();
-        for (int i = 0; i < constructors.length && !result; i++) {
-            result = checkConstructor(psiField, constructors[i]);
-        }
-        return result;
-    }
-
-    private boolean checkConstructor(PsiField psiField, PsiMethod constructor) {
-        PsiParameterList parameterList = constructor.getParameterList();
-        PsiParameter[] parameters = parameterList.getParameters();
-        return iterateOverParameters(psiField, parameters);
+    public PsiClassMembersIndex createIndex(PsiClass psiClass, ClassHierarchySummary classHierarchySummary, ConstructorAssignments constructorAssignments,
+                                            NamingConvention namingConvention) {
+        PropertyNames propertyNames = PropertyNames.of(classHierarchySummary.getFields(), namingConvention);
+        return new PsiClassMembersIndex(psiClass, classHierarchySummary, constructorAssignments, propertyNames);
     }
 
-    private boolean iterateOverParameters(PsiField psiField, PsiParameter[] parameters) {
-        boolean result = false;
-        for (int i = 0; i < parameters.length && !result; i++) {
-            result = checkParameter(psiField, parameters[i]);
-        }
-        return result;
-    }
-
-    private boolean checkParameter(PsiField psiField, PsiParameter parameter) {
-        boolean result = false;
-        if (areNameAndTypeEqual(psiField, parameter)) {
-            result = true;
-        }
-        return result;
-    }
-
-    private boolean areNameAndTypeEqual(PsiField psiField, PsiParameter parameter) {
-        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
-        String parameterName = parameter.getName();
-        String parameterNameWithoutPrefix = parameterName.replace(parameterNamePrefix, "");
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldName = psiField.getName();
-        String fieldNameWithoutPrefix = fieldName.replaceFirst(fieldNamePrefix, "");
-        return parameterNameWithoutPrefix.equals(fieldNameWithoutPrefix) && parameter.getType().equals(psiField.getType());
-    }
-
-    public boolean isSetInSetterMethod(PsiField psiField, PsiClass psiClass) {
-        boolean result = false;
-        for (PsiMethod method : psiClass.getAllMethods()) {
-            if (methodIsNotPrivate(method) && methodIsSetterWithProperName(psiField, method)) {
-                result = true;
-                break;
+    public TargetConstructor chooseConstructor(List<TargetConstructor> constructors, Collection<PsiField> selectedFields, BuilderOptions options) {
+        Set<PsiField> selected = new HashSet<PsiField>(selectedFields);
+        TargetConstructor result = null;
+        int resultCovered = -1;
+        for (TargetConstructor constructor : constructors) {
+            if (!constructor.isAccessibleFrom(options)) {
+                continue;
+            }
+            int covered = constructor.countCovered(selected);
+            if (covered > resultCovered || covered == resultCovered && constructor.getFields().size() < result.getFields().size()) {
+                result = constructor;
+                resultCovered = covered;
             }
         }
         return result;
     }
-
-    private boolean methodIsNotPrivate(PsiMethod method) {
-        PsiModifierList modifierList = method.getModifierList();
-        return modifierListHasNoPrivateModifier(modifierList);
-    }
-
-    private boolean methodIsSetterWithProperName(PsiField psiField, PsiMethod method) {
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldNameWithoutPrefix = psiField.getName().replace(fieldNamePrefix, EMPTY);
-        return method.getName().equals(SET_PREFIX + WordUtils.capitalize(fieldNameWithoutPrefix));
-    }
-
-    private boolean modifierListHasNoPrivateModifier(PsiModifierList modifierList) {
-        return !modifierList.hasExplicitModifier(PRIVATE_MODIFIER);
-    }
-
 }
@@ -0,0 +1,43 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+
+import java.util.Map;
+
+public class BuilderUpdateRunnable implements Runnable {
+
+    private BuilderUpdater builderUpdater;
+    private Project project;
+    private Map<PsiClass, BuilderDiff> builderDiffs;
+    private PsiHelper psiHelper;
+
+    public BuilderUpdateRunnable(BuilderUpdater builderUpdater, Project project, Map<PsiClass, BuilderDiff> builderDiffs, PsiHelper psiHelper) {
+        this.builderUpdater = builderUpdater;
+        this.project = project;
+        this.builderDiffs = builderDiffs;
+        this.psiHelper = psiHelper;
+    }
+
+    @Override
+    public void run() {
+        final Application application = psiHelper.getApplication();
+        application.runWriteAction(new Runnable() {
+            @Override
+            public void run() {
+                for (Map.Entry<PsiClass, BuilderDiff> builderDiff : builderDiffs.entrySet()) {
+                    try {
+                        builderUpdater.update(project, builderDiff.getKey(), builderDiff.getValue());
+                    } catch (IncorrectOperationException e) {
+                        application.invokeLater(new BuilderWriterErrorRunnable(project, builderDiff.getKey().getName()));
+                    }
+                }
+            }
+        });
+    }
+}
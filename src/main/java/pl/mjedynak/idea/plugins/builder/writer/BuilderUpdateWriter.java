@@ -0,0 +1,32 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class BuilderUpdateWriter {
+
+    static final String UPDATE_BUILDER_STRING = "Update Builder";
+    private BuilderUpdater builderUpdater;
+    private PsiHelper psiHelper;
+
+    public BuilderUpdateWriter(BuilderUpdater builderUpdater, PsiHelper psiHelper) {
+        this.builderUpdater = builderUpdater;
+        this.psiHelper = psiHelper;
+    }
+
+    public void writeUpdate(Project project, PsiClass builderClass, BuilderDiff builderDiff) {
+        writeUpdates(project, Collections.singletonMap(builderClass, builderDiff));
+    }
+
+    public void writeUpdates(Project project, Map<PsiClass, BuilderDiff> builderDiffs) {
+        CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
+        commandProcessor.executeCommand(project, new BuilderUpdateRunnable(builderUpdater, project, builderDiffs, psiHelper), UPDATE_BUILDER_STRING, this);
+    }
+}
@@ -5,27 +5,55 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class BuilderWriter {
 
     static final String CREATE_BUILDER_STRING = "Create Builder";
-    private BuilderPsiClassBuilder builderPsiClassBuilder;
+    static final String CREATE_BUILDERS_STRING = "Create Builders";
+    private BuilderFileCreator builderFileCreator;
+    private InnerBuilderCreator innerBuilderCreator;
     private PsiHelper psiHelper;
     private GuiHelper guiHelper;
 
-    public BuilderWriter(BuilderPsiClassBuilder builderPsiClassBuilder, PsiHelper psiHelper, GuiHelper guiHelper) {
-        this.builderPsiClassBuilder = builderPsiClassBuilder;
+    public BuilderWriter(BuilderFileCreator builderFileCreator, InnerBuilderCreator innerBuilderCreator, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.builderFileCreator = builderFileCreator;
+        this.innerBuilderCreator = innerBuilderCreator;
         this.psiHelper = psiHelper;
         this.guiHelper = guiHelper;
     }
 
-    public void writeBuilder(Project project, PsiFieldsForBuilder psiFieldsForBuilder, PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor, String methodPrefix) {
+    public void writeBuilder(Project project, BuilderSpec builderSpec, PsiDirectory targetDirectory) {
+        writeBuilder(project, builderSpec, null, targetDirectory);
+    }
+
+    public void writeBuilder(Project project, BuilderSpec builderSpec, String builderText, PsiDirectory targetDirectory) {
+        CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
+        commandProcessor.executeCommand(project,
+                new BuilderWriterRunnable(builderFileCreator, project, builderSpec, builderText, targetDirectory, psiHelper, guiHelper),
+                CREATE_BUILDER_STRING, this);
+    }
+
+    public void writeInnerBuilder(Project project, BuilderSpec builderSpec, String builderText, PsiClass srcClass) {
         CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
         commandProcessor.executeCommand(project,
-                new BuilderWriterRunnable(builderPsiClassBuilder, project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, psiHelper, guiHelper, methodPrefix),
+                new InnerBuilderWriterRunnable(innerBuilderCreator, project, builderSpec, builderText, srcClass, psiHelper, guiHelper),
                 CREATE_BUILDER_STRING, this);
     }
+
+    public List<String> writeBuilders(Project project, List<BuilderTarget> builderTargets, Object groupId) {
+        List<String> failedClassNames = new ArrayList<String>();
+        CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
+        commandProcessor.executeCommand(project,
+                new BulkBuilderWriterRunnable(builderFileCreator, project, builderTargets, psiHelper, failedClassNames),
+                CREATE_BUILDERS_STRING, groupId);
+        return failedClassNames;
+    }
 }
@@ -8,65 +8,52 @@ import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.IncorrectOperationException;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
 
 public class BuilderWriterComputable implements Computable<PsiElement> {
 
-    private BuilderPsiClassBuilder builderPsiClassBuilder;
+    private BuilderFileCreator builderFileCreator;
     private Project project;
-    private PsiFieldsForBuilder psiFieldsForBuilder;
+    private BuilderSpec builderSpec;
+    private String builderText;
     private PsiDirectory targetDirectory;
-    private String className;
-    private PsiClass psiClassFromEditor;
     private GuiHelper guiHelper;
     private PsiHelper psiHelper;
-    private String methodPrefix;
 
-    public BuilderWriterComputable(BuilderPsiClassBuilder builderPsiClassBuilder, Project project, PsiFieldsForBuilder psiFieldsForBuilder,
-                                   PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor, PsiHelper psiHelper, GuiHelper guiHelper,
-                                   String methodPrefix) {
-        this.builderPsiClassBuilder = builderPsiClassBuilder;
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BuilderWriterComputable(BuilderFileCreator builderFileCreator, Project project, BuilderSpec builderSpec, String builderText,
+                                 PsiDirectory targetDirectory, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.builderFileCreator = builderFileCreator;
         this.project = project;
-        this.psiFieldsForBuilder = psiFieldsForBuilder;
+        this.builderSpec = builderSpec;
+        this.builderText = builderText;
         this.targetDirectory = targetDirectory;
-        this.className = className;
-        this.psiClassFromEditor = psiClassFromEditor;
         this.psiHelper = psiHelper;
         this.guiHelper = guiHelper;
-        this.methodPrefix = methodPrefix;
     }
 
     @Override
     public PsiElement compute() {
-        return createBuilder(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix);
+        return createBuilder(project, builderSpec, targetDirectory);
     }
 
-    private PsiElement createBuilder(Project project, PsiFieldsForBuilder psiFieldsForBuilder, PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor, String methodPrefix) {
+    private PsiElement createBuilder(Project project, BuilderSpec builderSpec, PsiDirectory targetDirectory) {
         try {
             guiHelper.includeCurrentPlaceAsChangePlace(project);
-            PsiClass targetClass = getBuilderPsiClass(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix);
+            PsiClass targetClass = builderText != null
+                    ? builderFileCreator.createBuilder(project, targetDirectory, builderSpec, builderText)
+                    : builderFileCreator.createBuilder(project, targetDirectory, builderSpec);
             navigateToClassAndPositionCursor(project, targetClass);
             return targetClass;
         } catch (IncorrectOperationException e) {
-            showErrorMessage(project, className);
+            showErrorMessage(project, builderSpec.getBuilderClassName());
             e.printStackTrace();
             return null;
         }
     }
 
-    private PsiClass getBuilderPsiClass(Project project, PsiFieldsForBuilder psiFieldsForBuilder, PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor, String methodPrefix) {
-        BuilderPsiClassBuilder builder =
-				builderPsiClassBuilder.aBuilder(project, targetDirectory, psiClassFromEditor, className, psiFieldsForBuilder)
-                .withFields()
-                .withPrivateConstructor()
-                .withInitializingMethod()
-                .withSetMethods(methodPrefix)
-                .withButMethod();
-        return builder.build();
-    }
-
     private void navigateToClassAndPositionCursor(Project project, PsiClass targetClass) {
         guiHelper.positionCursor(project, targetClass.getContainingFile(), targetClass.getLBrace());
     }
@@ -75,4 +62,4 @@ public class BuilderWriterComputable implements Computable<PsiElement> {
         Application application = psiHelper.getApplication();
         application.invokeLater(new BuilderWriterErrorRunnable(project, className));
     }
-}
\ No newline at end of file
+}
@@ -2,41 +2,38 @@ package pl.mjedynak.idea.plugins.builder.writer;
 
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
 
 public class BuilderWriterRunnable implements Runnable {
 
-    private BuilderPsiClassBuilder builderPsiClassBuilder;
+    private BuilderFileCreator builderFileCreator;
     private Project project;
-    private PsiFieldsForBuilder psiFieldsForBuilder;
+    private BuilderSpec builderSpec;
+    private String builderText;
     private PsiDirectory targetDirectory;
-    private String className;
-    private PsiClass psiClassFromEditor;
     private PsiHelper psiHelper;
     private GuiHelper guiHelper;
-    private String methodPrefix;
 
-    public BuilderWriterRunnable(BuilderPsiClassBuilder builderPsiClassBuilder, Project project, PsiFieldsForBuilder psiFieldsForBuilder,
-                                 PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor, PsiHelper psiHelper, GuiHelper guiHelper, String methodPrefix) {
-        this.builderPsiClassBuilder = builderPsiClassBuilder;
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BuilderWriterRunnable(BuilderFileCreator builderFileCreator, Project project, BuilderSpec builderSpec, String builderText,
+                                 PsiDirectory targetDirectory, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.builderFileCreator = builderFileCreator;
         this.project = project;
-        this.psiFieldsForBuilder = psiFieldsForBuilder;
+        this.builderSpec = builderSpec;
+        this.builderText = builderText;
         this.targetDirectory = targetDirectory;
-        this.className = className;
-        this.psiClassFromEditor = psiClassFromEditor;
         this.psiHelper = psiHelper;
         this.guiHelper = guiHelper;
-        this.methodPrefix = methodPrefix;
     }
 
     @Override
     public void run() {
         Application application = psiHelper.getApplication();
-        application.runWriteAction(new BuilderWriterComputable(builderPsiClassBuilder, project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, psiHelper, guiHelper, methodPrefix));
+        application.runWriteAction(new BuilderWriterComputable(builderFileCreator, project, builderSpec, builderText, targetDirectory, psiHelper,
+                guiHelper));
     }
-}
\ No newline at end of file
+}
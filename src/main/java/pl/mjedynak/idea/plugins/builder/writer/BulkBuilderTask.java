@@ -0,0 +1,157 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BulkBuilderAnalyzer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BulkBuilderTask extends Task.Backgroundable {
+
+    static final String TITLE = "Creating Builders";
+    static final int WRITE_BATCH_SIZE = 20;
+
+    private PsiElement[] elements;
+    private BulkBuilderAnalyzer bulkBuilderAnalyzer;
+    private BuilderWriter builderWriter;
+    private PsiHelper psiHelper;
+    private GuiHelper guiHelper;
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public BulkBuilderTask(Project project, PsiElement[] elements, BulkBuilderAnalyzer bulkBuilderAnalyzer, BuilderWriter builderWriter,
+                           PsiHelper psiHelper, GuiHelper guiHelper) {
+        super(project, TITLE, true);
+        this.elements = elements;
+        this.bulkBuilderAnalyzer = bulkBuilderAnalyzer;
+        this.builderWriter = builderWriter;
+        this.psiHelper = psiHelper;
+        this.guiHelper = guiHelper;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        Application application = psiHelper.getApplication();
+        indicator.setIndeterminate(true);
+        List<PsiClass> classes = application.runReadAction(new Computable<List<PsiClass>>() {
+            @Override
+            public List<PsiClass> compute() {
+                return bulkBuilderAnalyzer.collectClasses(elements);
+            }
+        });
+        indicator.setIndeterminate(false);
+        List<BuilderTarget> targets = analyze(indicator, application, classes);
+        List<BuilderTarget> skipped = new ArrayList<BuilderTarget>();
+        List<BuilderTarget> toWrite = new ArrayList<BuilderTarget>();
+        for (BuilderTarget target : targets) {
+            (target.isSkipped() ? skipped : toWrite).add(target);
+        }
+        List<String> failedClassNames = write(indicator, application, toWrite);
+        showSummary(application, toWrite.size() - failedClassNames.size(), skipped, failedClassNames);
+    }
+
+    List<BuilderTarget> analyze(final ProgressIndicator indicator, final Application application, List<PsiClass> classes) {
+        final NamingConvention namingConvention = codeStyleSettings.getNamingConvention(myProject);
+        final Map<PsiClass, BuilderTarget> results = new ConcurrentHashMap<PsiClass, BuilderTarget>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(classes, indicator, true, new Processor<PsiClass>() {
+            @Override
+            public boolean process(PsiClass psiClass) {
+                BuilderTarget target = analyzeInReadAction(indicator, application, psiClass, namingConvention);
+                if (target != null) {
+                    results.put(psiClass, target);
+                }
+                return true;
+            }
+        });
+        List<BuilderTarget> targets = new ArrayList<BuilderTarget>(results.size());
+        for (PsiClass psiClass : classes) {
+            if (results.containsKey(psiClass)) {
+                targets.add(results.get(psiClass));
+            }
+        }
+        return targets;
+    }
+
+    private BuilderTarget analyzeInReadAction(ProgressIndicator indicator, Application application, final PsiClass psiClass,
+                                              final NamingConvention namingConvention) {
+        final BuilderTarget[] result = new BuilderTarget[1];
+        boolean completed = false;
+        while (!completed) {
+            indicator.checkCanceled();
+            completed = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(new Runnable() {
+                @Override
+                public void run() {
+                    result[0] = psiClass.isValid() ? bulkBuilderAnalyzer.analyze(psiClass, namingConvention) : null;
+                }
+            });
+            if (!completed) {
+                application.runReadAction(EmptyRunnable.getInstance());
+            }
+        }
+        return result[0];
+    }
+
+    List<String> write(ProgressIndicator indicator, Application application, List<BuilderTarget> targets) {
+        final List<String> failedClassNames = new ArrayList<String>();
+        final Object groupId = new Object();
+        for (int from = 0; from < targets.size(); from += WRITE_BATCH_SIZE) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) from / targets.size());
+            final List<BuilderTarget> batch = targets.subList(from, Math.min(from + WRITE_BATCH_SIZE, targets.size()));
+            application.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    failedClassNames.addAll(builderWriter.writeBuilders(myProject, batch, groupId));
+                }
+            }, ModalityState.NON_MODAL);
+        }
+        return failedClassNames;
+    }
+
+    private void showSummary(Application application, int createdCount, List<BuilderTarget> skipped, List<String> failedClassNames) {
+        final String summary = createSummary(createdCount, skipped, failedClassNames);
+        application.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                guiHelper.showMessageDialog(myProject, summary, TITLE, Messages.getInformationIcon());
+            }
+        }, ModalityState.NON_MODAL);
+    }
+
+    String createSummary(int createdCount, List<BuilderTarget> skipped, List<String> failedClassNames) {
+        StringBuilder summary = new StringBuilder("Created builders: ").append(createdCount);
+        if (!skipped.isEmpty()) {
+            summary.append("\n\nSkipped classes:");
+            for (BuilderTarget target : skipped) {
+                summary.append("\n").append(target.getClassName()).append(" - ").append(target.getSkipReason());
+            }
+        }
+        if (!failedClassNames.isEmpty()) {
+            summary.append("\n\nFailed to create builders for:");
+            for (String className : failedClassNames) {
+                summary.append("\n").append(className);
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+
+import java.util.List;
+
+public class BulkBuilderWriterRunnable implements Runnable {
+
+    private BuilderFileCreator builderFileCreator;
+    private Project project;
+    private List<BuilderTarget> builderTargets;
+    private PsiHelper psiHelper;
+    private List<String> failedClassNames;
+
+    public BulkBuilderWriterRunnable(BuilderFileCreator builderFileCreator, Project project, List<BuilderTarget> builderTargets, PsiHelper psiHelper,
+                                     List<String> failedClassNames) {
+        this.builderFileCreator = builderFileCreator;
+        this.project = project;
+        this.builderTargets = builderTargets;
+        this.psiHelper = psiHelper;
+        this.failedClassNames = failedClassNames;
+    }
+
+    @Override
+    public void run() {
+        Application application = psiHelper.getApplication();
+        application.runWriteAction(new Runnable() {
+            @Override
+            public void run() {
+                for (BuilderTarget builderTarget : builderTargets) {
+                    createBuilder(builderTarget);
+                }
+            }
+        });
+    }
+
+    private void createBuilder(BuilderTarget builderTarget) {
+        try {
+            if (builderTarget.getTargetDirectory().isValid()) {
+                builderFileCreator.createBuilder(project, builderTarget.getTargetDirectory(), builderTarget.getBuilderSpec());
+            } else {
+                failedClassNames.add(builderTarget.getClassName());
+            }
+        } catch (IncorrectOperationException e) {
+            failedClassNames.add(builderTarget.getClassName());
+        }
+    }
+}
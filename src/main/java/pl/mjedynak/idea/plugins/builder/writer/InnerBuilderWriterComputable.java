@@ -0,0 +1,51 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+public class InnerBuilderWriterComputable implements Computable<PsiElement> {
+
+    private InnerBuilderCreator innerBuilderCreator;
+    private Project project;
+    private BuilderSpec builderSpec;
+    private String builderText;
+    private PsiClass srcClass;
+    private PsiHelper psiHelper;
+    private GuiHelper guiHelper;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public InnerBuilderWriterComputable(InnerBuilderCreator innerBuilderCreator, Project project, BuilderSpec builderSpec, String builderText,
+                                        PsiClass srcClass, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.innerBuilderCreator = innerBuilderCreator;
+        this.project = project;
+        this.builderSpec = builderSpec;
+        this.builderText = builderText;
+        this.srcClass = srcClass;
+        this.psiHelper = psiHelper;
+        this.guiHelper = guiHelper;
+    }
+
+    @Override
+    public PsiElement compute() {
+        try {
+            guiHelper.includeCurrentPlaceAsChangePlace(project);
+            PsiClass builderClass = builderText != null
+                    ? innerBuilderCreator.createInnerBuilder(project, srcClass, builderSpec, builderText)
+                    : innerBuilderCreator.createInnerBuilder(project, srcClass, builderSpec);
+            guiHelper.positionCursor(project, builderClass.getContainingFile(), builderClass.getLBrace());
+            return builderClass;
+        } catch (IncorrectOperationException e) {
+            Application application = psiHelper.getApplication();
+            application.invokeLater(new BuilderWriterErrorRunnable(project, builderSpec.getBuilderClassName()));
+            return null;
+        }
+    }
+}
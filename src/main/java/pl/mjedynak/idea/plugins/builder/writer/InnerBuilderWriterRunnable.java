@@ -0,0 +1,39 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+public class InnerBuilderWriterRunnable implements Runnable {
+
+    private InnerBuilderCreator innerBuilderCreator;
+    private Project project;
+    private BuilderSpec builderSpec;
+    private String builderText;
+    private PsiClass srcClass;
+    private PsiHelper psiHelper;
+    private GuiHelper guiHelper;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public InnerBuilderWriterRunnable(InnerBuilderCreator innerBuilderCreator, Project project, BuilderSpec builderSpec, String builderText,
+                                      PsiClass srcClass, PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.innerBuilderCreator = innerBuilderCreator;
+        this.project = project;
+        this.builderSpec = builderSpec;
+        this.builderText = builderText;
+        this.srcClass = srcClass;
+        this.psiHelper = psiHelper;
+        this.guiHelper = guiHelper;
+    }
+
+    @Override
+    public void run() {
+        Application application = psiHelper.getApplication();
+        application.runWriteAction(new InnerBuilderWriterComputable(innerBuilderCreator, project, builderSpec, builderText, srcClass, psiHelper,
+                guiHelper));
+    }
+}
@@ -0,0 +1,22 @@
+package pl.mjedynak.idea.plugins.builder;
+
+import java.lang.ref.Reference;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public final class GarbageCollectionAssert {
+
+    private static final int GC_ATTEMPTS = 20;
+
+    private GarbageCollectionAssert() {
+    }
+
+    public static void assertGarbageCollected(Reference<?> reference) {
+        for (int i = 0; i < GC_ATTEMPTS && reference.get() != null; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        assertThat(reference.get(), nullValue());
+    }
+}
@@ -1,82 +1,112 @@
 package pl.mjedynak.idea.plugins.builder.action.handler;
 
-import com.intellij.codeInsight.generation.PsiElementClassMember;
-import com.intellij.ide.util.MemberChooser;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiPackage;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
 import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
-import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.FieldChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsAnalysisTaskFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
-import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
 import pl.mjedynak.idea.plugins.builder.gui.CreateBuilderDialog;
-import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.gui.FieldChooserDialog;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsAnalysisTask;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static pl.mjedynak.idea.plugins.builder.GarbageCollectionAssert.assertGarbageCollected;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DisplayChoosersRunnableTest {
 
-    @InjectMocks private DisplayChoosersRunnable displayChoosersRunnable;
+    @InjectMocks private DisplayChoosersRunnable sharedDisplayChoosersRunnable;
     @Mock private PsiClass psiClassFromEditor;
     @Mock private Project project;
     @Mock private Editor editor;
     @Mock private PsiHelper psiHelper;
-    @Mock private PsiManagerFactory psiManagerFactory;
     @Mock private CreateBuilderDialogFactory createBuilderDialogFactory;
-    @Mock private GuiHelper guiHelper;
-    @Mock private ReferenceEditorComboWithBrowseButtonFactory referenceEditorComboWithBrowseButtonFactory;
-    @Mock private PsiFieldSelector psiFieldSelector;
-    @Mock private MemberChooserDialogFactory memberChooserDialogFactory;
+    @Mock private FieldChooserDialogFactory fieldChooserDialogFactory;
     @Mock private BuilderWriter builderWriter;
     @Mock private PsiFile psiFile;
     @Mock private PsiDirectory psiDirectory;
     @Mock private PsiPackage psiPackage;
-    @Mock private PsiManager psiManager;
     @Mock private CreateBuilderDialog createBuilderDialog;
-    @Mock private MemberChooser memberChooserDialog;
+    @Mock private FieldChooserDialog fieldChooserDialog;
     @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
     @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+    @Mock private PsiFieldsAnalysisTaskFactory psiFieldsAnalysisTaskFactory;
+    @Mock private PsiFieldsAnalysisTask psiFieldsAnalysisTask;
+    @Mock private ProgressManager progressManager;
+    @Mock private CodeStyleSettings codeStyleSettings;
+    @Mock private BuilderSpecFactory builderSpecFactory;
+    @Mock private BuilderSpec builderSpec;
+    @Mock private BuilderSpec previewBuilderSpec;
 
     private String className = "className";
 
-    private PsiField[] allFields = {};
+    private NamingConvention namingConvention = new NamingConvention("m_", "", "p_", "");
 
-    private List<PsiElementClassMember> selectedFields = new ArrayList<PsiElementClassMember>();
+    private List<PsiField> selectedFields = new ArrayList<PsiField>();
+
+    private DisplayChoosersRunnable displayChoosersRunnable;
 
     @Before
     public void setUp() {
-        displayChoosersRunnable.setEditor(editor);
-        displayChoosersRunnable.setProject(project);
-        displayChoosersRunnable.setPsiClassFromEditor(psiClassFromEditor);
+        setField(sharedDisplayChoosersRunnable, "codeStyleSettings", codeStyleSettings);
+        displayChoosersRunnable = sharedDisplayChoosersRunnable.forClass(editor, project, psiClassFromEditor);
+        given(codeStyleSettings.getNamingConvention(project)).willReturn(namingConvention);
         given(psiHelper.getPsiFileFromEditor(editor, project)).willReturn(psiFile);
         given(psiFile.getContainingDirectory()).willReturn(psiDirectory);
         given(psiHelper.getPackage(psiDirectory)).willReturn(psiPackage);
-        given(psiManagerFactory.getPsiManager(project)).willReturn(psiManager);
+        given(psiHelper.getProgressManager()).willReturn(progressManager);
         given(psiClassFromEditor.getName()).willReturn(className);
-        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedFields, psiClassFromEditor)).willReturn(psiFieldsForBuilder);
         given(createBuilderDialogFactory.createBuilderDialog(psiClassFromEditor, project, psiPackage)).willReturn(createBuilderDialog);
+        given(fieldChooserDialogFactory.createFieldChooserDialog(eq(project), any(BuilderPreviewContext.class))).willReturn(fieldChooserDialog);
+        given(psiFieldsAnalysisTaskFactory.createPsiFieldsAnalysisTask(project, psiClassFromEditor, namingConvention, fieldChooserDialog))
+                .willReturn(psiFieldsAnalysisTask);
+        given(fieldChooserDialog.getSelectedFields()).willReturn(selectedFields);
+        given(fieldChooserDialog.getPsiFieldsAnalysis()).willReturn(psiFieldsAnalysis);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(eq(selectedFields), eq(psiFieldsAnalysis), any(BuilderOptions.class)))
+                .willReturn(psiFieldsForBuilder);
+        given(builderSpec.withOptions(any(BuilderOptions.class))).willReturn(builderSpec);
     }
 
     @Test
@@ -87,54 +117,170 @@ public class DisplayChoosersRunnableTest {
         displayChoosersRunnable.run();
         // then
         verify(createBuilderDialog).show();
-        verifyZeroInteractions(psiFieldSelector, memberChooserDialogFactory, builderWriter);
+        verifyZeroInteractions(fieldChooserDialogFactory, builderWriter, psiFieldsAnalysisTaskFactory);
     }
 
+    @Test
+    public void shouldStartFieldsAnalysisInBackgroundBeforeShowingFieldChooserDialog() {
+        // given
+        given(createBuilderDialog.isOK()).willReturn(true);
+
+        // when
+        displayChoosersRunnable.run();
+
+        // then
+        InOrder inOrder = inOrder(progressManager, fieldChooserDialog);
+        inOrder.verify(progressManager).run(psiFieldsAnalysisTask);
+        inOrder.verify(fieldChooserDialog).show();
+    }
 
-    @SuppressWarnings("unchecked")
     @Test
-    public void shouldNotWriteBuilderWhenOkNotSelectedFromMemberChooserDialog() {
+    public void shouldNotWriteBuilderWhenOkNotSelectedFromFieldChooserDialog() {
         // given
         given(createBuilderDialog.isOK()).willReturn(true);
-        given(memberChooserDialog.isOK()).willReturn(false);
+        given(fieldChooserDialog.isOK()).willReturn(false);
         given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
         given(createBuilderDialog.getClassName()).willReturn(className);
-        given(psiClassFromEditor.getAllFields()).willReturn(allFields);
-        given(memberChooserDialogFactory.getMemberChooserDialog(selectedFields, project)).willReturn(memberChooserDialog);
 
         // when
         displayChoosersRunnable.run();
 
         // then
         verify(createBuilderDialog).isOK();
-        verify(memberChooserDialog).isOK();
+        verify(fieldChooserDialog).isOK();
         verify(createBuilderDialog).show();
         verifyZeroInteractions(builderWriter);
     }
 
-    @SuppressWarnings("unchecked")
     @Test
-    public void shouldDisplayCreateBuilderAndMemberChooserDialogAndWriteBuilderWhenOKSelectedFromBothWindows() {
+    public void shouldDisplayCreateBuilderAndFieldChooserDialogAndWriteBuilderWhenOKSelectedFromBothWindows() {
         // given
-        String methodPrefix = "with";
         given(createBuilderDialog.isOK()).willReturn(true);
-        given(memberChooserDialog.isOK()).willReturn(true);
+        given(fieldChooserDialog.isOK()).willReturn(true);
         given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
         given(createBuilderDialog.getClassName()).willReturn(className);
-        given(createBuilderDialog.getMethodPrefix()).willReturn(methodPrefix);
-        given(psiClassFromEditor.getAllFields()).willReturn(allFields);
-        given(memberChooserDialogFactory.getMemberChooserDialog(selectedFields, project)).willReturn(memberChooserDialog);
-        given(psiFieldSelector.selectFieldsToIncludeInBuilder(psiClassFromEditor)).willReturn(selectedFields);
-        given(memberChooserDialog.getSelectedElements()).willReturn(selectedFields);
+        given(builderSpecFactory.createBuilderSpec(psiDirectory, className, psiClassFromEditor, psiFieldsForBuilder, namingConvention)).willReturn(builderSpec);
 
         // when
         displayChoosersRunnable.run();
 
         // then
         verify(createBuilderDialog).isOK();
-        verify(memberChooserDialog).isOK();
+        verify(fieldChooserDialog).isOK();
+        verify(createBuilderDialog).show();
+        verify(fieldChooserDialog).show();
+        verify(builderWriter).writeBuilder(project, builderSpec, psiDirectory);
+    }
+
+    @Test
+    public void shouldWriteAlreadyRenderedPreviewWhenItMatchesSelection() {
+        // given
+        given(createBuilderDialog.isOK()).willReturn(true);
+        given(fieldChooserDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
+        given(createBuilderDialog.getClassName()).willReturn(className);
+        given(psiHelper.getModificationCount(project)).willReturn(5L);
+        given(fieldChooserDialog.getBuilderPreview()).willReturn(new BuilderPreview(previewBuilderSpec, "text", selectedFields, 5L));
+
+        // when
+        displayChoosersRunnable.run();
+
+        // then
+        verify(builderWriter).writeBuilder(project, previewBuilderSpec, "text", psiDirectory);
+        verifyZeroInteractions(builderSpecFactory);
+    }
+
+    @Test
+    public void shouldRenderBuilderAgainWhenPsiChangedSincePreview() {
+        // given
+        given(createBuilderDialog.isOK()).willReturn(true);
+        given(fieldChooserDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
+        given(createBuilderDialog.getClassName()).willReturn(className);
+        given(psiHelper.getModificationCount(project)).willReturn(6L);
+        given(fieldChooserDialog.getBuilderPreview()).willReturn(new BuilderPreview(previewBuilderSpec, "text", selectedFields, 5L));
+        given(builderSpecFactory.createBuilderSpec(psiDirectory, className, psiClassFromEditor, psiFieldsForBuilder, namingConvention)).willReturn(builderSpec);
+
+        // when
+        displayChoosersRunnable.run();
+
+        // then
+        verify(builderWriter).writeBuilder(project, builderSpec, psiDirectory);
+    }
+
+    @Test
+    public void shouldWriteInnerBuilderIntoSourceClassWhenInnerBuilderSelected() {
+        // given
+        BuilderSpec innerBuilderSpec = mock(BuilderSpec.class);
+        given(createBuilderDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.isInnerBuilder()).willReturn(true);
+        given(fieldChooserDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
+        given(createBuilderDialog.getClassName()).willReturn(className);
+        given(builderSpecFactory.createBuilderSpec(psiDirectory, className, psiClassFromEditor, psiFieldsForBuilder, namingConvention)).willReturn(builderSpec);
+        given(builderSpec.withOptions(any(BuilderOptions.class))).willReturn(innerBuilderSpec);
+
+        // when
+        displayChoosersRunnable.run();
+
+        // then
+        verify(builderWriter).writeInnerBuilder(project, innerBuilderSpec, null, psiClassFromEditor);
+        verify(builderWriter, never()).writeBuilder(project, builderSpec, psiDirectory);
+    }
+
+    @Test
+    public void shouldPassImmutableTargetOptionToFieldsForBuilderFactory() {
+        // given
+        given(createBuilderDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.isImmutableTarget()).willReturn(true);
+        given(psiPackage.getQualifiedName()).willReturn("pl.mjedynak");
+        given(fieldChooserDialog.isOK()).willReturn(true);
+        given(createBuilderDialog.getTargetDirectory()).willReturn(psiDirectory);
+        given(createBuilderDialog.getClassName()).willReturn(className);
+        given(builderSpecFactory.createBuilderSpec(psiDirectory, className, psiClassFromEditor, psiFieldsForBuilder, namingConvention)).willReturn(builderSpec);
+
+        // when
+        displayChoosersRunnable.run();
+
+        // then
+        ArgumentCaptor<BuilderOptions> options = ArgumentCaptor.forClass(BuilderOptions.class);
+        verify(psiFieldsForBuilderFactory).createPsiFieldsForBuilder(eq(selectedFields), eq(psiFieldsAnalysis), options.capture());
+        assertThat(options.getValue().isImmutableTarget(), is(true));
+        assertThat(options.getValue().isSamePackage(), is(true));
+        verify(builderWriter).writeBuilder(project, builderSpec, psiDirectory);
+    }
+
+    @Test
+    public void shouldNotRetainProjectWhenPopupIsDismissedWithoutChoosing() {
+        // given
+        WeakReference<Project> projectReference = openPopupInNewProject();
+
+        // then
+        assertGarbageCollected(projectReference);
+    }
+
+    @Test
+    public void shouldNotRetainProjectAfterChoosersWereShown() {
+        // given
+        WeakReference<Project> projectReference = showChoosersInNewProject();
+
+        // then
+        assertGarbageCollected(projectReference);
+    }
+
+    private WeakReference<Project> openPopupInNewProject() {
+        Project newProject = mock(Project.class);
+        sharedDisplayChoosersRunnable.forClass(editor, newProject, psiClassFromEditor);
+        return new WeakReference<Project>(newProject);
+    }
+
+    private WeakReference<Project> showChoosersInNewProject() {
+        Project newProject = mock(Project.class);
+        given(psiHelper.getPsiFileFromEditor(editor, newProject)).willReturn(psiFile);
+        given(createBuilderDialogFactory.createBuilderDialog(psiClassFromEditor, newProject, psiPackage)).willReturn(createBuilderDialog);
+        sharedDisplayChoosersRunnable.forClass(editor, newProject, psiClassFromEditor).run();
         verify(createBuilderDialog).show();
-        verify(memberChooserDialog).show();
-        verify(builderWriter).writeBuilder(project, psiFieldsForBuilder, psiDirectory, className, psiClassFromEditor, methodPrefix);
+        reset(psiHelper, createBuilderDialogFactory);
+        return new WeakReference<Project>(newProject);
     }
 }
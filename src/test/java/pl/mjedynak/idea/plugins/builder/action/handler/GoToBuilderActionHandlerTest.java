@@ -20,6 +20,7 @@ import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 import javax.swing.JList;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -80,12 +81,14 @@ public class GoToBuilderActionHandlerTest {
         given(builderVerifier.isBuilder(psiClass)).willReturn(false);
         given(builderFinder.findBuilderForClass(psiClass)).willReturn(null);
         given(popupListFactory.getPopupList()).willReturn(list);
+        DisplayChoosersRunnable displayChoosersRunnableForClass = mock(DisplayChoosersRunnable.class);
+        given(displayChoosersRunnable.forClass(editor, project, psiClass)).willReturn(displayChoosersRunnableForClass);
 
         // when
         goToBuilderActionHandler.execute(editor, dataContext);
 
         // then
-        verify(popupDisplayer).displayPopupChooser(editor, list, displayChoosersRunnable);
+        verify(popupDisplayer).displayPopupChooser(editor, list, displayChoosersRunnableForClass);
     }
 
     @Test
@@ -0,0 +1,192 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.DataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderDiffCalculator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UpdateBuilderActionHandlerTest {
+
+    @InjectMocks private UpdateBuilderActionHandler updateBuilderActionHandler;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private BuilderDiffCalculator builderDiffCalculator;
+    @Mock private BuilderUpdateWriter builderUpdateWriter;
+    @Mock private GuiHelper guiHelper;
+    @Mock private CodeStyleSettings codeStyleSettings;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass builderClass;
+    @Mock private Editor editor;
+    @Mock private Project project;
+    @Mock private DataContext dataContext;
+    @Mock private BuilderDiff builderDiff;
+    @Mock private PsiField nameField;
+    @Mock private PsiField ageField;
+
+    private NamingConvention namingConvention = NamingConvention.EMPTY;
+
+    @Before
+    public void setUp() {
+        setField(updateBuilderActionHandler, "codeStyleSettings", codeStyleSettings);
+        given(codeStyleSettings.getNamingConvention(project)).willReturn(namingConvention);
+        given(dataContext.getData(DataKeys.PROJECT.getName())).willReturn(project);
+        given(builderClass.isWritable()).willReturn(true);
+        given(builderDiffCalculator.isUpdatable(psiClass, builderClass)).willReturn(true);
+        given(nameField.getName()).willReturn("name");
+        given(ageField.getName()).willReturn("age");
+        given(builderDiffCalculator.getSettableFields(psiClass, namingConvention)).willReturn(Arrays.asList(nameField, ageField));
+        given(builderDiffCalculator.getFieldNamesInBuilder(psiClass, builderClass, namingConvention)).willReturn(ImmutableSet.of("name"));
+    }
+
+    @Test
+    public void shouldWriteUpdateOfBuilderFoundForSourceClass() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        givenChosenFields(nameField);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(builderUpdateWriter).writeUpdate(project, builderClass, builderDiff);
+    }
+
+    @Test
+    public void shouldUpdateBuilderWhenInvokedInsideBuilder() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(builderClass);
+        given(builderVerifier.isBuilder(builderClass)).willReturn(true);
+        given(builderFinder.findClassForBuilder(builderClass)).willReturn(psiClass);
+        givenChosenFields(nameField);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(builderUpdateWriter).writeUpdate(project, builderClass, builderDiff);
+    }
+
+    @Test
+    public void shouldShowHintAndNotWriteWhenBuilderIsUpToDate() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        givenChosenFields(nameField);
+        given(builderDiff.isEmpty()).willReturn(true);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(guiHelper).showHint(editor, UpdateBuilderActionHandler.BUILDER_UP_TO_DATE);
+        verifyZeroInteractions(builderUpdateWriter);
+    }
+
+    @Test
+    public void shouldShowHintWhenBuilderNotFound() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(guiHelper).showHint(editor, UpdateBuilderActionHandler.BUILDER_NOT_FOUND);
+        verifyZeroInteractions(builderDiffCalculator, builderUpdateWriter);
+    }
+
+    @Test
+    public void shouldShowHintAndNotUpdateBuilderCreatingTargetInBuildMethod() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(builderDiffCalculator.isUpdatable(psiClass, builderClass)).willReturn(false);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(guiHelper).showHint(editor, UpdateBuilderActionHandler.BUILDER_NOT_UPDATABLE);
+        verifyZeroInteractions(builderUpdateWriter);
+        verify(guiHelper, never()).chooseFields(eq(project), eq(UpdateBuilderActionHandler.CHOOSER_TITLE), anyListOf(PsiField.class),
+                anyCollectionOf(PsiField.class));
+    }
+
+    @Test
+    public void shouldOfferSettableFieldsWithThoseAlreadyInBuilderSelected() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        givenChosenFields(ageField);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(guiHelper).chooseFields(project, UpdateBuilderActionHandler.CHOOSER_TITLE, Arrays.asList(nameField, ageField), Arrays.asList(nameField));
+        verify(builderDiffCalculator).calculate(psiClass, builderClass, namingConvention, ImmutableSet.of("age"));
+    }
+
+    @Test
+    public void shouldNotUpdateWhenFieldChooserIsCancelled() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(guiHelper.chooseFields(project, UpdateBuilderActionHandler.CHOOSER_TITLE, Arrays.asList(nameField, ageField), Arrays.asList(nameField)))
+                .willReturn(null);
+
+        // when
+        updateBuilderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(builderDiffCalculator, never()).calculate(eq(psiClass), eq(builderClass), eq(namingConvention), anySetOf(String.class));
+        verifyZeroInteractions(builderUpdateWriter);
+    }
+
+    private void givenChosenFields(PsiField... chosenFields) {
+        List<PsiField> fields = Arrays.asList(chosenFields);
+        given(guiHelper.chooseFields(project, UpdateBuilderActionHandler.CHOOSER_TITLE, Arrays.asList(nameField, ageField), Arrays.asList(nameField)))
+                .willReturn(fields);
+        Set<String> fieldNames = new HashSet<String>();
+        for (PsiField field : fields) {
+            fieldNames.add(field.getName());
+        }
+        given(builderDiffCalculator.calculate(psiClass, builderClass, namingConvention, fieldNames)).willReturn(builderDiff);
+    }
+}
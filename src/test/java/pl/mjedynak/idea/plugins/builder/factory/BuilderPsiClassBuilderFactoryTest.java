@@ -0,0 +1,110 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiJavaFile;
+import org.junit.Before;
+import org.junit.Test;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFormatter;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplates;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderMethodTemplatesCache;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.withSettings;
+import static pl.mjedynak.idea.plugins.builder.GarbageCollectionAssert.assertGarbageCollected;
+
+public class BuilderPsiClassBuilderFactoryTest {
+
+    private BuilderPsiClassBuilderFactory builderPsiClassBuilderFactory;
+    private PsiHelper psiHelper;
+    private BuilderMethodTemplatesCache builderMethodTemplatesCache;
+    private BuilderFormatter builderFormatter;
+    private BuilderFileCreator builderFileCreator;
+    private BuilderRenderer<String> builderRenderer;
+
+    private BuilderSpec builderSpec = new BuilderSpec("", "PersonBuilder", "Person", "Person", "person", "aPerson",
+            Collections.<PropertySpec>emptyList(), NamingConvention.EMPTY);
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        // collaborators outlive the generation run, so they must not record invocations holding the project
+        psiHelper = stubOnlyMock(PsiHelper.class);
+        builderMethodTemplatesCache = stubOnlyMock(BuilderMethodTemplatesCache.class);
+        builderFormatter = stubOnlyMock(BuilderFormatter.class);
+        builderFileCreator = stubOnlyMock(BuilderFileCreator.class);
+        builderRenderer = stubOnlyMock(BuilderRenderer.class);
+        JavaPsiFacade javaPsiFacade = stubOnlyMock(JavaPsiFacade.class);
+        given(psiHelper.getJavaPsiFacade(any(Project.class))).willReturn(javaPsiFacade);
+        given(javaPsiFacade.getElementFactory()).willReturn(stubOnlyMock(PsiElementFactory.class));
+        given(builderMethodTemplatesCache.getTemplates(any(Project.class))).willReturn(stubOnlyMock(BuilderMethodTemplates.class));
+        builderPsiClassBuilderFactory = new BuilderPsiClassBuilderFactory(psiHelper, builderMethodTemplatesCache, builderFormatter, builderFileCreator,
+                builderRenderer);
+    }
+
+    @Test
+    public void shouldCreateNewBuilderForEachGenerationRun() {
+        // given
+        PsiJavaFile builderFile = stubOnlyMock(PsiJavaFile.class);
+        given(builderFile.getClasses()).willReturn(new PsiClass[]{stubOnlyMock(PsiClass.class)});
+        given(psiHelper.createJavaFile(any(Project.class), anyString(), anyString())).willReturn(builderFile);
+        Project project = mock(Project.class);
+        PsiDirectory targetDirectory = mock(PsiDirectory.class);
+
+        // when
+        BuilderPsiClassBuilder first = builderPsiClassBuilderFactory.createBuilderPsiClassBuilder(project, targetDirectory, builderSpec);
+        BuilderPsiClassBuilder second = builderPsiClassBuilderFactory.createBuilderPsiClassBuilder(project, targetDirectory, builderSpec);
+
+        // then
+        assertThat(first, is(not(sameInstance(second))));
+    }
+
+    @Test
+    public void shouldNotRetainDisposedProjectAfterGeneratingBuilder() {
+        // given
+        WeakReference<Project> projectReference = generateBuilderInDisposedProject();
+
+        // then
+        assertGarbageCollected(projectReference);
+    }
+
+    private WeakReference<Project> generateBuilderInDisposedProject() {
+        Project project = mock(Project.class);
+        PsiDirectory targetDirectory = mock(PsiDirectory.class);
+        PsiJavaFile builderFile = mock(PsiJavaFile.class);
+        given(builderFile.getClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+        given(psiHelper.createJavaFile(any(Project.class), anyString(), anyString())).willReturn(builderFile);
+
+        builderPsiClassBuilderFactory.createBuilderPsiClassBuilder(project, targetDirectory, builderSpec)
+                .withFields().withPrivateConstructor().withInitializingMethod().withSetMethods("with").withButMethod().build();
+
+        given(project.isDisposed()).willReturn(true);
+        reset(psiHelper, builderMethodTemplatesCache, builderFormatter, builderFileCreator);
+        return new WeakReference<Project>(project);
+    }
+
+    private <T> T stubOnlyMock(Class<T> classToMock) {
+        return mock(classToMock, withSettings().stubOnly());
+    }
+}
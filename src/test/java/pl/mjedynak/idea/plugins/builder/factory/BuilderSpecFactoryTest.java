@@ -0,0 +1,114 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderSpecFactoryTest {
+
+    @InjectMocks private BuilderSpecFactory factory;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private PsiPackage targetPackage;
+    @Mock private PsiClass srcClass;
+    @Mock private PsiField nameField;
+    @Mock private PsiField ageField;
+    @Mock private PsiType stringType;
+    @Mock private PsiType intType;
+
+    private NamingConvention namingConvention = new NamingConvention("m_", "", "", "");
+
+    @Before
+    public void setUp() {
+        given(psiHelper.getPackage(targetDirectory)).willReturn(targetPackage);
+        given(targetPackage.getQualifiedName()).willReturn("com.example");
+        given(srcClass.getName()).willReturn("Person");
+        given(srcClass.getQualifiedName()).willReturn("com.example.Person");
+        given(nameField.getName()).willReturn("m_name");
+        given(nameField.getType()).willReturn(stringType);
+        given(ageField.getName()).willReturn("m_age");
+        given(ageField.getType()).willReturn(intType);
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+        given(intType.getCanonicalText()).willReturn("int");
+    }
+
+    @Test
+    public void shouldCreateSpecWithSetterPropertiesFollowedByConstructorProperties() {
+        // given
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(Arrays.asList(nameField), Arrays.asList(ageField));
+
+        // when
+        BuilderSpec result = factory.createBuilderSpec(targetDirectory, "PersonBuilder", srcClass, psiFieldsForBuilder, namingConvention);
+
+        // then
+        assertThat(result.getPackageName(), is("com.example"));
+        assertThat(result.getBuilderClassName(), is("PersonBuilder"));
+        assertThat(result.getSrcClassQualifiedName(), is("com.example.Person"));
+        assertThat(result.getSrcClassFieldName(), is("person"));
+        assertThat(result.getInitializingMethodName(), is("aPerson"));
+        assertThat(result.getNamingConvention(), is(namingConvention));
+        PropertySpec nameProperty = result.getProperties().get(0);
+        assertThat(nameProperty.getPropertyName(), is("name"));
+        assertThat(nameProperty.getSetterName(), is("setName"));
+        assertThat(nameProperty.getTypeText(), is("java.lang.String"));
+        assertThat(nameProperty.getInitialization(), is(FieldInitialization.SETTER));
+        PropertySpec ageProperty = result.getProperties().get(1);
+        assertThat(ageProperty.getFieldName(), is("m_age"));
+        assertThat(ageProperty.getTypeText(), is("int"));
+        assertThat(ageProperty.getInitialization(), is(FieldInitialization.CONSTRUCTOR));
+    }
+
+    @Test
+    public void shouldUseAnPrefixForClassNameStartingWithVowel() {
+        // given
+        given(srcClass.getName()).willReturn("Item");
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(Collections.<PsiField>emptyList(), Collections.<PsiField>emptyList());
+
+        // when
+        BuilderSpec result = factory.createBuilderSpec("", "ItemBuilder", srcClass, psiFieldsForBuilder, namingConvention);
+
+        // then
+        assertThat(result.getInitializingMethodName(), is("anItem"));
+    }
+
+    @Test
+    public void shouldPickSetFlagNameThatDoesNotClashWithAnotherProperty() {
+        // given
+        PsiField nameSetField = mock(PsiField.class);
+        given(nameField.getName()).willReturn("name");
+        given(nameSetField.getName()).willReturn("nameSet");
+        given(nameSetField.getType()).willReturn(intType);
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(Arrays.asList(nameField, nameSetField), Collections.<PsiField>emptyList());
+
+        // when
+        BuilderSpec result = factory.createBuilderSpec("", "PersonBuilder", srcClass, psiFieldsForBuilder, NamingConvention.EMPTY);
+
+        // then
+        assertThat(result.getProperties().get(0).getSetFlagName(), is("nameSet2"));
+        assertThat(result.getProperties().get(1).getFieldName(), is("nameSet"));
+        assertThat(result.getProperties().get(1).getSetFlagName(), is("nameSetSet"));
+    }
+}
@@ -1,8 +1,7 @@
 package pl.mjedynak.idea.plugins.builder.factory;
 
-import com.intellij.codeInsight.generation.PsiElementClassMember;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,10 +9,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.TargetConstructor;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -25,27 +29,26 @@ import static org.mockito.BDDMockito.given;
 public class PsiFieldsForBuilderFactoryTest {
 
     @InjectMocks private PsiFieldsForBuilderFactory factory;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
     @Mock private PsiFieldVerifier psiFieldVerifier;
-    @Mock private PsiClass psiClass;
-    @Mock private PsiElementClassMember psiElementClassMember;
 
-    private List<PsiElementClassMember> psiElementClassMembers;
+    private List<PsiField> selectedPsiFields;
 
     @Mock private PsiField psiField;
+    @Mock private PsiField setterOnlyField;
 
     @Before
     public void setUp() {
-        psiElementClassMembers = Arrays.asList(psiElementClassMember);
-        given(psiElementClassMember.getPsiElement()).willReturn(psiField);
+        selectedPsiFields = Arrays.asList(psiField);
     }
 
     @Test
     public void shouldCreateObjectWithPsiFieldsForSetters() {
         // given
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(true);
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.SETTER);
 
         // when
-        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis);
 
         // then
         assertThat(result, is(notNullValue()));
@@ -60,10 +63,10 @@ public class PsiFieldsForBuilderFactoryTest {
     @Test
     public void shouldCreateObjectWithPsiFieldsForConstructor() {
         // given
-        given(psiFieldVerifier.isSetInConstructor(psiField, psiClass)).willReturn(true);
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.CONSTRUCTOR);
 
         // when
-        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis);
 
         // then
         assertThat(result, is(notNullValue()));
@@ -78,7 +81,7 @@ public class PsiFieldsForBuilderFactoryTest {
     @Test
     public void shouldCreateObjectWithEmptyList() {
         // when
-        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis);
 
         // then
         assertThat(result, is(notNullValue()));
@@ -89,11 +92,10 @@ public class PsiFieldsForBuilderFactoryTest {
     @Test
     public void shouldPreferFieldsForSetterOverFieldsForConstructor() {
         // given
-        given(psiFieldVerifier.isSetInConstructor(psiField, psiClass)).willReturn(true);
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(true);
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.BOTH);
 
         // when
-        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis);
 
         // then
         assertThat(result, is(notNullValue()));
@@ -106,6 +108,66 @@ public class PsiFieldsForBuilderFactoryTest {
 
     }
 
+    @Test
+    public void shouldUseFieldsOfChosenConstructorForImmutableTarget() {
+        // given
+        List<PsiField> selected = Arrays.asList(setterOnlyField, psiField);
+        List<TargetConstructor> constructors = Arrays.asList(new TargetConstructor(Arrays.asList(psiField), PsiModifier.PUBLIC));
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.BOTH);
+        given(psiFieldsAnalysis.getInitialization(setterOnlyField)).willReturn(FieldInitialization.SETTER);
+        given(psiFieldsAnalysis.getConstructors()).willReturn(constructors);
+        BuilderOptions options = new BuilderOptions(false, true, false, true);
+        given(psiFieldVerifier.chooseConstructor(constructors, selected, options)).willReturn(constructors.get(0));
+
+        // when
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selected, psiFieldsAnalysis, options);
+
+        // then
+        assertThat(result.getFieldsForConstructor(), is(Arrays.asList(psiField)));
+        assertThat(result.getFieldsForSetters(), is(Arrays.asList(setterOnlyField)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectImmutableTargetWithoutUsableConstructor() {
+        // given
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.BOTH);
+        given(psiFieldsAnalysis.getConstructors()).willReturn(Collections.<TargetConstructor>emptyList());
+
+        // when
+        factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis, new BuilderOptions(false, true, false, true));
+    }
+
+    @Test
+    public void shouldReportUsableConstructorOnlyWhenOneIsChosen() {
+        // given
+        BuilderOptions options = new BuilderOptions(false, true, false, false);
+        given(psiFieldsAnalysis.getConstructors()).willReturn(Collections.<TargetConstructor>emptyList());
+
+        // when
+        boolean result = factory.hasUsableConstructor(psiFieldsAnalysis, options);
+
+        // then
+        assertThat(result, is(false));
+        assertThat(factory.hasUsableConstructor(psiFieldsAnalysis, BuilderOptions.DEFAULT), is(true));
+    }
+
+    @Test
+    public void shouldChooseTargetConstructorForReusableBuilder() {
+        // given
+        List<TargetConstructor> constructors = Arrays.asList(new TargetConstructor(Arrays.asList(psiField), PsiModifier.PUBLIC));
+        given(psiFieldsAnalysis.getInitialization(psiField)).willReturn(FieldInitialization.BOTH);
+        given(psiFieldsAnalysis.getConstructors()).willReturn(constructors);
+        BuilderOptions options = new BuilderOptions(false, false, true, true);
+        given(psiFieldVerifier.chooseConstructor(constructors, selectedPsiFields, options)).willReturn(constructors.get(0));
+
+        // when
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(selectedPsiFields, psiFieldsAnalysis, options);
+
+        // then
+        assertThat(result.getFieldsForConstructor(), is(Arrays.asList(psiField)));
+        assertThatFieldsForSettersAreEmpty(result);
+    }
+
     private void assertThatFieldsForConstructorAreEmpty(PsiFieldsForBuilder result) {
         List<PsiField> fieldsForConstructor = result.getFieldsForConstructor();
         assertThat(fieldsForConstructor, is(notNullValue()));
@@ -2,6 +2,7 @@ package pl.mjedynak.idea.plugins.builder.finder;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,6 +17,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BuilderFinderTest {
@@ -36,6 +38,7 @@ public class BuilderFinderTest {
         given(psiClass.isAnnotationType()).willReturn(false);
         given(psiClass.getProject()).willReturn(project);
         given(psiClass.getName()).willReturn(CLASS_NAME);
+        given(psiClass.getInnerClasses()).willReturn(new PsiClass[0]);
 
         given(builderClass.getName()).willReturn(BUILDER_NAME);
         given(builderClass.getProject()).willReturn(project);
@@ -168,4 +171,33 @@ public class BuilderFinderTest {
         assertThat(result.getName(), is(CLASS_NAME));
     }
 
+    @Test
+    public void shouldFindInnerStaticBuilderBeforeSearchingTopLevelClasses() {
+        // given
+        PsiClass innerBuilder = mock(PsiClass.class);
+        given(innerBuilder.getName()).willReturn("Builder");
+        given(innerBuilder.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
+        given(psiClass.getInnerClasses()).willReturn(new PsiClass[]{innerBuilder});
+
+        // when
+        PsiClass result = builderFinder.findBuilderForClass(psiClass);
+
+        // then
+        assertThat(result, is(innerBuilder));
+        verifyZeroInteractions(classFinder);
+    }
+
+    @Test
+    public void shouldFindContainingClassForInnerStaticBuilder() {
+        // given
+        given(builderClass.getContainingClass()).willReturn(psiClass);
+        given(builderClass.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
+
+        // when
+        PsiClass result = builderFinder.findClassForBuilder(builderClass);
+
+        // then
+        assertThat(result, is(psiClass));
+        verifyZeroInteractions(classFinder);
+    }
 }
@@ -0,0 +1,71 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.psi.PsiField;
+import com.intellij.util.Alarm;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPreviewRenderer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderPreviewUpdaterTest {
+
+    @InjectMocks private BuilderPreviewUpdater builderPreviewUpdater;
+    @Mock private Alarm alarm;
+    @Mock private BuilderPreviewRenderer builderPreviewRenderer;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderPreviewListener listener;
+    @Mock private BuilderPreviewContext context;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+    @Mock private ProgressIndicator runningIndicator;
+
+    @Test
+    public void shouldDebounceRenderingOnEverySelectionChange() {
+        // when
+        builderPreviewUpdater.schedule(Collections.<PsiField>emptyList(), psiFieldsAnalysis);
+        builderPreviewUpdater.schedule(Collections.<PsiField>emptyList(), psiFieldsAnalysis);
+
+        // then
+        verify(alarm, times(2)).cancelAllRequests();
+        verify(alarm, times(2)).addRequest(any(Runnable.class), eq(BuilderPreviewUpdater.PREVIEW_DELAY_MILLIS));
+    }
+
+    @Test
+    public void shouldCancelRunningRenderingWhenSelectionChanges() {
+        // given
+        setField(builderPreviewUpdater, "currentIndicator", runningIndicator);
+
+        // when
+        builderPreviewUpdater.schedule(Collections.<PsiField>emptyList(), psiFieldsAnalysis);
+
+        // then
+        verify(runningIndicator).cancel();
+    }
+
+    @Test
+    public void shouldCancelRunningRenderingAndPendingRequestsOnDispose() {
+        // given
+        setField(builderPreviewUpdater, "currentIndicator", runningIndicator);
+
+        // when
+        builderPreviewUpdater.dispose();
+
+        // then
+        verify(runningIndicator).cancel();
+        verify(alarm).cancelAllRequests();
+    }
+}
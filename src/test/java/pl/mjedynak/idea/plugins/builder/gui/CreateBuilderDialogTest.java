@@ -82,6 +82,33 @@ public class CreateBuilderDialogTest {
         assertThat(((JTextField) result).getText(), is(className));
     }
 
+    @Test
+    public void shouldNotCreateInnerBuilderByDefault() {
+        // when
+        boolean result = createBuilderDialog.isInnerBuilder();
+
+        // then
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void shouldNotBuildThroughConstructorByDefault() {
+        // when
+        boolean result = createBuilderDialog.isImmutableTarget();
+
+        // then
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void shouldNotCreateReusableBuilderByDefault() {
+        // when
+        boolean result = createBuilderDialog.isReusable();
+
+        // then
+        assertThat(result, is(false));
+    }
+
     @Test
     public void shouldReturnTargetDirectoryAsNullWhenOkActionWasntClicked() {
         // when
@@ -0,0 +1,144 @@
+package pl.mjedynak.idea.plugins.builder.gui;
+
+import com.intellij.psi.PsiField;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FieldChooserListModelTest {
+
+    private FieldChooserListModel listModel;
+    private FieldRow nameRow;
+    private FieldRow ageRow;
+
+    @Mock private PsiField nameField;
+    @Mock private PsiField ageField;
+    @Mock private ListDataListener listDataListener;
+
+    @Before
+    public void setUp() {
+        listModel = new FieldChooserListModel();
+        listModel.addListDataListener(listDataListener);
+        nameRow = new FieldRow(nameField, "name: String");
+        ageRow = new FieldRow(ageField, "age: Integer");
+    }
+
+    @Test
+    public void shouldAppendRowsIncrementally() {
+        // when
+        listModel.addRows(Arrays.asList(nameRow));
+        listModel.addRows(Arrays.asList(ageRow));
+
+        // then
+        assertThat(listModel.getSize(), is(2));
+        assertThat(listModel.getElementAt(1), is(ageRow));
+        verify(listDataListener, times(2)).intervalAdded(any(ListDataEvent.class));
+    }
+
+    @Test
+    public void shouldFilterRowsIgnoringCase() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+
+        // when
+        listModel.setFilter("INTEG");
+
+        // then
+        assertThat(listModel.getSize(), is(1));
+        assertThat(listModel.getElementAt(0), is(ageRow));
+    }
+
+    @Test
+    public void shouldApplyFilterToRowsAddedLater() {
+        // given
+        listModel.setFilter("age");
+
+        // when
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+
+        // then
+        assertThat(listModel.getSize(), is(1));
+        assertThat(listModel.getElementAt(0), is(ageRow));
+    }
+
+    @Test
+    public void shouldRestoreAllRowsWhenFilterIsCleared() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+        listModel.setFilter("age");
+
+        // when
+        listModel.setFilter("");
+
+        // then
+        assertThat(listModel.getSize(), is(2));
+    }
+
+    @Test
+    public void shouldReturnSelectedFieldsIncludingFilteredOutOnes() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+        listModel.setFilter("age");
+
+        // when
+        listModel.toggle(new int[]{0});
+
+        // then
+        assertThat(listModel.getSelectedFields(), is(Arrays.asList(nameField)));
+    }
+
+    @Test
+    public void shouldDeselectAllVisibleRowsWhenAllAreSelected() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+        listModel.setFilter("age");
+
+        // when
+        listModel.toggleAllVisible();
+
+        // then
+        assertThat(listModel.getSelectedFields(), is(Arrays.asList(nameField)));
+    }
+
+    @Test
+    public void shouldSelectAllVisibleRowsWhenAnyIsDeselected() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+        listModel.toggle(new int[]{1});
+
+        // when
+        listModel.toggleAllVisible();
+
+        // then
+        assertThat(listModel.getSelectedFields(), is(Arrays.asList(nameField, ageField)));
+    }
+
+    @Test
+    public void shouldRemoveRowsOfFieldsMissingFromFinishedAnalysis() {
+        // given
+        listModel.addRows(Arrays.asList(nameRow, ageRow));
+        listModel.setFilter("a");
+
+        // when
+        listModel.retainRows(Arrays.asList(ageField));
+
+        // then
+        assertThat(listModel.getSize(), is(1));
+        assertThat(listModel.getElementAt(0), is(ageRow));
+        assertThat(listModel.getSelectedFields(), is(Arrays.asList(ageField)));
+    }
+}
@@ -0,0 +1,299 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiKeyword;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.PsiType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderDiffCalculatorTest {
+
+    @InjectMocks private BuilderDiffCalculator builderDiffCalculator;
+    @Mock private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock private BuilderSpecFactory builderSpecFactory;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiClass srcClass;
+
+    private PropertySpec nameProperty = new PropertySpec(new PropertyName("name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER);
+    private PropertySpec ageProperty = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.SETTER);
+
+    @Before
+    public void setUp() {
+        given(builderClass.getFields()).willReturn(new PsiField[0]);
+    }
+
+    @Test
+    public void shouldReportNoChangesWhenSetMethodsMatchProperties() {
+        // given
+        PsiMethod nameMethod = generatedSetMethod("name", "setName", "java.lang.String");
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{nameMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(nameProperty), Arrays.asList(nameProperty));
+
+        // then
+        assertThat(result.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldAddMissingRemoveObsoleteAndRetypeChangedSetMethods() {
+        // given
+        PsiMethod nameMethod = generatedSetMethod("name", "setName", "java.lang.CharSequence");
+        PsiMethod removedMethod = generatedSetMethod("surname", "setSurname", "java.lang.String");
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{nameMethod, removedMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(nameProperty, ageProperty), Arrays.asList(nameProperty, ageProperty));
+
+        // then
+        assertThat(result.getAddedProperties(), is(Arrays.asList(ageProperty)));
+        assertThat(result.getRemovedMethods(), is(Arrays.asList(removedMethod)));
+        assertThat(result.getRetypedMethods().get(nameMethod), is(nameProperty));
+    }
+
+    @Test
+    public void shouldLeaveHandWrittenMethodCallingSetterOfExistingPropertyAlone() {
+        // given
+        PsiMethod aliasMethod = generatedSetMethod("withAlias", "setName", "java.lang.String");
+        PsiMethod nameMethod = generatedSetMethod("name", "setName", "java.lang.String");
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{aliasMethod, nameMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(nameProperty), Arrays.asList(nameProperty));
+
+        // then
+        assertThat(result.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotTreatMethodWithoutStoredValueAndSetFlagAsGenerated() {
+        // given
+        PsiMethod nameMethod = generatedSetMethod("name", "setName", "java.lang.String");
+        PsiStatement[] statements = nameMethod.getBody().getStatements();
+        given(nameMethod.getBody().getStatements()).willReturn(new PsiStatement[]{statements[2], statements[3]});
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{nameMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(nameProperty, ageProperty), Arrays.asList(nameProperty, ageProperty));
+
+        // then
+        assertThat(result.getAddedProperties(), is(Arrays.asList(ageProperty)));
+        assertThat(result.getRemovedMethods().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldUpdateBuilderHoldingSourceObject() {
+        // given
+        PsiField srcClassField = field("person");
+        PsiType srcClassType = mock(PsiType.class);
+        given(srcClass.getName()).willReturn("Person");
+        given(srcClassField.getType()).willReturn(srcClassType);
+        given(srcClassType.getPresentableText()).willReturn("Person");
+        PsiField[] builderFields = {srcClassField};
+        given(builderClass.getFields()).willReturn(builderFields);
+
+        // when
+        boolean result = builderDiffCalculator.isUpdatable(srcClass, builderClass);
+
+        // then
+        assertThat(result, is(true));
+    }
+
+    @Test
+    public void shouldNotUpdateBuilderCreatingTargetInBuildMethod() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+
+        // when
+        boolean result = builderDiffCalculator.isUpdatable(srcClass, builderClass);
+
+        // then
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void shouldNotAddConstructorOnlyPropertiesAndRemoveTheirSetMethods() {
+        // given
+        PropertySpec constructorOnlyName = new PropertySpec(new PropertyName("name", "name", "setName"), "java.lang.String",
+                FieldInitialization.CONSTRUCTOR);
+        PropertySpec constructorOnlyAge = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.CONSTRUCTOR);
+        PsiMethod nameMethod = generatedSetMethod("name", "setName", "java.lang.String");
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{nameMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(constructorOnlyName, constructorOnlyAge),
+                Arrays.asList(constructorOnlyName, constructorOnlyAge));
+
+        // then
+        assertThat(result.getAddedProperties().isEmpty(), is(true));
+        assertThat(result.getRemovedMethods(), is(Arrays.asList(nameMethod)));
+    }
+
+    @Test
+    public void shouldAddOnlyChosenFieldsThatHaveSetters() {
+        // given
+        PsiField nameField = field("name");
+        PsiField ageField = field("age");
+        PsiField idField = field("id");
+        PsiFieldsAnalysis psiFieldsAnalysis = mock(PsiFieldsAnalysis.class);
+        List<PsiField> allFields = Arrays.asList(nameField, ageField, idField);
+        given(psiFieldsAnalysisCache.getAnalysis(srcClass, NamingConvention.EMPTY)).willReturn(psiFieldsAnalysis);
+        given(psiFieldsAnalysis.getFields()).willReturn(allFields);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(allFields, psiFieldsAnalysis)).willReturn(
+                new PsiFieldsForBuilder(Arrays.asList(nameField, ageField), Arrays.asList(idField)));
+        given(builderClass.getName()).willReturn("PersonBuilder");
+        given(builderClass.getMethods()).willReturn(new PsiMethod[0]);
+        given(builderSpecFactory.createBuilderSpec(eq(""), eq("PersonBuilder"), eq(srcClass), any(PsiFieldsForBuilder.class), eq(NamingConvention.EMPTY)))
+                .willReturn(spec(nameProperty, ageProperty));
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(srcClass, builderClass, NamingConvention.EMPTY, ImmutableSet.of("age", "id"));
+
+        // then
+        ArgumentCaptor<PsiFieldsForBuilder> psiFieldsForBuilder = ArgumentCaptor.forClass(PsiFieldsForBuilder.class);
+        verify(builderSpecFactory).createBuilderSpec(eq(""), eq("PersonBuilder"), eq(srcClass), psiFieldsForBuilder.capture(),
+                eq(NamingConvention.EMPTY));
+        assertThat(psiFieldsForBuilder.getValue().getFieldsForSetters(), is(Arrays.asList(nameField, ageField)));
+        assertThat(psiFieldsForBuilder.getValue().getFieldsForConstructor().isEmpty(), is(true));
+        assertThat(result.getAddedProperties(), is(Arrays.asList(ageProperty)));
+    }
+
+    @Test
+    public void shouldLeaveHandWrittenMethodsAlone() {
+        // given
+        PsiMethod handWrittenMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        given(handWrittenMethod.getName()).willReturn("age");
+        given(handWrittenMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(1);
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{handWrittenMethod});
+
+        // when
+        BuilderDiff result = builderDiffCalculator.calculate(builderClass, spec(ageProperty), Arrays.asList(ageProperty));
+
+        // then
+        assertThat(result.isEmpty(), is(true));
+    }
+
+    private BuilderSpec spec(PropertySpec... properties) {
+        return new BuilderSpec("", "PersonBuilder", "Person", "Person", "person", "aPerson", Arrays.asList(properties), NamingConvention.EMPTY);
+    }
+
+    private PsiField field(String name) {
+        PsiField field = mock(PsiField.class);
+        given(field.getName()).willReturn(name);
+        return field;
+    }
+
+    private PsiMethod generatedSetMethod(String name, String setterName, String typeText) {
+        PsiMethod method = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiParameter parameter = mock(PsiParameter.class);
+        PsiType type = mock(PsiType.class);
+        PsiCodeBlock body = mock(PsiCodeBlock.class);
+        given(method.getName()).willReturn(name);
+        given(method.getParameterList()).willReturn(parameterList);
+        given(method.getBody()).willReturn(body);
+        given(parameterList.getParametersCount()).willReturn(1);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[]{parameter});
+        given(parameter.getName()).willReturn(name);
+        given(parameter.getType()).willReturn(type);
+        given(type.getCanonicalText()).willReturn(typeText);
+        given(body.getStatements()).willReturn(new PsiStatement[]{valueAssignment(name), setFlagAssignment(), setterCall(setterName, name), returnThis()});
+        return method;
+    }
+
+    private PsiStatement valueAssignment(String name) {
+        PsiReferenceExpression field = mock(PsiReferenceExpression.class);
+        PsiThisExpression thisExpression = mock(PsiThisExpression.class);
+        given(field.getQualifierExpression()).willReturn(thisExpression);
+        return assignment(field, reference(name));
+    }
+
+    private PsiStatement setFlagAssignment() {
+        PsiReferenceExpression flag = mock(PsiReferenceExpression.class);
+        PsiExpression value = mock(PsiExpression.class);
+        given(value.getText()).willReturn(PsiKeyword.TRUE);
+        return assignment(flag, value);
+    }
+
+    private PsiStatement assignment(PsiExpression lExpression, PsiExpression rExpression) {
+        PsiExpressionStatement statement = mock(PsiExpressionStatement.class);
+        PsiAssignmentExpression assignment = mock(PsiAssignmentExpression.class);
+        given(statement.getExpression()).willReturn(assignment);
+        given(assignment.getLExpression()).willReturn(lExpression);
+        given(assignment.getRExpression()).willReturn(rExpression);
+        return statement;
+    }
+
+    private PsiStatement setterCall(String setterName, String argumentName) {
+        PsiExpressionStatement statement = mock(PsiExpressionStatement.class);
+        PsiMethodCallExpression call = mock(PsiMethodCallExpression.class);
+        PsiReferenceExpression methodExpression = mock(PsiReferenceExpression.class);
+        PsiExpressionList argumentList = mock(PsiExpressionList.class);
+        given(statement.getExpression()).willReturn(call);
+        given(call.getMethodExpression()).willReturn(methodExpression);
+        given(methodExpression.getReferenceName()).willReturn(setterName);
+        PsiExpression qualifier = reference("person");
+        given(methodExpression.getQualifierExpression()).willReturn(qualifier);
+        given(call.getArgumentList()).willReturn(argumentList);
+        given(argumentList.getExpressions()).willReturn(new PsiExpression[]{reference(argumentName)});
+        return statement;
+    }
+
+    private PsiReferenceExpression reference(String name) {
+        PsiReferenceExpression reference = mock(PsiReferenceExpression.class);
+        given(reference.getReferenceName()).willReturn(name);
+        return reference;
+    }
+
+    private PsiStatement returnThis() {
+        PsiReturnStatement statement = mock(PsiReturnStatement.class);
+        PsiThisExpression thisExpression = mock(PsiThisExpression.class);
+        given(statement.getReturnValue()).willReturn(thisExpression);
+        return statement;
+    }
+}
@@ -0,0 +1,96 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderFileCreatorTest {
+
+    @InjectMocks private BuilderFileCreator builderFileCreator;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderRenderer<String> builderRenderer;
+    @Mock private BuilderFormatter builderFormatter;
+    @Mock private Project project;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private BuilderSpec builderSpec;
+    @Mock private PsiJavaFile createdFile;
+    @Mock private PsiJavaFile addedFile;
+    @Mock private PsiClass createdClass;
+    @Mock private PsiClass addedClass;
+
+    @Before
+    public void setUp() {
+        given(builderSpec.getBuilderClassName()).willReturn("PersonBuilder");
+        given(builderRenderer.render(builderSpec)).willReturn("text");
+        given(psiHelper.createJavaFile(project, "PersonBuilder", "text")).willReturn(createdFile);
+        given(targetDirectory.add(createdFile)).willReturn(addedFile);
+        given(addedFile.getClasses()).willReturn(new PsiClass[]{addedClass});
+    }
+
+    @Test
+    public void shouldFormatNonPhysicalFileAndAttachItOnce() {
+        // given
+        given(createdFile.getClasses()).willReturn(new PsiClass[]{createdClass});
+
+        // when
+        PsiClass result = builderFileCreator.createBuilder(project, targetDirectory, builderSpec);
+
+        // then
+        assertThat(result, is(addedClass));
+        InOrder inOrder = inOrder(targetDirectory, builderFormatter);
+        inOrder.verify(targetDirectory).checkCreateFile("PersonBuilder.java");
+        inOrder.verify(builderFormatter).format(project, createdClass);
+        inOrder.verify(targetDirectory, times(1)).add(createdFile);
+    }
+
+    @Test
+    public void shouldNotTouchTargetDirectoryWhenRenderedTextDoesNotContainSingleClass() {
+        // given
+        given(createdFile.getClasses()).willReturn(new PsiClass[0]);
+
+        // when
+        try {
+            builderFileCreator.createBuilder(project, targetDirectory, builderSpec);
+        } catch (IncorrectOperationException e) {
+            // then
+            verify(targetDirectory, never()).add(any(PsiJavaFile.class));
+            return;
+        }
+        throw new AssertionError("IncorrectOperationException expected");
+    }
+
+    @Test(expected = IncorrectOperationException.class)
+    public void shouldFailBeforeRenderingWhenFileCannotBeCreated() {
+        // given
+        willThrow(new IncorrectOperationException("exists")).given(targetDirectory).checkCreateFile("PersonBuilder.java");
+
+        // when
+        try {
+            builderFileCreator.createBuilder(project, targetDirectory, builderSpec);
+        } finally {
+            verifyZeroInteractions(builderRenderer, builderFormatter);
+        }
+    }
+}
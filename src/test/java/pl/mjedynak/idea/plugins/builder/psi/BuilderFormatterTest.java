@@ -0,0 +1,68 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderFormatterTest {
+
+    @InjectMocks private BuilderFormatter builderFormatter;
+    @Mock private PsiHelper psiHelper;
+    @Mock private Project project;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiJavaFile builderFile;
+    @Mock private JavaCodeStyleManager javaCodeStyleManager;
+    @Mock private CodeStyleManager codeStyleManager;
+
+    @Before
+    public void setUp() {
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        given(psiHelper.getCodeStyleManager(project)).willReturn(codeStyleManager);
+    }
+
+    @Test
+    public void shouldShortenReferencesOptimizeImportsAndReformatOnceForWholeClass() {
+        // given
+        given(builderClass.getContainingFile()).willReturn(builderFile);
+
+        // when
+        builderFormatter.format(project, builderClass);
+
+        // then
+        InOrder inOrder = inOrder(javaCodeStyleManager, codeStyleManager);
+        inOrder.verify(javaCodeStyleManager, times(1)).shortenClassReferences(builderClass);
+        inOrder.verify(javaCodeStyleManager, times(1)).optimizeImports(builderFile);
+        inOrder.verify(codeStyleManager, times(1)).reformat(builderClass);
+    }
+
+    @Test
+    public void shouldNotOptimizeImportsOutsideJavaFile() {
+        // given
+        given(builderClass.getContainingFile()).willReturn(null);
+
+        // when
+        builderFormatter.format(project, builderClass);
+
+        // then
+        verify(javaCodeStyleManager, never()).optimizeImports(any(PsiFile.class));
+        verify(codeStyleManager).reformat(builderClass);
+    }
+}
@@ -0,0 +1,82 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreview;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderPreviewContext;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderPreviewRendererTest {
+
+    @InjectMocks private BuilderPreviewRenderer builderPreviewRenderer;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock private BuilderSpecFactory builderSpecFactory;
+    @Mock private BuilderRenderer<String> builderRenderer;
+    @Mock private Project project;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private PsiClass srcClass;
+    @Mock private PsiField psiField;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private BuilderSpec builderSpec;
+
+    @Test
+    public void shouldRenderSelectedFieldsAndRememberWhatPreviewWasRenderedFor() {
+        // given
+        List<PsiField> selectedFields = Arrays.asList(psiField);
+        BuilderPreviewContext context = new BuilderPreviewContext(targetDirectory, "PersonBuilder", srcClass, NamingConvention.EMPTY);
+        given(srcClass.getProject()).willReturn(project);
+        given(psiHelper.getModificationCount(project)).willReturn(3L);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedFields, psiFieldsAnalysis, BuilderOptions.DEFAULT)).willReturn(psiFieldsForBuilder);
+        given(builderSpecFactory.createBuilderSpec(targetDirectory, "PersonBuilder", srcClass, psiFieldsForBuilder, NamingConvention.EMPTY))
+                .willReturn(builderSpec);
+        given(builderSpec.withOptions(BuilderOptions.DEFAULT)).willReturn(builderSpec);
+        given(builderRenderer.render(builderSpec)).willReturn("text");
+
+        // when
+        BuilderPreview result = builderPreviewRenderer.render(context, selectedFields, psiFieldsAnalysis);
+
+        // then
+        assertThat(result.getText(), is("text"));
+        assertThat(result.getBuilderSpec(), is(builderSpec));
+        assertThat(result.isFor(Arrays.asList(psiField), 3L), is(true));
+        assertThat(result.isFor(Arrays.asList(psiField), 4L), is(false));
+        assertThat(result.isFor(Arrays.<PsiField>asList(), 3L), is(false));
+    }
+
+    @Test
+    public void shouldNotRenderWhenOptionsNeedConstructorThatIsNotUsable() {
+        // given
+        BuilderOptions options = new BuilderOptions(false, true, false, false);
+        BuilderPreviewContext context = new BuilderPreviewContext(targetDirectory, "PersonBuilder", srcClass, NamingConvention.EMPTY, options);
+        given(psiFieldsForBuilderFactory.hasUsableConstructor(psiFieldsAnalysis, options)).willReturn(false);
+
+        // when
+        boolean result = builderPreviewRenderer.canRender(context, psiFieldsAnalysis);
+
+        // then
+        assertThat(result, is(false));
+    }
+}
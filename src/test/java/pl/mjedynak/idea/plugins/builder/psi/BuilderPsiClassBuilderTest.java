@@ -2,245 +2,309 @@ package pl.mjedynak.idea.plugins.builder.psi;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.impl.source.PsiFieldImpl;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
-import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @RunWith(MockitoJUnitRunner.class)
-@Ignore
 public class BuilderPsiClassBuilderTest {
 
-    @InjectMocks private BuilderPsiClassBuilder psiClassBuilder;
-    @Mock private CodeStyleSettings settings;
+    private BuilderPsiClassBuilder psiClassBuilder;
     @Mock private PsiHelper psiHelper;
-    @Mock private ButMethodCreator butMethodCreator;
+    @Mock private BuilderMethodTemplatesCache builderMethodTemplatesCache;
+    @Mock private BuilderMethodTemplates builderMethodTemplates;
+    @Mock private BuilderFormatter builderFormatter;
     @Mock private MethodCreator methodCreator;
-    @Mock private PsiFieldsModifier psiFieldsModifier;
     @Mock private Project project;
     @Mock private PsiDirectory targetDirectory;
-    @Mock private PsiClass srcClass;
-    @Mock private JavaDirectoryService javaDirectoryService;
+    @Mock private BuilderFileCreator builderFileCreator;
+    @Mock private BuilderRenderer<String> builderRenderer;
+    @Mock private PsiJavaFile builderFile;
     @Mock private PsiClass builderClass;
+    @Mock private PsiClass attachedBuilderClass;
     @Mock private JavaPsiFacade javaPsiFacade;
     @Mock private PsiElementFactory elementFactory;
-    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
-    @Mock private PsiField srcClassNameField;
     @Mock private PsiMethod psiMethod;
-
-    private List<PsiField> psiFieldsForSetters;
-    private List<PsiField> psiFieldsForConstructor;
+    @Mock private PsiField psiField;
 
     private String builderClassName = "BuilderClassName";
     private String srcClassName = "ClassName";
     private String srcClassFieldName = "className";
+    private PropertySpec nameProperty = new PropertySpec(new PropertyName("m_name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER);
+    private PropertySpec ageProperty = new PropertySpec(new PropertyName("m_age", "age", "setAge"), "int", FieldInitialization.CONSTRUCTOR);
+    private BuilderSpec builderSpec = new BuilderSpec("com.example", builderClassName, srcClassName, "com.example.ClassName", srcClassFieldName,
+            "aClassName", Arrays.asList(nameProperty, ageProperty), new NamingConvention("m_", "", "", ""));
 
     @Before
     public void setUp() {
-        setField(psiClassBuilder, "psiFieldsModifier", psiFieldsModifier);
-        psiFieldsForConstructor = new ArrayList<PsiField>();
-        psiFieldsForSetters = new ArrayList<PsiField>();
-        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
-        given(javaDirectoryService.createClass(targetDirectory, builderClassName)).willReturn(builderClass);
+        given(psiHelper.createJavaFile(project, builderClassName, "package com.example;\n\npublic class " + builderClassName + " {\n}\n")).willReturn(builderFile);
+        given(builderFile.getClasses()).willReturn(new PsiClass[]{builderClass});
         given(psiHelper.getJavaPsiFacade(project)).willReturn(javaPsiFacade);
         given(javaPsiFacade.getElementFactory()).willReturn(elementFactory);
-        given(srcClass.getName()).willReturn(srcClassName);
-        given(psiFieldsForBuilder.getFieldsForConstructor()).willReturn(psiFieldsForConstructor);
-        given(psiFieldsForBuilder.getFieldsForSetters()).willReturn(psiFieldsForSetters);
-        mockCodeStyleManager();
+        given(builderMethodTemplatesCache.getTemplates(project)).willReturn(builderMethodTemplates);
+        psiClassBuilder = new BuilderPsiClassBuilder(project, targetDirectory, builderSpec, psiHelper, builderMethodTemplatesCache, builderFormatter,
+                builderFileCreator, builderRenderer);
     }
 
-    private void mockCodeStyleManager() {
-        setField(psiClassBuilder, "codeStyleSettings", settings);
-        given(settings.getFieldNamePrefix()).willReturn("m_");
-        given(settings.getParameterNamePrefix()).willReturn(EMPTY);
+    @Test
+    public void shouldSetPassedSpecAndCreateNonPhysicalBuilderClass() {
+        // then
+        assertThat((Project) getField(psiClassBuilder, "project"), is(project));
+        assertThat((PsiDirectory) getField(psiClassBuilder, "targetDirectory"), is(targetDirectory));
+        assertThat((BuilderSpec) getField(psiClassBuilder, "builderSpec"), is(builderSpec));
+        assertThat((PsiJavaFile) getField(psiClassBuilder, "builderFile"), is(builderFile));
+        assertThat((PsiClass) getField(psiClassBuilder, "builderClass"), is(builderClass));
+        verify(builderFileCreator).checkCanCreate(targetDirectory, builderClassName);
+        verifyZeroInteractions(targetDirectory);
+        assertThat((BuilderMethodTemplates) getField(psiClassBuilder, "builderMethodTemplates"), is(builderMethodTemplates));
     }
 
-    @SuppressWarnings("unchecked")
     @Test
-    public void shouldSetPassedFieldsAndCreateRequiredOnes() {
+    public void shouldAddSrcClassField() {
+        // given
+        given(builderMethodTemplates.createField(srcClassName, srcClassFieldName)).willReturn(psiField);
+
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder);
+        BuilderPsiClassBuilder result = psiClassBuilder.withFields();
 
         // then
+        verify(builderClass).add(psiField);
         assertThat(result, is(sameInstance(psiClassBuilder)));
-        assertThat((Project) getField(psiClassBuilder, "project"), is(project));
-        assertThat((PsiDirectory) getField(psiClassBuilder, "targetDirectory"), is(targetDirectory));
-        assertThat((PsiClass) getField(psiClassBuilder, "srcClass"), is(srcClass));
-        assertThat((String) getField(psiClassBuilder, "builderClassName"), is(builderClassName));
-        assertThat((List<PsiField>) getField(psiClassBuilder, "psiFieldsForSetters"), is(psiFieldsForSetters));
-        assertThat((List<PsiField>) getField(psiClassBuilder, "psiFieldsForConstructor"), is(psiFieldsForConstructor));
-        assertThat((PsiClass) getField(psiClassBuilder, "builderClass"), is(builderClass));
-        assertThat((PsiElementFactory) getField(psiClassBuilder, "elementFactory"), is(elementFactory));
-        assertThat((String) getField(psiClassBuilder, "srcClassName"), is(srcClassName));
-        assertThat((String) getField(psiClassBuilder, "srcClassFieldName"), is(srcClassFieldName));
     }
 
     @Test
-    public void shouldDelegatePsiFieldsModification() {
+    public void shouldAddValueAndSetFlagFieldsForAllProperties() {
+        // given
+        PsiField nameField = mock(PsiField.class);
+        PsiField nameSetField = mock(PsiField.class);
+        BuilderPsiClassBuilder builder = psiClassBuilder;
+        setField(builder, "methodCreator", methodCreator);
+        given(methodCreator.createValueField(nameProperty)).willReturn(nameField);
+        given(methodCreator.createSetFlagField(nameProperty)).willReturn(nameSetField);
+
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder).withFields();
+        builder.withFields();
 
         // then
-        verify(psiFieldsModifier).modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
-        assertThat(result, is(sameInstance(psiClassBuilder)));
+        InOrder inOrder = inOrder(builderClass);
+        inOrder.verify(builderClass).add(nameField);
+        inOrder.verify(builderClass).add(nameSetField);
     }
 
     @Test
-    @Ignore
-    public void shouldAddPrivateConstructorToBuildClass() {
+    public void shouldAddButMethodRenderedFromSpec() {
         // given
-        PsiMethod constructor = mock(PsiMethod.class);
-        PsiModifierList modifierList = mock(PsiModifierList.class);
-        given(constructor.getModifierList()).willReturn(modifierList);
-        given(elementFactory.createConstructor()).willReturn(constructor);
+        String butMethodText = "public BuilderClassName but() { return aClassName(); }";
+        given(builderRenderer.renderButMethod(builderSpec)).willReturn(butMethodText);
+        given(elementFactory.createMethodFromText(butMethodText, builderClass)).willReturn(psiMethod);
 
         // when
-        psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder).withPrivateConstructor();
+        psiClassBuilder.withButMethod();
 
         // then
-        verify(modifierList).setModifierProperty("private", true);
-        verify(builderClass).add(constructor);
+        verify(builderClass).add(psiMethod);
         verifyNoMoreInteractions(builderClass);
     }
 
     @Test
-    public void shouldAddInitializingMethod() {
+    public void shouldAddBuildIntoMethodRenderedFromSpec() {
         // given
-        PsiMethod method = mock(PsiMethod.class);
-        given(elementFactory.createMethodFromText(
-                "public static " + builderClassName + " a" + srcClassName + "() { return new " + builderClassName + "();}", srcClass)).willReturn(method);
+        String buildIntoMethodText = "public ClassName buildInto(ClassName target) { return target; }";
+        given(builderRenderer.renderBuildIntoMethod(builderSpec)).willReturn(buildIntoMethodText);
+        given(elementFactory.createMethodFromText(buildIntoMethodText, builderClass)).willReturn(psiMethod);
 
         // when
-        psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder).withInitializingMethod();
+        psiClassBuilder.withBuildIntoMethod();
 
         // then
-        verify(builderClass).add(method);
+        verify(builderClass).add(psiMethod);
         verifyNoMoreInteractions(builderClass);
     }
 
     @Test
-    public void shouldAddInitializingMethodStartingWithAnIfSourceClassNameStartsWithVowel() {
+    public void shouldAddPrivateConstructorToBuildClass() {
         // given
-        PsiMethod method = mock(PsiMethod.class);
-        String srcClassNameStartingWithVowel = "Inventory";
-        given(srcClass.getName()).willReturn(srcClassNameStartingWithVowel);
-        given(elementFactory.createMethodFromText(
-                "public static " + builderClassName + " an" + srcClassNameStartingWithVowel + "() { return new " + builderClassName + "();}", srcClass)).willReturn(method);
+        given(builderMethodTemplates.createConstructor(builderClassName, srcClassName, srcClassFieldName)).willReturn(psiMethod);
 
         // when
-        psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder).withInitializingMethod();
+        psiClassBuilder.withPrivateConstructor();
 
         // then
-        verify(builderClass).add(method);
+        verify(builderClass).add(psiMethod);
         verifyNoMoreInteractions(builderClass);
     }
 
     @Test
-    public void shouldAddSetMethodsForFieldsFromBothLists() {
-        // given
-        PsiFieldImpl psiFieldForSetter = mock(PsiFieldImpl.class);
-        psiFieldsForSetters.add(psiFieldForSetter);
-        PsiFieldImpl psiFieldForConstructor = mock(PsiFieldImpl.class);
-        psiFieldsForConstructor.add(psiFieldForConstructor);
-        String methodPrefix = "with";
-        PsiMethod methodForFieldForSetter = mock(PsiMethod.class);
-        PsiMethod methodForFieldForConstructor = mock(PsiMethod.class);
-        given(methodCreator.createMethod(psiFieldForSetter, methodPrefix)).willReturn(methodForFieldForSetter);
-        given(methodCreator.createMethod(psiFieldForConstructor, methodPrefix)).willReturn(methodForFieldForConstructor);
-        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder);
+    public void shouldAddInitializingMethod() {
+        // given
+        given(builderMethodTemplates.createInitializingMethod(builderClassName, "aClassName")).willReturn(psiMethod);
+
+        // when
+        psiClassBuilder.withInitializingMethod();
+
+        // then
+        verify(builderClass).add(psiMethod);
+        verifyNoMoreInteractions(builderClass);
+    }
+
+    @Test
+    public void shouldAddSetMethodsForAllProperties() {
+        // given
+        PsiMethod nameMethod = mock(PsiMethod.class);
+        PsiMethod ageMethod = mock(PsiMethod.class);
+        given(methodCreator.createMethod(nameProperty, srcClassFieldName)).willReturn(nameMethod);
+        given(methodCreator.createMethod(ageProperty, srcClassFieldName)).willReturn(ageMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder;
         setField(builder, "methodCreator", methodCreator);
 
         // when
-        builder.withSetMethods(methodPrefix);
+        builder.withSetMethods("with");
 
         // then
-        verify(builderClass).add(methodForFieldForSetter);
-        verify(builderClass).add(methodForFieldForConstructor);
+        verify(builderClass).add(nameMethod);
+        verify(builderClass).add(ageMethod);
         verifyNoMoreInteractions(builderClass);
     }
 
     @Test
-    public void shouldAddButMethod() {
+    public void shouldFormatBuilderClassAndAttachItToTargetDirectoryOnce() {
         // given
-        given(butMethodCreator.butMethod(builderClassName, builderClass, srcClass)).willReturn(psiMethod);
-        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder);
-        setField(builder, "butMethodCreator", butMethodCreator);
+        given(builderMethodTemplates.createBuildMethod(srcClassName, srcClassFieldName)).willReturn(psiMethod);
+        given(builderFileCreator.attach(targetDirectory, builderFile, builderClassName)).willReturn(attachedBuilderClass);
 
         // when
-        BuilderPsiClassBuilder result = builder.withButMethod();
+        PsiClass result = psiClassBuilder.build();
 
         // then
-        verify(builderClass).add(psiMethod);
-        assertThat(result, is(sameInstance(psiClassBuilder)));
+        InOrder inOrder = inOrder(builderClass, builderFormatter, builderFileCreator);
+        inOrder.verify(builderClass).add(psiMethod);
+        inOrder.verify(builderFormatter).format(project, builderClass);
+        inOrder.verify(builderFileCreator).attach(targetDirectory, builderFile, builderClassName);
+        assertThat(result, is(attachedBuilderClass));
     }
 
     @Test
-    public void shouldReturnBuilderObjectWithBuildMethodUsingSetterAndConstructor() {
+    public void shouldAddNoSetMethodsForSpecWithoutProperties() {
         // given
-        PsiField psiFieldForSetter = mock(PsiField.class);
-        psiFieldsForSetters.add(psiFieldForSetter);
+        BuilderSpec emptySpec = new BuilderSpec("", builderClassName, srcClassName, srcClassName, srcClassFieldName, "aClassName",
+                Collections.<PropertySpec>emptyList(), NamingConvention.EMPTY);
+        given(psiHelper.createJavaFile(project, builderClassName, "public class " + builderClassName + " {\n}\n")).willReturn(builderFile);
+
+        // when
+        new BuilderPsiClassBuilder(project, targetDirectory, emptySpec, psiHelper, builderMethodTemplatesCache, builderFormatter, builderFileCreator,
+                builderRenderer).withSetMethods("with");
 
-        PsiField psiFieldForConstructor = mock(PsiField.class);
-        psiFieldsForConstructor.add(psiFieldForConstructor);
-        given(psiFieldForConstructor.getName()).willReturn("age");
+        // then
+        verifyZeroInteractions(builderClass);
+    }
 
-        given(psiFieldForSetter.getName()).willReturn("name");
-        PsiMethod method = mock(PsiMethod.class);
-        given(elementFactory.createMethodFromText("public " + srcClassName + " build() { " + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "(age);"
-                + srcClassFieldName + ".setName(name);return " + srcClassFieldName + ";}", srcClass)).willReturn(method);
+    @Test
+    public void shouldReleaseProjectAndPsiAfterBuild() {
         // when
-        PsiClass result = psiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder).build();
+        psiClassBuilder.build();
 
         // then
-        verify(builderClass).add(method);
-      //  verifyNoMoreInteractions(builderClass);
-        assertThat(result, is(notNullValue()));
+        assertThat(getField(psiClassBuilder, "project"), is(nullValue()));
+        assertThat(getField(psiClassBuilder, "targetDirectory"), is(nullValue()));
+        assertThat(getField(psiClassBuilder, "builderFile"), is(nullValue()));
+        assertThat(getField(psiClassBuilder, "builderClass"), is(nullValue()));
+        assertThat(getField(psiClassBuilder, "methodCreator"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReleaseProjectAndPsiWhenAttachingFails() {
+        // given
+        given(builderFileCreator.attach(targetDirectory, builderFile, builderClassName)).willThrow(new IllegalStateException());
+
+        // when
+        try {
+            psiClassBuilder.build();
+        } catch (IllegalStateException e) {
+            // then
+            assertThat(getField(psiClassBuilder, "project"), is(nullValue()));
+            return;
+        }
+        fail();
     }
 
     @Test(expected = IllegalStateException.class)
-    public void shouldThrowExceptionWhenInvokingWithPrivateConstructorIfFieldsNotSetBefore() {
+    public void shouldThrowExceptionWhenInvokingWithPrivateConstructorAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
         // when
         psiClassBuilder.withPrivateConstructor();
     }
 
     @Test(expected = IllegalStateException.class)
-    public void shouldThrowExceptionWhenInvokingWithInitializingMethodIfFieldsNotSetBefore() {
+    public void shouldThrowExceptionWhenInvokingWithInitializingMethodAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
         // when
         psiClassBuilder.withInitializingMethod();
     }
 
     @Test(expected = IllegalStateException.class)
-    public void shouldThrowExceptionWhenInvokingWithSetMethodsIfFieldsNotSetBefore() {
+    public void shouldThrowExceptionWhenInvokingWithSetMethodsAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
         // when
         psiClassBuilder.withSetMethods("with");
     }
 
     @Test(expected = IllegalStateException.class)
-    public void shouldThrowExceptionWhenInvokingWithFieldsMethodIfFieldsNotSetBefore() {
+    public void shouldThrowExceptionWhenInvokingWithButMethodAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
+        // when
+        psiClassBuilder.withButMethod();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenInvokingWithBuildIntoMethodAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
+        // when
+        psiClassBuilder.withBuildIntoMethod();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenInvokingWithFieldsMethodAfterBuild() {
+        // given
+        psiClassBuilder.build();
+
         // when
         psiClassBuilder.withFields();
     }
 
     @Test(expected = IllegalStateException.class)
-    public void shouldThrowExceptionWhenInvokingBuildMethodIfFieldsNotSetBefore() {
+    public void shouldThrowExceptionWhenInvokingBuildMethodTwice() {
+        // given
+        psiClassBuilder.build();
+
         // when
         psiClassBuilder.build();
     }
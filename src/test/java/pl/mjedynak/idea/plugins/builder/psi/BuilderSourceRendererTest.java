@@ -0,0 +1,189 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import org.junit.Test;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class BuilderSourceRendererTest {
+
+    private BuilderSourceRenderer builderSourceRenderer = new BuilderSourceRenderer();
+
+    @Test
+    public void shouldRenderWholeBuilderInOneText() {
+        // given
+        PropertySpec nameProperty = new PropertySpec(new PropertyName("m_name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER);
+        BuilderSpec builderSpec = new BuilderSpec("com.example", "PersonBuilder", "Person", "com.example.Person", "person", "aPerson",
+                Arrays.asList(nameProperty), NamingConvention.EMPTY);
+
+        // when
+        String result = builderSourceRenderer.render(builderSpec);
+
+        // then
+        assertThat(result, is("package com.example;\n\n"
+                + "public class PersonBuilder {\n"
+                + "    private com.example.Person person;\n"
+                + "    private java.lang.String m_name;\n"
+                + "    private boolean nameSet;\n\n"
+                + "    private PersonBuilder() {\n"
+                + "        person = new com.example.Person();\n"
+                + "    }\n\n"
+                + "    public static PersonBuilder aPerson() {\n"
+                + "        return new PersonBuilder();\n"
+                + "    }\n\n"
+                + "    public PersonBuilder name(java.lang.String m_name) {\n"
+                + "        this.m_name = m_name;\n"
+                + "        nameSet = true;\n"
+                + "        person.setName(m_name);\n"
+                + "        return this;\n"
+                + "    }\n\n"
+                + "    public PersonBuilder but() {\n"
+                + "        PersonBuilder builder = aPerson();\n"
+                + "        if (nameSet) {\n"
+                + "            builder.name(this.m_name);\n"
+                + "        }\n"
+                + "        return builder;\n"
+                + "    }\n\n"
+                + "    public com.example.Person buildInto(com.example.Person target) {\n"
+                + "        if (nameSet) {\n"
+                + "            target.setName(this.m_name);\n"
+                + "        }\n"
+                + "        return target;\n"
+                + "    }\n\n"
+                + "    public com.example.Person build() {\n"
+                + "        return person;\n"
+                + "    }\n"
+                + "}\n"));
+    }
+
+    @Test
+    public void shouldOmitPackageStatementForDefaultPackage() {
+        // given
+        BuilderSpec builderSpec = new BuilderSpec("", "ItemBuilder", "Item", "Item", "item", "anItem",
+                Collections.<PropertySpec>emptyList(), NamingConvention.EMPTY);
+
+        // when
+        String result = builderSourceRenderer.render(builderSpec);
+
+        // then
+        assertThat(result, containsString("public static ItemBuilder anItem()"));
+        assertThat(result, not(containsString("package")));
+    }
+
+    @Test
+    public void shouldRenderStaticNestedClassWithoutPackageStatementForInnerBuilder() {
+        // given
+        BuilderSpec builderSpec = new BuilderSpec("com.example", "Builder", "Person", "com.example.Person", "person", "aPerson",
+                Collections.<PropertySpec>emptyList(), NamingConvention.EMPTY).withOptions(new BuilderOptions(true, false, false, true));
+
+        // when
+        String result = builderSourceRenderer.render(builderSpec);
+
+        // then
+        assertThat(result, containsString("public static final class Builder {"));
+        assertThat(result, containsString("public static Builder aPerson()"));
+        assertThat(result, not(containsString("package")));
+    }
+
+    @Test
+    public void shouldCallTargetConstructorOnceInBuildMethodForImmutableTarget() {
+        // given
+        PropertySpec emailProperty = new PropertySpec(new PropertyName("email", "email", "setEmail"), "java.lang.String", FieldInitialization.SETTER);
+        PropertySpec nameProperty = new PropertySpec(new PropertyName("name", "name", "setName"), "java.lang.String", FieldInitialization.CONSTRUCTOR);
+        PropertySpec ageProperty = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.CONSTRUCTOR);
+        BuilderSpec builderSpec = new BuilderSpec("com.example", "PersonBuilder", "Person", "com.example.Person", "person", "aPerson",
+                Arrays.asList(emailProperty, nameProperty, ageProperty), NamingConvention.EMPTY).withOptions(new BuilderOptions(false, true, false, true));
+
+        // when
+        String result = builderSourceRenderer.render(builderSpec);
+
+        // then
+        assertThat(result, not(containsString("private com.example.Person person;")));
+        assertThat(result, not(containsString("person.setName(")));
+        assertThat(result, containsString("    private PersonBuilder() {\n    }\n"));
+        assertThat(result, containsString("    public com.example.Person build() {\n"
+                + "        com.example.Person person = new com.example.Person(this.name, this.age);\n"
+                + "        if (emailSet) {\n"
+                + "            person.setEmail(this.email);\n"
+                + "        }\n"
+                + "        return person;\n"
+                + "    }\n"));
+    }
+
+    @Test
+    public void shouldRenderThreadLocalAccessorNextToAllocatingInitializingMethodForReusableBuilder() {
+        // given
+        PropertySpec nameProperty = new PropertySpec(new PropertyName("name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER);
+        PropertySpec ageProperty = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.SETTER);
+        BuilderSpec builderSpec = new BuilderSpec("com.example", "PersonBuilder", "Person", "com.example.Person", "person", "aPerson",
+                Arrays.asList(nameProperty, ageProperty), NamingConvention.EMPTY).withOptions(new BuilderOptions(false, false, true, true));
+
+        // when
+        String result = builderSourceRenderer.render(builderSpec);
+
+        // then
+        assertThat(result, containsString("    private static final ThreadLocal<PersonBuilder> THREAD_BUILDER = new ThreadLocal<PersonBuilder>() {\n"));
+        assertThat(result, containsString("    public static PersonBuilder aPerson() {\n"
+                + "        return new PersonBuilder();\n"
+                + "    }\n"));
+        assertThat(result, containsString("    // Returns the same reset builder on every call in this thread, so it is not reentrant:\n"));
+        assertThat(result, containsString("    public static PersonBuilder threadLocalBuilder() {\n"
+                + "        return THREAD_BUILDER.get().reset();\n"
+                + "    }\n"));
+        assertThat(result, containsString("    public PersonBuilder reset() {\n"
+                + "        name = null;\n"
+                + "        nameSet = false;\n"
+                + "        age = 0;\n"
+                + "        ageSet = false;\n"
+                + "        return this;\n"
+                + "    }\n"));
+        assertThat(result, containsString("        PersonBuilder builder = aPerson();\n"));
+        assertThat(result, containsString("        com.example.Person person = new com.example.Person();\n"));
+        assertThat(result, containsString("        reset();\n"
+                + "        return person;\n"));
+        assertThat(result, not(containsString("private com.example.Person person;")));
+    }
+
+    @Test
+    public void shouldRenderButAndBuildIntoMethodsOnTheirOwnWithGivenSetFlagNames() {
+        // given
+        PropertySpec nameProperty = new PropertySpec(new PropertyName("name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER,
+                "nameSet2");
+        PropertySpec ageProperty = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.CONSTRUCTOR);
+        BuilderSpec builderSpec = new BuilderSpec("com.example", "PersonBuilder", "Person", "com.example.Person", "person", "aPerson",
+                Arrays.asList(nameProperty, ageProperty), NamingConvention.EMPTY);
+
+        // when
+        String butMethod = builderSourceRenderer.renderButMethod(builderSpec);
+        String buildIntoMethod = builderSourceRenderer.renderBuildIntoMethod(builderSpec);
+
+        // then
+        assertThat(butMethod, is("    public PersonBuilder but() {\n"
+                + "        PersonBuilder builder = aPerson();\n"
+                + "        if (nameSet2) {\n"
+                + "            builder.name(this.name);\n"
+                + "        }\n"
+                + "        if (ageSet) {\n"
+                + "            builder.age(this.age);\n"
+                + "        }\n"
+                + "        return builder;\n"
+                + "    }\n\n"));
+        assertThat(buildIntoMethod, is("    public com.example.Person buildInto(com.example.Person target) {\n"
+                + "        if (nameSet2) {\n"
+                + "            target.setName(this.name);\n"
+                + "        }\n"
+                + "        return target;\n"
+                + "    }\n\n"));
+    }
+}
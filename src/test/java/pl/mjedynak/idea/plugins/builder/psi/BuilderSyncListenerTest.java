@@ -0,0 +1,92 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiTreeChangeEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderSyncSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderSyncListenerTest {
+
+    @InjectMocks private BuilderSyncListener builderSyncListener;
+    @Mock private Project project;
+    @Mock private BuilderSyncQueue builderSyncQueue;
+    @Mock private BuilderSyncSettings builderSyncSettings;
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private PsiTreeChangeEvent event;
+    @Mock private PsiJavaFile psiFile;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass builderClass;
+
+    @Before
+    public void setUp() {
+        given(event.getFile()).willReturn(psiFile);
+        given(psiFile.isPhysical()).willReturn(true);
+        given(psiFile.getClasses()).willReturn(new PsiClass[]{psiClass, builderClass});
+        given(psiClass.getName()).willReturn("Person");
+        given(builderClass.getName()).willReturn("PersonBuilder");
+        given(builderVerifier.isBuilder(builderClass)).willReturn(true);
+    }
+
+    @Test
+    public void shouldMarkEditedSourceClassesDirtyWhenSyncIsEnabled() {
+        // given
+        given(builderSyncSettings.isEnabled(project)).willReturn(true);
+
+        // when
+        builderSyncListener.childrenChanged(event);
+
+        // then
+        verify(builderSyncQueue).markDirty(psiClass);
+        verify(builderSyncQueue, never()).markDirty(builderClass);
+    }
+
+    @Test
+    public void shouldIgnoreChangesWhenSyncIsDisabled() {
+        // when
+        builderSyncListener.childAdded(event);
+
+        // then
+        verifyZeroInteractions(builderSyncQueue);
+    }
+
+    @Test
+    public void shouldIgnoreNonPhysicalFiles() {
+        // given
+        given(builderSyncSettings.isEnabled(project)).willReturn(true);
+        given(psiFile.isPhysical()).willReturn(false);
+
+        // when
+        builderSyncListener.childReplaced(event);
+
+        // then
+        verifyZeroInteractions(builderSyncQueue);
+    }
+
+    @Test
+    public void shouldRememberFieldsOfSourceClassesBeforeTheyChange() {
+        // given
+        given(builderSyncSettings.isEnabled(project)).willReturn(true);
+
+        // when
+        builderSyncListener.beforeChildrenChange(event);
+
+        // then
+        verify(builderSyncQueue).rememberFieldNames(psiClass);
+        verify(builderSyncQueue, never()).rememberFieldNames(builderClass);
+        verify(builderSyncQueue, never()).markDirty(psiClass);
+    }
+}
@@ -0,0 +1,124 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.Alarm;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSyncTaskFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderSyncQueueTest {
+
+    @InjectMocks private BuilderSyncQueue builderSyncQueue;
+    @Mock private Project project;
+    @Mock private Alarm alarm;
+    @Mock private BuilderSyncTaskFactory builderSyncTaskFactory;
+    @Mock private PsiHelper psiHelper;
+    @Mock private ProgressManager progressManager;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass otherClass;
+    @Mock private SmartPsiElementPointer<PsiClass> pointer;
+    @Mock private SmartPsiElementPointer<PsiClass> otherPointer;
+    @Mock private BuilderSyncTask builderSyncTask;
+
+    @Before
+    public void setUp() {
+        given(psiHelper.getProgressManager()).willReturn(progressManager);
+        given(psiClass.getQualifiedName()).willReturn("pl.Person");
+        given(otherClass.getQualifiedName()).willReturn("pl.Address");
+        given(psiHelper.createSmartPointer(psiClass)).willReturn(pointer);
+        given(psiHelper.createSmartPointer(otherClass)).willReturn(otherPointer);
+    }
+
+    @Test
+    public void shouldRestartDelayOnEveryChange() {
+        // when
+        builderSyncQueue.markDirty(psiClass);
+        builderSyncQueue.markDirty(psiClass);
+
+        // then
+        verify(alarm, times(2)).cancelAllRequests();
+        verify(alarm, times(2)).addRequest(any(Runnable.class), eq(BuilderSyncQueue.SYNC_DELAY_MILLIS));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldCoalesceChangesToOneSyncPerClass() {
+        // given
+        List<SmartPsiElementPointer<PsiClass>> expectedClasses = Arrays.asList(pointer, otherPointer);
+        given(builderSyncTaskFactory.createBuilderSyncTask(project, expectedClasses, builderSyncQueue)).willReturn(builderSyncTask);
+        builderSyncQueue.markDirty(psiClass);
+        builderSyncQueue.markDirty(otherClass);
+        builderSyncQueue.markDirty(psiClass);
+
+        // when
+        builderSyncQueue.flush();
+
+        // then
+        verify(psiHelper, times(1)).createSmartPointer(psiClass);
+        verify(progressManager).run(builderSyncTask);
+    }
+
+    @Test
+    public void shouldNotStartTaskWhenNothingIsDirty() {
+        // when
+        builderSyncQueue.flush();
+
+        // then
+        verifyZeroInteractions(builderSyncTaskFactory, progressManager);
+    }
+
+    @Test
+    public void shouldClearDirtyClassesAfterFlush() {
+        // given
+        builderSyncQueue.markDirty(psiClass);
+        builderSyncQueue.flush();
+
+        // when
+        builderSyncQueue.flush();
+
+        // then
+        verify(builderSyncTaskFactory, times(1)).createBuilderSyncTask(eq(project), anyListOf(SmartPsiElementPointer.class), eq(builderSyncQueue));
+    }
+
+    @Test
+    public void shouldKeepFieldsRememberedBeforeFirstChange() {
+        // given
+        PsiField nameField = mock(PsiField.class);
+        PsiField ageField = mock(PsiField.class);
+        given(nameField.getName()).willReturn("name");
+        given(ageField.getName()).willReturn("age");
+        given(psiClass.getAllFields()).willReturn(new PsiField[]{nameField}, new PsiField[]{nameField, ageField});
+
+        // when
+        builderSyncQueue.rememberFieldNames(psiClass);
+        builderSyncQueue.rememberFieldNames(psiClass);
+
+        // then
+        assertThat(builderSyncQueue.getKnownFieldNames("pl.Person"), is((Set<String>) ImmutableSet.of("name")));
+    }
+}
@@ -0,0 +1,207 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPsiElementPointer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderUpdateWriter;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderSyncTaskTest {
+
+    @Mock private Project project;
+    @Mock private SmartPsiElementPointer<PsiClass> pointer;
+    @Mock private BuilderSyncQueue builderSyncQueue;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private BuilderDiffCalculator builderDiffCalculator;
+    @Mock private BuilderUpdateWriter builderUpdateWriter;
+    @Mock private CodeStyleSettings codeStyleSettings;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass builderClass;
+    @Mock private BuilderDiff builderDiff;
+    @Mock private PsiFile srcFile;
+    @Mock private PsiFile builderFile;
+
+    private BuilderSyncTask builderSyncTask;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        builderSyncTask = new BuilderSyncTask(project, Arrays.asList(pointer), builderSyncQueue, psiHelper, builderFinder, builderDiffCalculator,
+                builderUpdateWriter);
+        setField(builderSyncTask, "codeStyleSettings", codeStyleSettings);
+        given(codeStyleSettings.getNamingConvention(project)).willReturn(NamingConvention.EMPTY);
+        given(pointer.getElement()).willReturn(psiClass);
+        given(psiClass.isValid()).willReturn(true);
+        given(builderClass.isWritable()).willReturn(true);
+        given(builderClass.isValid()).willReturn(true);
+        given(psiClass.getContainingFile()).willReturn(srcFile);
+        given(builderClass.getContainingFile()).willReturn(builderFile);
+        given(srcFile.getModificationStamp()).willReturn(7L);
+        given(builderFile.getModificationStamp()).willReturn(3L);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(builderDiffCalculator.isUpdatable(psiClass, builderClass)).willReturn(true);
+        given(psiClass.getQualifiedName()).willReturn("pl.Person");
+        PsiField[] fields = {field("name"), field("surname"), field("age")};
+        given(psiClass.getAllFields()).willReturn(fields);
+        given(builderDiffCalculator.getFieldNamesInBuilder(psiClass, builderClass, NamingConvention.EMPTY)).willReturn(ImmutableSet.of("name"));
+        given(builderDiffCalculator.calculate(psiClass, builderClass, NamingConvention.EMPTY, ImmutableSet.of("name"))).willReturn(builderDiff);
+    }
+
+    @Test
+    public void shouldBeCancellableBackgroundTask() {
+        // then
+        assertThat(builderSyncTask.isCancellable(), is(true));
+        assertThat(builderSyncTask.getTitle(), is(BuilderSyncTask.TITLE));
+    }
+
+    @Test
+    public void shouldNotPlanUpdateWhenBuilderIsUpToDate() {
+        // given
+        given(builderDiff.isEmpty()).willReturn(true);
+
+        // when
+        BuilderSyncTask.PendingUpdate result = builderSyncTask.calculate(pointer);
+
+        // then
+        assertThat(result, is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotPlanUpdateWhenThereIsNoBuilder() {
+        // given
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(null);
+
+        // when
+        BuilderSyncTask.PendingUpdate result = builderSyncTask.calculate(pointer);
+
+        // then
+        assertThat(result, is(nullValue()));
+        verifyZeroInteractions(builderDiffCalculator);
+    }
+
+    @Test
+    public void shouldNotPlanUpdateOfBuilderCreatingTargetInBuildMethod() {
+        // given
+        given(builderDiffCalculator.isUpdatable(psiClass, builderClass)).willReturn(false);
+
+        // when
+        BuilderSyncTask.PendingUpdate result = builderSyncTask.calculate(pointer);
+
+        // then
+        assertThat(result, is(nullValue()));
+        verify(builderDiffCalculator, never()).calculate(psiClass, builderClass, NamingConvention.EMPTY, ImmutableSet.of("name"));
+        verify(builderSyncQueue, never()).setKnownFieldNames(anyString(), anySetOf(String.class));
+    }
+
+    @Test
+    public void shouldWriteCalculatedDiffWhenNothingChangedInBetween() {
+        // given
+        BuilderSyncTask.PendingUpdate pendingUpdate = builderSyncTask.calculate(pointer);
+
+        // when
+        builderSyncTask.apply(Arrays.asList(pendingUpdate));
+
+        // then
+        verify(builderUpdateWriter).writeUpdates(project, ImmutableMap.of(builderClass, builderDiff));
+        verify(builderSyncQueue).setKnownFieldNames("pl.Person", ImmutableSet.of("name", "surname", "age"));
+        verify(builderSyncQueue, never()).markDirty(psiClass);
+    }
+
+    @Test
+    public void shouldRescheduleClassWhenItsFileChangedBeforeWrite() {
+        // given
+        given(srcFile.getModificationStamp()).willReturn(7L, 8L);
+        BuilderSyncTask.PendingUpdate pendingUpdate = builderSyncTask.calculate(pointer);
+
+        // when
+        builderSyncTask.apply(Arrays.asList(pendingUpdate));
+
+        // then
+        verify(builderSyncQueue).markDirty(psiClass);
+        verify(builderSyncQueue, never()).setKnownFieldNames(anyString(), anySetOf(String.class));
+        verifyZeroInteractions(builderUpdateWriter);
+    }
+
+    @Test
+    public void shouldAddOnlyFieldsThatAreNewSinceTheyWereLastSeen() {
+        // given
+        given(builderSyncQueue.getKnownFieldNames("pl.Person")).willReturn(ImmutableSet.of("name", "surname"));
+        BuilderDiff expectedDiff = mock(BuilderDiff.class);
+        given(builderDiffCalculator.calculate(psiClass, builderClass, NamingConvention.EMPTY, ImmutableSet.of("name", "age"))).willReturn(expectedDiff);
+
+        // when
+        builderSyncTask.apply(Arrays.asList(builderSyncTask.calculate(pointer)));
+
+        // then
+        verify(builderUpdateWriter).writeUpdates(project, ImmutableMap.of(builderClass, expectedDiff));
+    }
+
+    @Test
+    public void shouldRememberFieldsWhenBuilderIsUpToDate() {
+        // given
+        given(builderDiff.isEmpty()).willReturn(true);
+
+        // when
+        builderSyncTask.calculate(pointer);
+
+        // then
+        verify(builderSyncQueue).setKnownFieldNames("pl.Person", ImmutableSet.of("name", "surname", "age"));
+    }
+
+    private PsiField field(String name) {
+        PsiField field = mock(PsiField.class);
+        given(field.getName()).willReturn(name);
+        return field;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldWriteUpToDateUpdatesInOneCommandAndRescheduleStaleOnes() {
+        // given
+        SmartPsiElementPointer<PsiClass> otherPointer = mock(SmartPsiElementPointer.class);
+        PsiClass otherClass = mock(PsiClass.class);
+        PsiClass otherBuilderClass = mock(PsiClass.class);
+        given(otherPointer.getElement()).willReturn(otherClass);
+        given(otherClass.isValid()).willReturn(true);
+        given(otherClass.getContainingFile()).willReturn(srcFile);
+        BuilderSyncTask.PendingUpdate pendingUpdate = builderSyncTask.calculate(pointer);
+        BuilderSyncTask.PendingUpdate staleUpdate = new BuilderSyncTask.PendingUpdate(otherPointer, 7L, otherBuilderClass, 3L, mock(BuilderDiff.class),
+                "pl.Address", ImmutableSet.of("street"));
+
+        // when
+        builderSyncTask.apply(Arrays.asList(pendingUpdate, staleUpdate));
+
+        // then
+        verify(builderUpdateWriter).writeUpdates(project, ImmutableMap.of(builderClass, builderDiff));
+        verify(builderSyncQueue).markDirty(otherClass);
+        verify(builderSyncQueue, never()).setKnownFieldNames("pl.Address", ImmutableSet.of("street"));
+    }
+}
@@ -0,0 +1,234 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiTypeElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderUpdaterTest {
+
+    @InjectMocks private BuilderUpdater builderUpdater;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderMethodTemplatesCache builderMethodTemplatesCache;
+    @Mock private BuilderMethodTemplates builderMethodTemplates;
+    @Mock private BuilderRenderer<String> builderRenderer;
+    @Mock private BuilderFormatter builderFormatter;
+    @Mock private Project project;
+    @Mock private JavaPsiFacade javaPsiFacade;
+    @Mock private PsiElementFactory elementFactory;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiMethod buildMethod;
+
+    private PropertySpec ageProperty = new PropertySpec(new PropertyName("age", "age", "setAge"), "int", FieldInitialization.SETTER);
+    private BuilderSpec builderSpec = new BuilderSpec("", "PersonBuilder", "Person", "Person", "person", "aPerson", Arrays.asList(ageProperty),
+            NamingConvention.EMPTY);
+
+    @Before
+    public void setUp() {
+        given(psiHelper.getJavaPsiFacade(project)).willReturn(javaPsiFacade);
+        given(javaPsiFacade.getElementFactory()).willReturn(elementFactory);
+        given(builderMethodTemplatesCache.getTemplates(project)).willReturn(builderMethodTemplates);
+        given(builderClass.findMethodsByName("build", false)).willReturn(new PsiMethod[]{buildMethod});
+        given(builderClass.findMethodsByName("but", false)).willReturn(new PsiMethod[0]);
+        given(builderClass.findMethodsByName("buildInto", false)).willReturn(new PsiMethod[0]);
+        given(builderClass.getFields()).willReturn(new PsiField[0]);
+        given(builderClass.findMethodsByName("age", false)).willReturn(new PsiMethod[0]);
+    }
+
+    @Test
+    public void shouldDeleteRemovedMethodsAndInsertAddedOnesBeforeBuildMethod() {
+        // given
+        PsiMethod removedMethod = setMethod("surname", "surnameSet2");
+        PsiField removedValueField = mock(PsiField.class);
+        PsiField removedSetFlagField = mock(PsiField.class);
+        given(builderClass.findFieldByName("surname", false)).willReturn(removedValueField);
+        given(builderClass.findFieldByName("surnameSet2", false)).willReturn(removedSetFlagField);
+        PsiMethod addedMethod = mock(PsiMethod.class);
+        PsiMethod insertedMethod = mock(PsiMethod.class);
+        PsiField valueField = mock(PsiField.class);
+        PsiField setFlagField = mock(PsiField.class);
+        PsiElement insertedValueField = mock(PsiField.class);
+        PsiElement insertedSetFlagField = mock(PsiField.class);
+        PsiTypeElement typeElement = mock(PsiTypeElement.class);
+        given(elementFactory.createTypeElementFromText("int", null)).willReturn(typeElement);
+        given(builderMethodTemplates.createValueField(typeElement, ageProperty)).willReturn(valueField);
+        given(builderMethodTemplates.createSetFlagField(ageProperty)).willReturn(setFlagField);
+        given(builderMethodTemplates.createSetMethod("PersonBuilder", "person", typeElement, ageProperty)).willReturn(addedMethod);
+        given(builderClass.add(valueField)).willReturn(insertedValueField);
+        given(builderClass.add(setFlagField)).willReturn(insertedSetFlagField);
+        given(builderClass.addBefore(addedMethod, buildMethod)).willReturn(insertedMethod);
+        BuilderDiff builderDiff = new BuilderDiff(builderSpec, Arrays.asList(ageProperty), Arrays.asList(removedMethod),
+                Collections.<PsiMethod, PropertySpec>emptyMap());
+
+        // when
+        List<PsiElement> result = builderUpdater.update(project, builderClass, builderDiff);
+
+        // then
+        verify(removedMethod).delete();
+        verify(removedValueField).delete();
+        verify(removedSetFlagField).delete();
+        assertThat(result, is(Arrays.<PsiElement>asList(insertedValueField, insertedSetFlagField, insertedMethod)));
+        verify(builderFormatter).formatElements(project, result);
+    }
+
+    @Test
+    public void shouldReplaceOnlyParameterTypeOfRetypedMethod() {
+        // given
+        PsiMethod retypedMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiParameter parameter = mock(PsiParameter.class);
+        PsiTypeElement oldTypeElement = mock(PsiTypeElement.class);
+        PsiTypeElement newTypeElement = mock(PsiTypeElement.class);
+        PsiTypeElement replacedTypeElement = mock(PsiTypeElement.class);
+        given(retypedMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[]{parameter});
+        given(parameter.getTypeElement()).willReturn(oldTypeElement);
+        given(elementFactory.createTypeElementFromText("int", builderClass)).willReturn(newTypeElement);
+        given(oldTypeElement.replace(newTypeElement)).willReturn(replacedTypeElement);
+        BuilderDiff builderDiff = new BuilderDiff(builderSpec, Collections.<PropertySpec>emptyList(), Collections.<PsiMethod>emptyList(),
+                ImmutableMap.of(retypedMethod, ageProperty));
+
+        // when
+        List<PsiElement> result = builderUpdater.update(project, builderClass, builderDiff);
+
+        // then
+        assertThat(result, is(Arrays.<PsiElement>asList(replacedTypeElement)));
+        verify(builderClass, never()).addBefore(any(PsiElement.class), any(PsiElement.class));
+    }
+
+    @Test
+    public void shouldRegenerateButMethodWithRendererFromPropertiesBackedByBuilderFields() {
+        // given
+        PsiMethod butMethod = mock(PsiMethod.class);
+        PsiMethod updatedButMethod = mock(PsiMethod.class);
+        PsiMethod replacedButMethod = mock(PsiMethod.class);
+        given(builderClass.findMethodsByName("but", false)).willReturn(new PsiMethod[]{butMethod});
+        givenExistingSetMethodOfAgeWithFlag("ageFlag");
+        given(builderRenderer.renderButMethod(any(BuilderSpec.class))).willReturn("    but text\n\n");
+        given(elementFactory.createMethodFromText("but text", builderClass)).willReturn(updatedButMethod);
+        given(butMethod.replace(updatedButMethod)).willReturn(replacedButMethod);
+        BuilderDiff builderDiff = new BuilderDiff(builderSpec, Collections.<PropertySpec>emptyList(), Arrays.asList(setMethod("surname", "surnameSet")),
+                Collections.<PsiMethod, PropertySpec>emptyMap());
+
+        // when
+        List<PsiElement> result = builderUpdater.update(project, builderClass, builderDiff);
+
+        // then
+        assertThat(result, is(Arrays.<PsiElement>asList(replacedButMethod)));
+        ArgumentCaptor<BuilderSpec> renderedSpec = ArgumentCaptor.forClass(BuilderSpec.class);
+        verify(builderRenderer).renderButMethod(renderedSpec.capture());
+        assertThat(renderedSpec.getValue().getProperties().size(), is(1));
+        assertThat(renderedSpec.getValue().getProperties().get(0).getSetFlagName(), is("ageFlag"));
+    }
+
+    @Test
+    public void shouldRegenerateBuildIntoMethodWithRendererFromPropertiesBackedByBuilderFields() {
+        // given
+        PsiMethod buildIntoMethod = mock(PsiMethod.class);
+        PsiMethod updatedBuildIntoMethod = mock(PsiMethod.class);
+        PsiMethod replacedBuildIntoMethod = mock(PsiMethod.class);
+        given(builderClass.findMethodsByName("buildInto", false)).willReturn(new PsiMethod[]{buildIntoMethod});
+        givenExistingSetMethodOfAgeWithFlag("ageSet");
+        given(builderRenderer.renderBuildIntoMethod(any(BuilderSpec.class))).willReturn("    buildInto text\n\n");
+        given(elementFactory.createMethodFromText("buildInto text", builderClass)).willReturn(updatedBuildIntoMethod);
+        given(buildIntoMethod.replace(updatedBuildIntoMethod)).willReturn(replacedBuildIntoMethod);
+        BuilderDiff builderDiff = new BuilderDiff(builderSpec, Collections.<PropertySpec>emptyList(), Arrays.asList(setMethod("surname", "surnameSet")),
+                Collections.<PsiMethod, PropertySpec>emptyMap());
+
+        // when
+        List<PsiElement> result = builderUpdater.update(project, builderClass, builderDiff);
+
+        // then
+        assertThat(result, is(Arrays.<PsiElement>asList(replacedBuildIntoMethod)));
+    }
+
+    @Test
+    public void shouldRenameSetFlagOfAddedPropertyWhenBuilderAlreadyHasFieldWithThatName() {
+        // given
+        PsiField existingField = mock(PsiField.class);
+        given(existingField.getName()).willReturn("ageSet");
+        given(builderClass.findFieldByName("ageSet", false)).willReturn(existingField);
+        given(builderClass.getFields()).willReturn(new PsiField[]{existingField});
+        PsiTypeElement typeElement = mock(PsiTypeElement.class);
+        given(elementFactory.createTypeElementFromText("int", null)).willReturn(typeElement);
+        BuilderDiff builderDiff = new BuilderDiff(builderSpec, Arrays.asList(ageProperty), Collections.<PsiMethod>emptyList(),
+                Collections.<PsiMethod, PropertySpec>emptyMap());
+
+        // when
+        builderUpdater.update(project, builderClass, builderDiff);
+
+        // then
+        ArgumentCaptor<PropertySpec> addedProperty = ArgumentCaptor.forClass(PropertySpec.class);
+        verify(builderMethodTemplates).createSetFlagField(addedProperty.capture());
+        assertThat(addedProperty.getValue().getSetFlagName(), is("ageSet2"));
+    }
+
+    private void givenExistingSetMethodOfAgeWithFlag(String setFlagName) {
+        given(builderClass.findMethodsByName("age", false)).willReturn(new PsiMethod[]{setMethod("age", setFlagName)});
+        given(builderClass.findFieldByName("age", false)).willReturn(mock(PsiField.class));
+        given(builderClass.findFieldByName(setFlagName, false)).willReturn(mock(PsiField.class));
+    }
+
+    private PsiMethod setMethod(String name, String setFlagName) {
+        PsiMethod method = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiParameter parameter = mock(PsiParameter.class);
+        given(method.getName()).willReturn(name);
+        given(method.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[]{parameter});
+        given(parameterList.getParametersCount()).willReturn(1);
+        given(parameter.getName()).willReturn(name);
+        PsiCodeBlock body = mock(PsiCodeBlock.class);
+        PsiExpressionStatement flagStatement = mock(PsiExpressionStatement.class);
+        PsiAssignmentExpression flagAssignment = mock(PsiAssignmentExpression.class);
+        PsiReferenceExpression flagReference = mock(PsiReferenceExpression.class);
+        PsiExpression trueLiteral = mock(PsiExpression.class);
+        given(method.getBody()).willReturn(body);
+        given(body.getStatements()).willReturn(new PsiStatement[]{flagStatement});
+        given(flagStatement.getExpression()).willReturn(flagAssignment);
+        given(flagAssignment.getLExpression()).willReturn(flagReference);
+        given(flagAssignment.getRExpression()).willReturn(trueLiteral);
+        given(flagReference.getReferenceName()).willReturn(setFlagName);
+        given(trueLiteral.getText()).willReturn("true");
+        return method;
+    }
+}
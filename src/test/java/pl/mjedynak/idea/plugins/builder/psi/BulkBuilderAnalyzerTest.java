@@ -0,0 +1,186 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderSpecFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkBuilderAnalyzerTest {
+
+    @InjectMocks private BulkBuilderAnalyzer bulkBuilderAnalyzer;
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock private BuilderSpecFactory builderSpecFactory;
+    @Mock private PsiDirectory directory;
+    @Mock private PsiDirectory subdirectory;
+    @Mock private PsiJavaFile javaFile;
+    @Mock private PsiJavaFile otherJavaFile;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass otherClass;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiField psiField;
+    @Mock private BuilderSpec builderSpec;
+
+    private NamingConvention namingConvention = NamingConvention.EMPTY;
+
+    @Before
+    public void setUp() {
+        given(psiClass.getName()).willReturn("Person");
+        given(otherClass.getName()).willReturn("Address");
+        given(builderClass.getName()).willReturn("PersonBuilder");
+        given(builderVerifier.isBuilder(builderClass)).willReturn(true);
+    }
+
+    @Test
+    public void shouldCollectNonBuilderClassesFromDirectoriesRecursively() {
+        // given
+        given(directory.getSubdirectories()).willReturn(new PsiDirectory[]{subdirectory});
+        given(directory.getFiles()).willReturn(new PsiFile[]{javaFile});
+        given(subdirectory.getSubdirectories()).willReturn(new PsiDirectory[0]);
+        given(subdirectory.getFiles()).willReturn(new PsiFile[]{otherJavaFile});
+        given(javaFile.getClasses()).willReturn(new PsiClass[]{psiClass, builderClass});
+        given(otherJavaFile.getClasses()).willReturn(new PsiClass[]{otherClass});
+
+        // when
+        List<PsiClass> result = bulkBuilderAnalyzer.collectClasses(new PsiElement[]{directory, psiClass});
+
+        // then
+        assertThat(result, is(Arrays.asList(otherClass, psiClass)));
+    }
+
+    @Test
+    public void shouldSkipClassWithExistingBuilder() {
+        // given
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.isSkipped(), is(true));
+        assertThat(result.getSkipReason(), is(BulkBuilderAnalyzer.BUILDER_EXISTS));
+    }
+
+    @Test
+    public void shouldSkipInterfaces() {
+        // given
+        given(psiClass.isInterface()).willReturn(true);
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.getSkipReason(), is(BulkBuilderAnalyzer.NOT_A_CLASS));
+    }
+
+    @Test
+    public void shouldSkipClassWithoutFieldsToSet() {
+        // given
+        given(psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention)).willReturn(psiFieldsAnalysis);
+        given(psiFieldsAnalysis.getFields()).willReturn(Collections.<PsiField>emptyList());
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.getSkipReason(), is(BulkBuilderAnalyzer.NO_FIELDS));
+    }
+
+    @Test
+    public void shouldCreateSpecForBuilderNextToSourceClassUsingAllFields() {
+        // given
+        List<PsiField> fields = Arrays.asList(psiField);
+        given(psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention)).willReturn(psiFieldsAnalysis);
+        given(psiFieldsAnalysis.getFields()).willReturn(fields);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis)).willReturn(psiFieldsForBuilder);
+        given(psiClass.getContainingFile()).willReturn(javaFile);
+        given(javaFile.getContainingDirectory()).willReturn(directory);
+        given(builderSpecFactory.createBuilderSpec(directory, "PersonBuilder", psiClass, psiFieldsForBuilder, namingConvention)).willReturn(builderSpec);
+        given(builderSpec.withOptions(BuilderOptions.DEFAULT)).willReturn(builderSpec);
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.isSkipped(), is(false));
+        assertThat(result.getBuilderSpec(), is(builderSpec));
+        assertThat(result.getTargetDirectory(), is(directory));
+    }
+
+    @Test
+    public void shouldCreateTargetThroughConstructorWhenSomeFieldsAreSetOnlyInConstructor() {
+        // given
+        List<PsiField> fields = Arrays.asList(psiField);
+        PsiFieldsForBuilder constructorFieldsForBuilder = mock(PsiFieldsForBuilder.class);
+        BuilderSpec constructorSpec = mock(BuilderSpec.class);
+        given(psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention)).willReturn(psiFieldsAnalysis);
+        given(psiFieldsAnalysis.getFields()).willReturn(fields);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis)).willReturn(psiFieldsForBuilder);
+        given(psiFieldsForBuilder.getFieldsForConstructor()).willReturn(fields);
+        given(psiFieldsForBuilderFactory.hasUsableConstructor(psiFieldsAnalysis, BulkBuilderAnalyzer.CONSTRUCTOR_OPTIONS)).willReturn(true);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis, BulkBuilderAnalyzer.CONSTRUCTOR_OPTIONS))
+                .willReturn(constructorFieldsForBuilder);
+        given(psiClass.getContainingFile()).willReturn(javaFile);
+        given(javaFile.getContainingDirectory()).willReturn(directory);
+        given(builderSpecFactory.createBuilderSpec(directory, "PersonBuilder", psiClass, constructorFieldsForBuilder, namingConvention))
+                .willReturn(builderSpec);
+        given(builderSpec.withOptions(BulkBuilderAnalyzer.CONSTRUCTOR_OPTIONS)).willReturn(constructorSpec);
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.isSkipped(), is(false));
+        assertThat(result.getBuilderSpec(), is(constructorSpec));
+    }
+
+    @Test
+    public void shouldSkipClassWithFieldsSetOnlyInConstructorWhenNoConstructorIsUsable() {
+        // given
+        List<PsiField> fields = Arrays.asList(psiField);
+        given(psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention)).willReturn(psiFieldsAnalysis);
+        given(psiFieldsAnalysis.getFields()).willReturn(fields);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(fields, psiFieldsAnalysis)).willReturn(psiFieldsForBuilder);
+        given(psiFieldsForBuilder.getFieldsForConstructor()).willReturn(fields);
+
+        // when
+        BuilderTarget result = bulkBuilderAnalyzer.analyze(psiClass, namingConvention);
+
+        // then
+        assertThat(result.getSkipReason(), is(BulkBuilderAnalyzer.NO_USABLE_CONSTRUCTOR));
+        verifyZeroInteractions(builderSpecFactory);
+    }
+}
@@ -0,0 +1,108 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClassHierarchySummaryCacheTest {
+
+    @InjectMocks private ClassHierarchySummaryCache classHierarchySummaryCache;
+    @Mock private PsiHelper psiHelper;
+    @Mock private CachedValuesManager cachedValuesManager;
+    @Mock private Project project;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass superClass;
+    @Mock private PsiField field;
+    @Mock private PsiField superField;
+    @Mock private PsiMethod setter;
+    @Mock private PsiMethod privateMethod;
+    @Mock private PsiModifierList modifierList;
+    @Mock private PsiModifierList privateModifierList;
+
+    @Before
+    public void setUp() {
+        given(psiClass.getProject()).willReturn(project);
+        given(superClass.getProject()).willReturn(project);
+        given(psiHelper.getCachedValuesManager(project)).willReturn(cachedValuesManager);
+        given(psiHelper.getStructureModificationTracker(psiClass)).willReturn(PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+        given(psiClass.getFields()).willReturn(new PsiField[]{field});
+        given(psiClass.getMethods()).willReturn(new PsiMethod[]{setter, privateMethod});
+        given(psiClass.getSupers()).willReturn(new PsiClass[0]);
+        given(setter.getName()).willReturn("setField");
+        given(setter.getModifierList()).willReturn(modifierList);
+        given(privateMethod.getName()).willReturn("setHidden");
+        given(privateMethod.getModifierList()).willReturn(privateModifierList);
+        given(privateModifierList.hasExplicitModifier(ClassHierarchySummaryCache.PRIVATE_MODIFIER)).willReturn(true);
+    }
+
+    @Test
+    public void shouldSummarizeOwnFieldsAndNonPrivateMethodNames() {
+        // when
+        ClassHierarchySummary result = classHierarchySummaryCache.summarize(psiClass);
+
+        // then
+        assertThat(result.getFields(), is(Arrays.asList(field)));
+        assertThat(result.getNonPrivateMethodNames().contains("setField"), is(true));
+        assertThat(result.getNonPrivateMethodNames().contains("setHidden"), is(false));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldMergeCachedSummaryOfSuperClassWithoutWalkingItAgain() {
+        // given
+        given(psiClass.getSupers()).willReturn(new PsiClass[]{superClass});
+        ClassHierarchySummary superSummary = new ClassHierarchySummary(Arrays.asList(superField), Arrays.asList("setSuperField"));
+        given(cachedValuesManager.getCachedValue(eq(superClass), eq(ClassHierarchySummaryCache.SUMMARY_KEY), any(CachedValueProvider.class), eq(false)))
+                .willReturn(superSummary);
+
+        // when
+        ClassHierarchySummary result = classHierarchySummaryCache.summarize(psiClass);
+
+        // then
+        assertThat(result.getFields(), is(Arrays.asList(field, superField)));
+        assertThat(result.getNonPrivateMethodNames().contains("setField"), is(true));
+        assertThat(result.getNonPrivateMethodNames().contains("setSuperField"), is(true));
+        verify(superClass, never()).getMethods();
+        verify(superClass, never()).getFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldCacheSummaryUntilClassStructureChanges() {
+        // given
+        ArgumentCaptor<CachedValueProvider> providerCaptor = ArgumentCaptor.forClass(CachedValueProvider.class);
+        classHierarchySummaryCache.getSummary(psiClass);
+        verify(cachedValuesManager).getCachedValue(eq(psiClass), eq(ClassHierarchySummaryCache.SUMMARY_KEY), providerCaptor.capture(), eq(false));
+
+        // when
+        CachedValueProvider.Result<ClassHierarchySummary> result = providerCaptor.getValue().compute();
+
+        // then
+        assertThat(result.getValue().getFields(), is(Arrays.asList(field)));
+        assertThat(result.getDependencyItems()[0], is((Object) PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+    }
+}
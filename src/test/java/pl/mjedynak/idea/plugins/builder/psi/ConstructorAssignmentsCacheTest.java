@@ -0,0 +1,70 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.withSettings;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConstructorAssignmentsCacheTest {
+
+    @InjectMocks private ConstructorAssignmentsCache constructorAssignmentsCache;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiMethod firstConstructor;
+    @Mock private PsiMethod secondConstructor;
+    @Mock private PsiCodeBlock firstBody;
+    @Mock private PsiCodeBlock secondBody;
+    @Mock private PsiField psiField;
+
+    @Before
+    public void setUp() {
+        given(psiClass.getConstructors()).willReturn(new PsiMethod[]{firstConstructor, secondConstructor});
+        given(psiClass.getFields()).willReturn(new PsiField[]{psiField});
+        given(firstConstructor.getBody()).willReturn(firstBody);
+        given(secondConstructor.getBody()).willReturn(secondBody);
+    }
+
+    @Test
+    public void shouldVisitAllConstructorBodiesWithSingleVisitor() {
+        // when
+        ConstructorAssignments result = constructorAssignmentsCache.collectAssignments(psiClass);
+
+        // then
+        verify(firstBody, times(1)).accept(any(ConstructorAssignmentsVisitor.class));
+        verify(secondBody, times(1)).accept(any(ConstructorAssignmentsVisitor.class));
+        assertThat(result.isAnalyzed(psiField), is(true));
+        assertThat(result.isAssigned(psiField), is(false));
+    }
+
+    @Test
+    public void shouldNotLookIntoCompiledClasses() {
+        // given
+        PsiClass compiledClass = mock(PsiClass.class, withSettings().extraInterfaces(PsiCompiledElement.class));
+
+        // when
+        ConstructorAssignments result = constructorAssignmentsCache.getAssignments(compiledClass);
+
+        // then
+        assertThat(result, is(ConstructorAssignments.EMPTY));
+        verifyZeroInteractions(psiHelper, compiledClass);
+    }
+}
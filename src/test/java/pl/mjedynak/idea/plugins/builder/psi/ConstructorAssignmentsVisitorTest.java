@@ -0,0 +1,93 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiBinaryExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiThisExpression;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConstructorAssignmentsVisitorTest {
+
+    private ConstructorAssignmentsVisitor visitor;
+
+    @Mock private PsiAssignmentExpression assignment;
+    @Mock private PsiReferenceExpression fieldReference;
+    @Mock private PsiReferenceExpression parameterReference;
+    @Mock private PsiThisExpression thisExpression;
+    @Mock private PsiField psiField;
+    @Mock private PsiParameter parameter;
+    @Mock private PsiMethod constructor;
+
+    @Before
+    public void setUp() {
+        visitor = new ConstructorAssignmentsVisitor();
+        given(assignment.getLExpression()).willReturn(fieldReference);
+        given(assignment.getRExpression()).willReturn(parameterReference);
+        given(fieldReference.getQualifierExpression()).willReturn(thisExpression);
+        given(fieldReference.resolve()).willReturn(psiField);
+        given(parameterReference.resolve()).willReturn(parameter);
+        given(parameter.getDeclarationScope()).willReturn(constructor);
+        given(constructor.isConstructor()).willReturn(true);
+    }
+
+    @Test
+    public void shouldRecordFieldAssignedFromConstructorParameter() {
+        // when
+        visitor.visitAssignmentExpression(assignment);
+
+        // then
+        assertThat(visitor.getParametersByField().get(psiField), is(parameter));
+    }
+
+    @Test
+    public void shouldNotRecordFieldAssignedFromParameterOfOrdinaryMethod() {
+        // given
+        given(constructor.isConstructor()).willReturn(false);
+
+        // when
+        visitor.visitAssignmentExpression(assignment);
+
+        // then
+        assertThat(visitor.getParametersByField().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotRecordAssignmentToLocalVariable() {
+        // given
+        given(fieldReference.resolve()).willReturn(mock(PsiLocalVariable.class));
+
+        // when
+        visitor.visitAssignmentExpression(assignment);
+
+        // then
+        assertThat(visitor.getParametersByField().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotRecordFieldComputedFromConstructorParameters() {
+        // given
+        PsiBinaryExpression sum = mock(PsiBinaryExpression.class);
+        given(sum.getLOperand()).willReturn(parameterReference);
+        given(assignment.getRExpression()).willReturn(sum);
+
+        // when
+        visitor.visitAssignmentExpression(assignment);
+
+        // then
+        assertThat(visitor.getParametersByField().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,108 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InnerBuilderCreatorTest {
+
+    private static final int R_BRACE_OFFSET = 120;
+
+    @InjectMocks private InnerBuilderCreator innerBuilderCreator;
+    @Mock private PsiHelper psiHelper;
+    @Mock private BuilderRenderer<String> builderRenderer;
+    @Mock private BuilderFormatter builderFormatter;
+    @Mock private Project project;
+    @Mock private PsiClass srcClass;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiFile psiFile;
+    @Mock private PsiElement rBrace;
+    @Mock private BuilderSpec builderSpec;
+    @Mock private PsiDocumentManager psiDocumentManager;
+    @Mock private Document document;
+    @Mock private SmartPsiElementPointer<PsiClass> srcClassPointer;
+
+    @Before
+    public void setUp() {
+        given(builderSpec.getBuilderClassName()).willReturn("Builder");
+        given(srcClass.getContainingFile()).willReturn(psiFile);
+        given(srcClass.getRBrace()).willReturn(rBrace);
+        given(rBrace.getTextRange()).willReturn(new TextRange(R_BRACE_OFFSET, R_BRACE_OFFSET + 1));
+        given(psiHelper.getPsiDocumentManager(project)).willReturn(psiDocumentManager);
+        given(psiDocumentManager.getDocument(psiFile)).willReturn(document);
+        given(psiHelper.createSmartPointer(srcClass)).willReturn(srcClassPointer);
+        given(srcClassPointer.getElement()).willReturn(srcClass);
+    }
+
+    @Test
+    public void shouldInsertBuilderTextWithSingleDocumentEditAndFormatOnlyBuilder() {
+        // given
+        given(srcClass.findInnerClassByName("Builder", false)).willReturn(null, builderClass);
+
+        // when
+        PsiClass result = innerBuilderCreator.createInnerBuilder(project, srcClass, builderSpec, "text");
+
+        // then
+        assertThat(result, is(builderClass));
+        InOrder inOrder = inOrder(psiDocumentManager, document, builderFormatter);
+        inOrder.verify(psiDocumentManager).doPostponedOperationsAndUnblockDocument(document);
+        inOrder.verify(document, times(1)).insertString(R_BRACE_OFFSET, "\ntext");
+        inOrder.verify(psiDocumentManager).commitDocument(document);
+        inOrder.verify(builderFormatter).formatElements(project, Collections.<PsiElement>singletonList(builderClass));
+    }
+
+    @Test
+    public void shouldRenderBuilderWhenTextNotGiven() {
+        // given
+        given(builderRenderer.render(builderSpec)).willReturn("rendered");
+        given(srcClass.findInnerClassByName("Builder", false)).willReturn(null, builderClass);
+
+        // when
+        innerBuilderCreator.createInnerBuilder(project, srcClass, builderSpec);
+
+        // then
+        verify(document).insertString(R_BRACE_OFFSET, "\nrendered");
+    }
+
+    @Test(expected = IncorrectOperationException.class)
+    public void shouldNotEditDocumentWhenBuilderAlreadyExists() {
+        // given
+        given(srcClass.findInnerClassByName("Builder", false)).willReturn(mock(PsiClass.class));
+
+        // when
+        try {
+            innerBuilderCreator.createInnerBuilder(project, srcClass, builderSpec, "text");
+        } finally {
+            // then
+            verify(document, never()).insertString(anyInt(), anyString());
+        }
+    }
+}
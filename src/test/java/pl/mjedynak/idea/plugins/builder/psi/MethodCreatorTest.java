@@ -3,56 +3,73 @@ package pl.mjedynak.idea.plugins.builder.psi;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeElement;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertySpec;
 
-import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
-@Ignore
 public class MethodCreatorTest {
 
     private MethodCreator methodCreator;
-    @Mock private MethodNameCreator methodNameCreator;
-    @Mock private CodeStyleSettings codeStyleSettings;
+    private PropertySpec nameProperty = new PropertySpec(new PropertyName("m_name", "name", "setName"), "java.lang.String", FieldInitialization.SETTER);
+    private PropertySpec surnameProperty = new PropertySpec(new PropertyName("m_surname", "surname", "setSurname"), "java.lang.String", FieldInitialization.SETTER);
     @Mock private PsiElementFactory elementFactory;
-    @Mock private PsiField psiField;
-    @Mock private PsiType type;
+    @Mock private BuilderMethodTemplates builderMethodTemplates;
+    @Mock private PsiTypeElement typeElement;
     @Mock private PsiMethod method;
 
     @Before
-    public void mockCodeStyleManager() {
-        methodCreator = new MethodCreator(elementFactory, "BuilderClassName");
-        setField(methodCreator, "codeStyleSettings", codeStyleSettings);
-        setField(methodCreator, "methodNameCreator", methodNameCreator);
-        given(codeStyleSettings.getFieldNamePrefix()).willReturn(EMPTY);
-        given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
+    public void setUp() {
+        methodCreator = new MethodCreator(elementFactory, builderMethodTemplates, "BuilderClassName");
+        given(elementFactory.createTypeElementFromText("java.lang.String", null)).willReturn(typeElement);
     }
 
     @Test
-    public void shouldCreateMethod() {
+    public void shouldCreateMethodFromTemplate() {
         // given
-        given(psiField.getName()).willReturn("name");
-        given(type.getPresentableText()).willReturn("String");
-        given(psiField.getType()).willReturn(type);
-        given(methodNameCreator.createMethodName("with", "name")).willReturn("withName");
-        given(elementFactory.createMethodFromText("public BuilderClassName withName(String name) { this.name = name; return this; }", psiField)).willReturn(method);
-        String methodPrefix = "with";
+        given(builderMethodTemplates.createSetMethod("BuilderClassName", "person", typeElement, nameProperty)).willReturn(method);
 
         // when
-        PsiMethod result = methodCreator.createMethod(psiField, methodPrefix);
+        PsiMethod result = methodCreator.createMethod(nameProperty, "person");
 
         // then
         assertThat(result).isEqualTo(method);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldCreateValueFieldSharingParsedTypeWithSetMethod() {
+        // given
+        PsiField field = mock(PsiField.class);
+        given(builderMethodTemplates.createValueField(typeElement, nameProperty)).willReturn(field);
+
+        // when
+        methodCreator.createMethod(nameProperty, "person");
+        PsiField result = methodCreator.createValueField(nameProperty);
+
+        // then
+        assertThat(result).isEqualTo(field);
+        verify(elementFactory, times(1)).createTypeElementFromText("java.lang.String", null);
+    }
+
+    @Test
+    public void shouldParseEachTypeOnlyOnce() {
+        // when
+        methodCreator.createMethod(nameProperty, "person");
+        methodCreator.createMethod(surnameProperty, "person");
+
+        // then
+        verify(elementFactory, times(1)).createTypeElementFromText("java.lang.String", null);
+    }
+}
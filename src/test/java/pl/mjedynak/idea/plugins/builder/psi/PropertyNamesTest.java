@@ -0,0 +1,104 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiField;
+import org.junit.Test;
+import pl.mjedynak.idea.plugins.builder.psi.model.PropertyName;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class PropertyNamesTest {
+
+    private NamingConvention namingConvention = new NamingConvention("m_", "_f", "p_", "_p");
+
+    @Test
+    public void shouldStripFieldPrefixAndSuffixAndCreateSetterName() {
+        // given
+        PropertyNames propertyNames = PropertyNames.of(Collections.<PsiField>emptyList(), namingConvention);
+
+        // when
+        PropertyName result = propertyNames.get("m_age_f");
+
+        // then
+        assertThat(result.getFieldName(), is("m_age_f"));
+        assertThat(result.getPropertyName(), is("age"));
+        assertThat(result.getSetterName(), is("setAge"));
+    }
+
+    @Test
+    public void shouldStripPrefixOnlyAtTheBeginningOfName() {
+        // given
+        PropertyNames propertyNames = PropertyNames.of(Collections.<PsiField>emptyList(), namingConvention);
+
+        // when
+        PropertyName result = propertyNames.get("form_m_count");
+
+        // then
+        assertThat(result.getPropertyName(), is("form_m_count"));
+    }
+
+    @Test
+    public void shouldTreatPrefixWithRegexMetacharactersLiterally() {
+        // given
+        PropertyNames propertyNames = PropertyNames.of(Collections.<PsiField>emptyList(), new NamingConvention("$.", "", "", ""));
+
+        // when
+        PropertyName result = propertyNames.get("$.name");
+
+        // then
+        assertThat(result.getPropertyName(), is("name"));
+        assertThat(result.getSetterName(), is("setName"));
+    }
+
+    @Test
+    public void shouldNotStripWholeName() {
+        // when
+        String result = PropertyNames.strip("m_", "m_", "");
+
+        // then
+        assertThat(result, is("m_"));
+    }
+
+    @Test
+    public void shouldPrecomputePropertyNamesOfFields() {
+        // given
+        PsiField psiField = mock(PsiField.class);
+        given(psiField.getName()).willReturn("m_name");
+        PropertyNames propertyNames = PropertyNames.of(Arrays.asList(psiField), namingConvention);
+
+        // when
+        PropertyName first = propertyNames.get(psiField);
+        PropertyName second = propertyNames.get("m_name");
+
+        // then
+        assertThat(first, is(sameInstance(second)));
+        assertThat(first.getPropertyName(), is("name"));
+    }
+
+    @Test
+    public void shouldMapParameterNameToPropertyAndFieldName() {
+        // given
+        PropertyNames propertyNames = PropertyNames.of(Collections.<PsiField>emptyList(), namingConvention);
+
+        // then
+        assertThat(propertyNames.getPropertyNameOfParameter("p_name_p"), is("name"));
+        assertThat(propertyNames.getFieldNameOfParameter("p_name_p"), is("m_name_f"));
+    }
+
+    @Test
+    public void shouldReturnSameStringWhenAlreadyCapitalized() {
+        // given
+        String name = "Name";
+
+        // then
+        assertThat(PropertyNames.capitalize(name), is(sameInstance(name)));
+        assertThat(PropertyNames.capitalize("name"), is("Name"));
+    }
+}
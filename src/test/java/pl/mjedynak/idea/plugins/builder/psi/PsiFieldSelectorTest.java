@@ -1,6 +1,5 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
-import com.intellij.codeInsight.generation.PsiElementClassMember;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import org.junit.Before;
@@ -9,70 +8,133 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
-import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldInitialization;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassMembersIndex;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PsiFieldSelectorTest {
 
     @InjectMocks private PsiFieldSelector psiFieldSelector;
-    @Mock private PsiElementClassMemberFactory psiElementClassMemberFactory;
     @Mock private PsiFieldVerifier psiFieldVerifier;
+    @Mock private ClassHierarchySummaryCache classHierarchySummaryCache;
+    @Mock private ConstructorAssignmentsCache constructorAssignmentsCache;
     @Mock private PsiClass psiClass;
     @Mock private PsiField psiField;
+    @Mock private PsiClassMembersIndex index;
+
+    private NamingConvention namingConvention = NamingConvention.EMPTY;
 
     @Before
     public void setUp() {
-        PsiField[] fieldsArray = new PsiField[1];
-        fieldsArray[0] = psiField;
-        given(psiClass.getAllFields()).willReturn(fieldsArray);
-        given(psiElementClassMemberFactory.createPsiElementClassMember(any(PsiField.class))).willReturn(mock(PsiElementClassMember.class));
+        ClassHierarchySummary classHierarchySummary = new ClassHierarchySummary(Arrays.asList(psiField), Collections.<String>emptyList());
+        given(classHierarchySummaryCache.getSummary(psiClass)).willReturn(classHierarchySummary);
+        given(constructorAssignmentsCache.getAssignments(psiClass)).willReturn(ConstructorAssignments.EMPTY);
+        given(psiFieldVerifier.createIndex(psiClass, classHierarchySummary, ConstructorAssignments.EMPTY, namingConvention)).willReturn(index);
     }
 
     @Test
     public void shouldSelectFieldIfVerifierAcceptsItAsSetInSetter() {
         // given
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(true);
+        given(index.isSetInSetterMethod(psiField)).willReturn(true);
 
         // when
-        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass);
+        PsiFieldsAnalysis analysis = psiFieldSelector.analyzeFields(psiClass, namingConvention);
 
         // then
-        assertThat(result.size(), is(1));
+        assertThat(analysis.getFields().size(), is(1));
+        assertThat(analysis.getInitialization(psiField), is(FieldInitialization.SETTER));
     }
 
     @Test
     public void shouldSelectFieldIfVerifierAcceptsItAsSetInConstructor() {
         // given
-        given(psiFieldVerifier.isSetInConstructor(psiField, psiClass)).willReturn(true);
+        given(index.isSetInConstructor(psiField)).willReturn(true);
 
         // when
-        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass);
+        PsiFieldsAnalysis analysis = psiFieldSelector.analyzeFields(psiClass, namingConvention);
 
         // then
-        assertThat(result.size(), is(1));
+        assertThat(analysis.getFields().size(), is(1));
+        assertThat(analysis.getInitialization(psiField), is(FieldInitialization.CONSTRUCTOR));
+    }
+
+    @Test
+    public void shouldTagFieldAsSetInBothIfVerifierAcceptsItAsSetInSetterAndInConstructor() {
+        // given
+        given(index.isSetInSetterMethod(psiField)).willReturn(true);
+        given(index.isSetInConstructor(psiField)).willReturn(true);
+
+        // when
+        PsiFieldsAnalysis analysis = psiFieldSelector.analyzeFields(psiClass, namingConvention);
+
+        // then
+        assertThat(analysis.getInitialization(psiField), is(FieldInitialization.BOTH));
     }
 
     @Test
     public void shouldNotSelectFieldIfVerifierDoesNotAcceptsItAsSetInConstructorOrInSetter() {
         // given
-        given(psiFieldVerifier.isSetInConstructor(psiField, psiClass)).willReturn(false);
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(false);
+        given(index.isSetInConstructor(psiField)).willReturn(false);
+        given(index.isSetInSetterMethod(psiField)).willReturn(false);
+
+        // when
+        PsiFieldsAnalysis analysis = psiFieldSelector.analyzeFields(psiClass, namingConvention);
+
+        // then
+        assertThat(analysis.getFields().size(), is(0));
+        assertThat(analysis.getInitialization(psiField), is(nullValue()));
+    }
+
+    @Test
+    public void shouldCreateIndexOnlyOncePerAnalysis() {
+        // when
+        psiFieldSelector.analyzeFields(psiClass, namingConvention);
+
+        // then
+        verify(psiFieldVerifier, times(1)).createIndex(any(PsiClass.class), any(ClassHierarchySummary.class), any(ConstructorAssignments.class),
+                any(NamingConvention.class));
+    }
+
+    @Test
+    public void shouldNotifyListenerAboutEachSelectedField() {
+        // given
+        FieldClassificationListener listener = mock(FieldClassificationListener.class);
+        given(index.isSetInSetterMethod(psiField)).willReturn(true);
 
         // when
-        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass);
+        psiFieldSelector.analyzeFields(psiClass, namingConvention, listener);
 
         // then
-        assertThat(result.size(), is(0));
+        verify(listener).fieldClassified(psiField);
     }
 
+    @Test
+    public void shouldNotNotifyListenerAboutRejectedField() {
+        // given
+        FieldClassificationListener listener = mock(FieldClassificationListener.class);
+
+        // when
+        psiFieldSelector.analyzeFields(psiClass, namingConvention, listener);
+
+        // then
+        verify(listener, never()).fieldClassified(psiField);
+    }
 }
@@ -0,0 +1,145 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PsiFieldsAnalysisCacheTest {
+
+    @InjectMocks private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock private CachedValuesManager cachedValuesManager;
+    @Mock private Project project;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiClass compiledPsiClass;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+
+    private NamingConvention namingConvention = new NamingConvention("m_", "", "p_", "");
+    private ConcurrentMap<NamingConvention, PsiFieldsAnalysis> analysesByConvention = new ConcurrentHashMap<NamingConvention, PsiFieldsAnalysis>();
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        given(psiClass.getProject()).willReturn(project);
+        given(compiledPsiClass.getProject()).willReturn(project);
+        given(psiHelper.getOriginalClass(psiClass)).willReturn(psiClass);
+        given(psiHelper.getStructureModificationTracker(psiClass)).willReturn(PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+        given(psiHelper.getCachedValuesManager(project)).willReturn(cachedValuesManager);
+        given(cachedValuesManager.getCachedValue(eq(psiClass), eq(PsiFieldsAnalysisCache.ANALYSIS_KEY), any(CachedValueProvider.class), eq(false)))
+                .willReturn(analysesByConvention);
+    }
+
+    @Test
+    public void shouldReturnCachedAnalysisWithoutAnalyzingFieldsAgain() {
+        // given
+        analysesByConvention.put(namingConvention, psiFieldsAnalysis);
+
+        // when
+        PsiFieldsAnalysis result = psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention);
+
+        // then
+        assertThat(result, is(psiFieldsAnalysis));
+        verifyZeroInteractions(psiFieldSelector);
+    }
+
+    @Test
+    public void shouldAnalyzeFieldsOnceForNamingConvention() {
+        // given
+        given(psiFieldSelector.analyzeFields(psiClass, namingConvention, FieldClassificationListener.NONE)).willReturn(psiFieldsAnalysis);
+
+        // when
+        psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention);
+        PsiFieldsAnalysis result = psiFieldsAnalysisCache.getAnalysis(psiClass, new NamingConvention("m_", "", "p_", ""));
+
+        // then
+        assertThat(result, is(psiFieldsAnalysis));
+        verify(psiFieldSelector, times(1)).analyzeFields(psiClass, namingConvention, FieldClassificationListener.NONE);
+    }
+
+    @Test
+    public void shouldAnalyzeFieldsAgainForDifferentNamingConvention() {
+        // given
+        NamingConvention differentConvention = new NamingConvention("_", "", "p_", "");
+        PsiFieldsAnalysis differentAnalysis = mock(PsiFieldsAnalysis.class);
+        analysesByConvention.put(namingConvention, psiFieldsAnalysis);
+        given(psiFieldSelector.analyzeFields(psiClass, differentConvention, FieldClassificationListener.NONE)).willReturn(differentAnalysis);
+
+        // when
+        PsiFieldsAnalysis result = psiFieldsAnalysisCache.getAnalysis(psiClass, differentConvention);
+
+        // then
+        assertThat(result, is(differentAnalysis));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldDropAnalysesOnJavaStructureModifications() {
+        // given
+        ArgumentCaptor<CachedValueProvider> providerCaptor = ArgumentCaptor.forClass(CachedValueProvider.class);
+        analysesByConvention.put(namingConvention, psiFieldsAnalysis);
+        psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention);
+        verify(cachedValuesManager).getCachedValue(eq(psiClass), eq(PsiFieldsAnalysisCache.ANALYSIS_KEY), providerCaptor.capture(), eq(false));
+
+        // when
+        CachedValueProvider.Result<ConcurrentMap<NamingConvention, PsiFieldsAnalysis>> result = providerCaptor.getValue().compute();
+
+        // then
+        assertThat(result.getValue().isEmpty(), is(true));
+        assertThat(result.getDependencyItems()[0], is((Object) PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldAnalyzeCompiledClassInsteadOfItsLibrarySource() {
+        // given
+        PsiClass librarySourceClass = mock(PsiClass.class);
+        given(psiHelper.getOriginalClass(librarySourceClass)).willReturn(compiledPsiClass);
+        given(cachedValuesManager.getCachedValue(eq(compiledPsiClass), eq(PsiFieldsAnalysisCache.ANALYSIS_KEY), any(CachedValueProvider.class),
+                eq(false))).willReturn(new ConcurrentHashMap<NamingConvention, PsiFieldsAnalysis>());
+
+        // when
+        psiFieldsAnalysisCache.getAnalysis(librarySourceClass, namingConvention);
+
+        // then
+        verify(psiFieldSelector).analyzeFields(compiledPsiClass, namingConvention, FieldClassificationListener.NONE);
+    }
+
+    @Test
+    public void shouldPassClassificationListenerToFieldSelector() {
+        // given
+        FieldClassificationListener listener = mock(FieldClassificationListener.class);
+        given(psiFieldSelector.analyzeFields(psiClass, namingConvention, listener)).willReturn(psiFieldsAnalysis);
+
+        // when
+        PsiFieldsAnalysis result = psiFieldsAnalysisCache.getAnalysis(psiClass, namingConvention, listener);
+
+        // then
+        assertThat(result, is(psiFieldsAnalysis));
+    }
+}
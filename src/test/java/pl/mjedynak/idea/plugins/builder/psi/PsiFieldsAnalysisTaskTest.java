@@ -0,0 +1,221 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import pl.mjedynak.idea.plugins.builder.psi.model.FieldRow;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsAnalysis;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PsiFieldsAnalysisTaskTest {
+
+    @Mock private Project project;
+    @Mock private PsiClass psiClass;
+    @Mock private PsiFieldsAnalysisCache psiFieldsAnalysisCache;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiFieldsAnalysisListener listener;
+    @Mock private PsiFieldsAnalysis psiFieldsAnalysis;
+    @Mock private ProgressIndicator indicator;
+    @Mock private Application application;
+    @Mock private PsiType psiType;
+
+    private PsiFieldsAnalysisTask psiFieldsAnalysisTask;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        given(psiHelper.getApplication()).willReturn(application);
+        psiFieldsAnalysisTask = new PsiFieldsAnalysisTask(project, psiClass, NamingConvention.EMPTY, psiFieldsAnalysisCache, psiHelper, listener);
+        given(psiType.getPresentableText()).willReturn("String");
+        given(application.runReadAction(any(Computable.class))).willAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return ((Computable) invocation.getArguments()[0]).compute();
+            }
+        });
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(application).invokeLater(any(Runnable.class), any(ModalityState.class));
+    }
+
+    @Test
+    public void shouldBeCancellableBackgroundTask() {
+        // then
+        assertThat(psiFieldsAnalysisTask.isCancellable(), is(true));
+        assertThat(psiFieldsAnalysisTask.getTitle(), is(PsiFieldsAnalysisTask.TITLE));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldPublishRowsInChunksAndThenFinishedAnalysis() {
+        // given
+        List<PsiField> fields = createFields(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE + 1);
+        given(psiFieldsAnalysis.getFields()).willReturn(fields);
+
+        // when
+        psiFieldsAnalysisTask.publishRows(indicator, application, psiFieldsAnalysis);
+
+        // then
+        ArgumentCaptor<List> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener, times(2)).rowsAnalyzed(rowsCaptor.capture());
+        inOrder.verify(listener).analysisFinished(psiFieldsAnalysis);
+        assertThat(rowsCaptor.getAllValues().get(0).size(), is(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE));
+        assertThat(rowsCaptor.getAllValues().get(1).size(), is(1));
+        assertThat(((FieldRow) rowsCaptor.getAllValues().get(1).get(0)).getText(), is("field200: String"));
+    }
+
+    @Test
+    public void shouldCancelWhenListenerIsClosed() {
+        // given
+        given(psiFieldsAnalysis.getFields()).willReturn(createFields(1));
+        given(listener.isClosed()).willReturn(true);
+
+        // when
+        psiFieldsAnalysisTask.publishRows(indicator, application, psiFieldsAnalysis);
+
+        // then
+        verify(indicator).cancel();
+        verify(indicator).checkCanceled();
+    }
+
+    @Test
+    public void shouldReportFailureWhenClassIsNoLongerValid() {
+        // given
+        given(psiClass.isValid()).willReturn(false);
+
+        // when
+        psiFieldsAnalysisTask.run(indicator);
+
+        // then
+        verify(listener).analysisFailed(PsiFieldsAnalysisTask.CLASS_INVALIDATED_MESSAGE);
+        verify(listener, never()).rowsAnalyzed(anyList());
+        verify(listener, never()).analysisFinished(any(PsiFieldsAnalysis.class));
+    }
+
+    @Test
+    public void shouldStopAnalysisWhenListenerIsClosedBeforeItStarts() {
+        // given
+        given(psiClass.isValid()).willReturn(true);
+        given(listener.isClosed()).willReturn(true);
+        willThrow(new ProcessCanceledException()).given(indicator).checkCanceled();
+
+        // when
+        try {
+            psiFieldsAnalysisTask.run(indicator);
+        } catch (ProcessCanceledException e) {
+            // expected
+        }
+
+        // then
+        verify(indicator).cancel();
+        verifyZeroInteractions(psiFieldsAnalysisCache);
+        verify(listener, never()).analysisFailed(any(String.class));
+    }
+
+    private List<PsiField> createFields(int count) {
+        List<PsiField> fields = new ArrayList<PsiField>();
+        for (int i = 0; i < count; i++) {
+            PsiField psiField = mock(PsiField.class);
+            given(psiField.isValid()).willReturn(true);
+            given(psiField.getName()).willReturn("field" + i);
+            given(psiField.getType()).willReturn(psiType);
+            fields.add(psiField);
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldPublishRowsWhileFieldsAreClassified() {
+        // given
+        List<PsiField> fields = createFields(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE);
+
+        // when
+        for (PsiField psiField : fields) {
+            psiFieldsAnalysisTask.addRow(indicator, application, psiField);
+        }
+
+        // then
+        ArgumentCaptor<List> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(listener).rowsAnalyzed(rowsCaptor.capture());
+        assertThat(rowsCaptor.getValue().size(), is(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE));
+        verify(listener, never()).analysisFinished(any(PsiFieldsAnalysis.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldPublishOnlyRowsNotPublishedDuringClassification() {
+        // given
+        List<PsiField> fields = createFields(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE + 1);
+        given(psiFieldsAnalysis.getFields()).willReturn(fields);
+        for (PsiField psiField : fields.subList(0, PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE)) {
+            psiFieldsAnalysisTask.addRow(indicator, application, psiField);
+        }
+
+        // when
+        psiFieldsAnalysisTask.publishRows(indicator, application, psiFieldsAnalysis);
+
+        // then
+        ArgumentCaptor<List> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(listener, times(2)).rowsAnalyzed(rowsCaptor.capture());
+        assertThat(rowsCaptor.getAllValues().get(1).size(), is(1));
+        assertThat(((FieldRow) rowsCaptor.getAllValues().get(1).get(0)).getText(), is("field200: String"));
+        verify(listener).analysisFinished(psiFieldsAnalysis);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldNotPublishRowAgainWhenFieldIsClassifiedOnRetry() {
+        // given
+        List<PsiField> fields = createFields(PsiFieldsAnalysisTask.ROWS_CHUNK_SIZE);
+        for (PsiField psiField : fields) {
+            psiFieldsAnalysisTask.addRow(indicator, application, psiField);
+        }
+
+        // when
+        for (PsiField psiField : fields) {
+            psiFieldsAnalysisTask.addRow(indicator, application, psiField);
+        }
+
+        // then
+        verify(listener, times(1)).rowsAnalyzed(anyList());
+    }
+}
@@ -0,0 +1,75 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.intellij.psi.PsiField;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PsiFieldsAnalysisTest {
+
+    private PsiFieldsAnalysis psiFieldsAnalysis;
+    private Map<PsiField, FieldInitialization> initializations;
+
+    @Mock private PsiField setterField;
+    @Mock private PsiField constructorField;
+
+    @Before
+    public void setUp() {
+        initializations = new LinkedHashMap<PsiField, FieldInitialization>();
+        initializations.put(setterField, FieldInitialization.SETTER);
+        initializations.put(constructorField, FieldInitialization.CONSTRUCTOR);
+        psiFieldsAnalysis = new PsiFieldsAnalysis(initializations);
+    }
+
+    @Test
+    public void shouldKeepFieldsInOrderOfAnalysis() {
+        // when
+        List<PsiField> result = psiFieldsAnalysis.getFields();
+
+        // then
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0), is(setterField));
+        assertThat(result.get(1), is(constructorField));
+    }
+
+    @Test
+    public void shouldReturnInitializationOfField() {
+        assertThat(psiFieldsAnalysis.getInitialization(setterField), is(FieldInitialization.SETTER));
+        assertThat(psiFieldsAnalysis.getInitialization(constructorField), is(FieldInitialization.CONSTRUCTOR));
+    }
+
+    @Test
+    public void shouldNotBeAffectedByChangesOfSourceMap() {
+        // when
+        initializations.remove(setterField);
+
+        // then
+        assertThat(psiFieldsAnalysis.getFields().size(), is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldThrowExceptionWhenTryingToModifyFields() {
+        // given
+        List<PsiField> fields = psiFieldsAnalysis.getFields();
+
+        // when
+        fields.remove(0);
+    }
+
+    @Test
+    public void shouldTagFieldSetInBothWays() {
+        assertThat(FieldInitialization.of(true, true), is(FieldInitialization.BOTH));
+        assertThat(FieldInitialization.BOTH.isSetInSetter(), is(true));
+        assertThat(FieldInitialization.BOTH.isSetInConstructor(), is(true));
+    }
+}
@@ -0,0 +1,43 @@
+package pl.mjedynak.idea.plugins.builder.settings;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class NamingConventionTest {
+
+    @Test
+    public void shouldReplaceMissingAffixesWithEmptyStrings() {
+        // when
+        NamingConvention namingConvention = new NamingConvention(null, null, "p_", null);
+
+        // then
+        assertThat(namingConvention.getFieldNamePrefix(), is(""));
+        assertThat(namingConvention.getFieldNameSuffix(), is(""));
+        assertThat(namingConvention.getParameterNamePrefix(), is("p_"));
+        assertThat(namingConvention.getParameterNameSuffix(), is(""));
+    }
+
+    @Test
+    public void shouldBeEqualToConventionWithTheSameAffixes() {
+        // given
+        NamingConvention namingConvention = new NamingConvention("m_", "", "p_", "");
+        NamingConvention sameNamingConvention = new NamingConvention("m_", null, "p_", null);
+
+        // then
+        assertThat(namingConvention, is(sameNamingConvention));
+        assertThat(namingConvention.hashCode(), is(sameNamingConvention.hashCode()));
+    }
+
+    @Test
+    public void shouldNotBeEqualToConventionWithDifferentSuffix() {
+        // given
+        NamingConvention namingConvention = new NamingConvention("m_", "", "p_", "");
+        NamingConvention differentNamingConvention = new NamingConvention("m_", "_f", "p_", "");
+
+        // then
+        assertThat(namingConvention, is(not(differentNamingConvention)));
+    }
+}
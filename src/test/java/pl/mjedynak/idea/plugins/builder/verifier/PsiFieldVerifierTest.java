@@ -3,7 +3,7 @@ package pl.mjedynak.idea.plugins.builder.verifier;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
 import com.intellij.psi.PsiType;
@@ -12,21 +12,31 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.psi.model.ClassHierarchySummary;
+import pl.mjedynak.idea.plugins.builder.psi.model.ConstructorAssignments;
+import pl.mjedynak.idea.plugins.builder.psi.model.TargetConstructor;
+import pl.mjedynak.idea.plugins.builder.settings.NamingConvention;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
 import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PsiFieldVerifierTest {
 
     private PsiFieldVerifier psiFieldVerifier;
     private PsiMethod[] constructors;
-    private PsiMethod[] methods;
     private PsiParameter[] parameters;
 
     @Mock private PsiField psiField;
@@ -35,34 +45,30 @@ public class PsiFieldVerifierTest {
     @Mock private PsiParameterList parameterList;
     @Mock private PsiParameter parameter;
     @Mock private PsiType psiType;
-    @Mock private PsiMethod method;
-    @Mock private PsiModifierList modifierList;
-    @Mock private CodeStyleSettings settings;
 
     private String name;
+    private NamingConvention namingConvention;
+    private ClassHierarchySummary classHierarchySummary;
+    private ConstructorAssignments constructorAssignments;
 
     @Before
     public void setUp() {
         psiFieldVerifier = new PsiFieldVerifier();
-        setField(psiFieldVerifier, "codeStyleSettings", settings);
-        given(settings.getParameterNamePrefix()).willReturn(EMPTY);
-        given(settings.getFieldNamePrefix()).willReturn(EMPTY);
+        namingConvention = NamingConvention.EMPTY;
+        classHierarchySummary = ClassHierarchySummary.EMPTY;
+        constructorAssignments = ConstructorAssignments.EMPTY;
         constructors = new PsiMethod[1];
         constructors[0] = constructor;
-        methods = new PsiMethod[1];
-        methods[0] = method;
         parameters = new PsiParameter[1];
         parameters[0] = parameter;
         name = "name";
+        given(psiClass.getConstructors()).willReturn(new PsiMethod[0]);
     }
 
     @Test
     public void shouldNotVerifyThatFieldIsSetInConstructorIfConstructorDoesNotExist() {
-        // given
-        given(psiClass.getConstructors()).willReturn(new PsiMethod[0]);
-
         // when
-        boolean result = psiFieldVerifier.isSetInConstructor(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
 
         // then
         assertThat(result, is(false));
@@ -78,7 +84,7 @@ public class PsiFieldVerifierTest {
         given(psiField.getName()).willReturn("differentName");
 
         // when
-        boolean result = psiFieldVerifier.isSetInConstructor(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
 
         // then
         assertThat(result, is(false));
@@ -95,7 +101,7 @@ public class PsiFieldVerifierTest {
         given(psiField.getName()).willReturn(name);
 
         // when
-        boolean result = psiFieldVerifier.isSetInConstructor(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
 
         // then
         assertThat(result, is(false));
@@ -111,7 +117,7 @@ public class PsiFieldVerifierTest {
         given(psiField.getName()).willReturn(name);
 
         // when
-        boolean result = psiFieldVerifier.isSetInConstructor(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
 
         // then
         assertThat(result, is(true));
@@ -120,46 +126,260 @@ public class PsiFieldVerifierTest {
     @Test
     public void shouldVerifyThatFieldIsSetInSetterMethodIfItIsNotPrivateAndHasCorrectParameter() {
         // given
-        given(psiClass.getAllMethods()).willReturn(methods);
-        given(method.getModifierList()).willReturn(modifierList);
+        classHierarchySummaryWithMethod("setField");
         given(psiField.getName()).willReturn("field");
-        given(method.getName()).willReturn("setField");
         // when
-        boolean result = psiFieldVerifier.isSetInSetterMethod(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInSetterMethod(psiField);
 
         // then
         assertThat(result, is(true));
     }
 
     @Test
-    public void shouldVerifyThatFieldIsNotSetInSetterMethodIfItIsPrivate() {
+    public void shouldVerifyThatFieldIsNotSetInSetterMethodIfItIsNotPrivateButHasIncorrectParameter() {
         // given
-        given(psiClass.getAllMethods()).willReturn(methods);
-        given(method.getModifierList()).willReturn(modifierList);
+        classHierarchySummaryWithMethod("setAnotherField");
         given(psiField.getName()).willReturn("field");
-        given(modifierList.hasExplicitModifier(PsiFieldVerifier.PRIVATE_MODIFIER)).willReturn(true);
-        given(method.getName()).willReturn("setField");
         // when
-        boolean result = psiFieldVerifier.isSetInSetterMethod(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInSetterMethod(psiField);
 
         // then
         assertThat(result, is(false));
     }
 
     @Test
-    public void shouldVerifyThatFieldIsNotSetInSetterMethodIfItIsNotPrivateButHasIncorrectParameter() {
+    public void shouldVerifyThatFieldIsSetInConstructorIfParameterAndFieldNamesDifferOnlyByPrefixes() {
         // given
-        given(psiClass.getAllMethods()).willReturn(methods);
-        given(method.getModifierList()).willReturn(modifierList);
-        given(psiField.getName()).willReturn("field");
-        given(method.getName()).willReturn("setAnotherField");
+        namingConvention = new NamingConvention("m_", EMPTY, "p_", EMPTY);
+        prepareBehaviourForReturningParameter();
+        given(parameter.getType()).willReturn(psiType);
+        given(psiField.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn("p_name");
+        given(psiField.getName()).willReturn("m_name");
+
+        // when
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
+
+        // then
+        assertThat(result, is(true));
+    }
+
+    @Test
+    public void shouldVerifyThatFieldIsSetInConstructorIfItIsAssignedFromParameterWithDifferentName() {
+        // given
+        HashMap<PsiField, PsiParameter> parametersByField = new HashMap<PsiField, PsiParameter>();
+        parametersByField.put(psiField, parameter);
+        constructorAssignments = new ConstructorAssignments(Arrays.asList(psiField), parametersByField);
+
+        // when
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
+
+        // then
+        assertThat(result, is(true));
+    }
+
+    @Test
+    public void shouldNotUseNameAndTypeHeuristicForFieldWhoseConstructorBodiesWereAnalyzed() {
+        // given
+        prepareBehaviourForReturningParameter();
+        given(parameter.getType()).willReturn(psiType);
+        given(psiField.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn(name);
+        constructorAssignments = new ConstructorAssignments(Arrays.asList(psiField), new HashMap<PsiField, PsiParameter>());
+
         // when
-        boolean result = psiFieldVerifier.isSetInSetterMethod(psiField, psiClass);
+        boolean result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention).isSetInConstructor(psiField);
 
         // then
         assertThat(result, is(false));
     }
 
+    @Test
+    public void shouldScanClassMembersOnlyOnceForManyFields() {
+        // given
+        PsiField anotherPsiField = mock(PsiField.class);
+        classHierarchySummaryWithMethod("setField");
+        given(psiField.getName()).willReturn("field");
+        given(anotherPsiField.getName()).willReturn("anotherField");
+
+        // when
+        PsiClassMembersIndex index = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention);
+        boolean firstResult = index.isSetInSetterMethod(psiField);
+        boolean secondResult = index.isSetInSetterMethod(anotherPsiField);
+
+        // then
+        assertThat(firstResult, is(true));
+        assertThat(secondResult, is(false));
+        verify(psiClass, times(1)).getConstructors();
+    }
+
+    @Test
+    public void shouldIndexConstructorWhoseParametersAllMatchFields() {
+        // given
+        prepareBehaviourForReturningParameter();
+        given(parameter.getType()).willReturn(psiType);
+        given(psiField.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn(name);
+        classHierarchySummary = new ClassHierarchySummary(Arrays.asList(psiField), Collections.<String>emptyList());
+
+        // when
+        List<TargetConstructor> result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention)
+                .getTargetConstructors();
+
+        // then
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getFields(), is(Arrays.asList(psiField)));
+    }
+
+    @Test
+    public void shouldNotIndexConstructorWithParameterNotMatchingAnyField() {
+        // given
+        prepareBehaviourForReturningParameter();
+        given(parameter.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn("differentName");
+        classHierarchySummary = new ClassHierarchySummary(Arrays.asList(psiField), Collections.<String>emptyList());
+
+        // when
+        List<TargetConstructor> result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention)
+                .getTargetConstructors();
+
+        // then
+        assertThat(result.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldIndexImplicitDefaultConstructorWithAccessOfClass() {
+        // given
+        given(psiClass.hasModifierProperty(PsiModifier.PUBLIC)).willReturn(true);
+
+        // when
+        List<TargetConstructor> result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention)
+                .getTargetConstructors();
+
+        // then
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getFields().isEmpty(), is(true));
+        assertThat(result.get(0).isAccessibleFrom(new BuilderOptions(false, false, false, false)), is(true));
+    }
+
+    @Test
+    public void shouldNotIndexConstructorWithParameterAssignedToSeveralFields() {
+        // given
+        prepareBehaviourForReturningParameter();
+        PsiField anotherPsiField = mock(PsiField.class);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn(name);
+        given(anotherPsiField.getName()).willReturn("copyOfName");
+        HashMap<PsiField, PsiParameter> parametersByField = new HashMap<PsiField, PsiParameter>();
+        parametersByField.put(psiField, parameter);
+        parametersByField.put(anotherPsiField, parameter);
+        constructorAssignments = new ConstructorAssignments(Arrays.asList(psiField, anotherPsiField), parametersByField);
+        classHierarchySummary = new ClassHierarchySummary(Arrays.asList(psiField, anotherPsiField), Collections.<String>emptyList());
+
+        // when
+        PsiClassMembersIndex index = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention);
+
+        // then
+        assertThat(index.getTargetConstructors().isEmpty(), is(true));
+        assertThat(index.isSetInConstructor(psiField), is(true));
+        assertThat(index.isSetInConstructor(anotherPsiField), is(true));
+    }
+
+    @Test
+    public void shouldChooseConstructorCoveringMostSelectedFields() {
+        // given
+        PsiField anotherPsiField = mock(PsiField.class);
+        TargetConstructor narrowConstructor = new TargetConstructor(Arrays.asList(psiField), PsiModifier.PUBLIC);
+        TargetConstructor wideConstructor = new TargetConstructor(Arrays.asList(psiField, anotherPsiField), PsiModifier.PUBLIC);
+
+        // when
+        TargetConstructor result = psiFieldVerifier.chooseConstructor(Arrays.asList(narrowConstructor, wideConstructor), Arrays.asList(psiField, anotherPsiField),
+                BuilderOptions.DEFAULT);
+
+        // then
+        assertThat(result, is(wideConstructor));
+    }
+
+    @Test
+    public void shouldChooseConstructorWithFewerParametersWhenCoverageIsEqual() {
+        // given
+        PsiField anotherPsiField = mock(PsiField.class);
+        TargetConstructor wideConstructor = new TargetConstructor(Arrays.asList(psiField, anotherPsiField), PsiModifier.PUBLIC);
+        TargetConstructor narrowConstructor = new TargetConstructor(Arrays.asList(psiField), PsiModifier.PUBLIC);
+
+        // when
+        TargetConstructor result = psiFieldVerifier.chooseConstructor(Arrays.asList(wideConstructor, narrowConstructor), Arrays.asList(psiField),
+                BuilderOptions.DEFAULT);
+
+        // then
+        assertThat(result, is(narrowConstructor));
+    }
+
+    @Test
+    public void shouldSkipPrivateConstructorForBuilderOutsideTheClass() {
+        // given
+        TargetConstructor privateConstructor = new TargetConstructor(Arrays.asList(psiField), PsiModifier.PRIVATE);
+
+        // when
+        TargetConstructor result = psiFieldVerifier.chooseConstructor(Arrays.asList(privateConstructor), Arrays.asList(psiField), BuilderOptions.DEFAULT);
+
+        // then
+        assertThat(result, is(nullValue()));
+    }
+
+    @Test
+    public void shouldChoosePrivateConstructorForInnerBuilder() {
+        // given
+        TargetConstructor privateConstructor = new TargetConstructor(Arrays.asList(psiField), PsiModifier.PRIVATE);
+
+        // when
+        TargetConstructor result = psiFieldVerifier.chooseConstructor(Arrays.asList(privateConstructor), Arrays.asList(psiField),
+                new BuilderOptions(true, true, false, false));
+
+        // then
+        assertThat(result, is(privateConstructor));
+    }
+
+    @Test
+    public void shouldSkipPackagePrivateConstructorForBuilderInAnotherPackage() {
+        // given
+        TargetConstructor packagePrivateConstructor = new TargetConstructor(Arrays.asList(psiField), PsiModifier.PACKAGE_LOCAL);
+
+        // when
+        TargetConstructor result = psiFieldVerifier.chooseConstructor(Arrays.asList(packagePrivateConstructor), Arrays.asList(psiField),
+                new BuilderOptions(false, true, false, false));
+
+        // then
+        assertThat(result, is(nullValue()));
+    }
+
+    @Test
+    public void shouldIndexAccessModifierOfConstructor() {
+        // given
+        prepareBehaviourForReturningParameter();
+        given(constructor.hasModifierProperty(PsiModifier.PRIVATE)).willReturn(true);
+        given(parameter.getType()).willReturn(psiType);
+        given(psiField.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn(name);
+        classHierarchySummary = new ClassHierarchySummary(Arrays.asList(psiField), Collections.<String>emptyList());
+
+        // when
+        List<TargetConstructor> result = psiFieldVerifier.createIndex(psiClass, classHierarchySummary, constructorAssignments, namingConvention)
+                .getTargetConstructors();
+
+        // then
+        assertThat(result.get(0).isAccessibleFrom(BuilderOptions.DEFAULT), is(false));
+        assertThat(result.get(0).isAccessibleFrom(new BuilderOptions(true, false, false, false)), is(true));
+    }
+
+    private void classHierarchySummaryWithMethod(String methodName) {
+        classHierarchySummary = new ClassHierarchySummary(Collections.<PsiField>emptyList(), Arrays.asList(methodName));
+    }
+
     private void prepareBehaviourForReturningParameter() {
         given(psiClass.getConstructors()).willReturn(constructors);
         given(constructor.getParameterList()).willReturn(parameterList);
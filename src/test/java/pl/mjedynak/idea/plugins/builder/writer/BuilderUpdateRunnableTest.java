@@ -0,0 +1,77 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderUpdateRunnableTest {
+
+    private BuilderUpdateRunnable builderUpdateRunnable;
+
+    @Mock private BuilderUpdater builderUpdater;
+    @Mock private PsiHelper psiHelper;
+    @Mock private Application application;
+    @Mock private Project project;
+    @Mock private PsiClass builderClass;
+    @Mock private PsiClass otherBuilderClass;
+    @Mock private BuilderDiff builderDiff;
+    @Mock private BuilderDiff otherBuilderDiff;
+
+    @Before
+    public void setUp() {
+        builderUpdateRunnable = new BuilderUpdateRunnable(builderUpdater, project, ImmutableMap.of(builderClass, builderDiff,
+                otherBuilderClass, otherBuilderDiff), psiHelper);
+        given(psiHelper.getApplication()).willReturn(application);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(application).runWriteAction(any(Runnable.class));
+    }
+
+    @Test
+    public void shouldUpdateAllBuildersInOneWriteAction() {
+        // when
+        builderUpdateRunnable.run();
+
+        // then
+        verify(application, times(1)).runWriteAction(any(Runnable.class));
+        verify(builderUpdater).update(project, builderClass, builderDiff);
+        verify(builderUpdater).update(project, otherBuilderClass, otherBuilderDiff);
+    }
+
+    @Test
+    public void shouldReportFailedBuilderAndUpdateTheRemainingOnes() {
+        // given
+        willThrow(new IncorrectOperationException("error")).given(builderUpdater).update(project, builderClass, builderDiff);
+
+        // when
+        builderUpdateRunnable.run();
+
+        // then
+        verify(application).invokeLater(any(BuilderWriterErrorRunnable.class));
+        verify(builderUpdater).update(project, otherBuilderClass, otherBuilderDiff);
+    }
+}
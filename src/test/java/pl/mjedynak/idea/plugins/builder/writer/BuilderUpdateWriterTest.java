@@ -0,0 +1,61 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderUpdater;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderDiff;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BuilderUpdateWriterTest {
+
+    @InjectMocks private BuilderUpdateWriter builderUpdateWriter;
+    @Mock private BuilderUpdater builderUpdater;
+    @Mock private PsiHelper psiHelper;
+    @Mock private Project project;
+    @Mock private PsiClass builderClass;
+    @Mock private BuilderDiff builderDiff;
+
+    @Test
+    public void shouldExecuteUpdateAsSingleCommand() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+
+        // when
+        builderUpdateWriter.writeUpdate(project, builderClass, builderDiff);
+
+        // then
+        verify(commandProcessor).executeCommand(eq(project), any(BuilderUpdateRunnable.class), eq(BuilderUpdateWriter.UPDATE_BUILDER_STRING),
+                eq(builderUpdateWriter));
+    }
+
+    @Test
+    public void shouldExecuteUpdatesOfManyBuildersAsSingleCommand() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+        PsiClass otherBuilderClass = mock(PsiClass.class);
+
+        // when
+        builderUpdateWriter.writeUpdates(project, ImmutableMap.of(builderClass, builderDiff, otherBuilderClass, mock(BuilderDiff.class)));
+
+        // then
+        verify(commandProcessor, times(1)).executeCommand(eq(project), any(BuilderUpdateRunnable.class), eq(BuilderUpdateWriter.UPDATE_BUILDER_STRING),
+                eq(builderUpdateWriter));
+    }
+}
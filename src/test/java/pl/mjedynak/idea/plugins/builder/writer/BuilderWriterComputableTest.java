@@ -13,9 +13,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
@@ -33,33 +33,23 @@ public class BuilderWriterComputableTest {
 
     @Mock private PsiHelper psiHelper;
     @Mock private GuiHelper guiHelper;
-    @Mock private BuilderPsiClassBuilder builderPsiClassBuilder;
+    @Mock private BuilderFileCreator builderFileCreator;
     @Mock private Project project;
     @Mock private PsiDirectory targetDirectory;
-    @Mock private PsiClass srcClass;
-    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private BuilderSpec builderSpec;
     @Mock private PsiClass builderClass;
     @Mock private PsiFile psiFile;
     @Mock private PsiElement psiElement;
 
-    private String builderClassName = "builderClassName";
-
     @Before
     public void setUp() {
-        builderWriterComputable = new BuilderWriterComputable(
-                builderPsiClassBuilder, project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, psiHelper, guiHelper, "with");
+        builderWriterComputable = new BuilderWriterComputable(builderFileCreator, project, builderSpec, null, targetDirectory, psiHelper, guiHelper);
     }
 
     @Test
     public void shouldIncludeCurrentPlaceAsChangePlaceAndCreateBuilderAndNavigateToIt() {
         // given
-        given(builderPsiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder)).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withFields()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withPrivateConstructor()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withInitializingMethod()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withSetMethods("with")).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withButMethod()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.build()).willReturn(builderClass);
+        given(builderFileCreator.createBuilder(project, targetDirectory, builderSpec)).willReturn(builderClass);
         given(builderClass.getContainingFile()).willReturn(psiFile);
         given(builderClass.getLBrace()).willReturn(psiElement);
 
@@ -73,11 +63,25 @@ public class BuilderWriterComputableTest {
         assertThat((PsiClass) result, is(builderClass));
     }
 
+    @Test
+    public void shouldCreateBuilderFromAlreadyRenderedTextWhenGiven() {
+        // given
+        builderWriterComputable = new BuilderWriterComputable(builderFileCreator, project, builderSpec, "text", targetDirectory, psiHelper, guiHelper);
+        given(builderFileCreator.createBuilder(project, targetDirectory, builderSpec, "text")).willReturn(builderClass);
+
+        // when
+        PsiElement result = builderWriterComputable.compute();
+
+        // then
+        assertThat((PsiClass) result, is(builderClass));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void shouldInvokeBuilderWriterErrorRunnableWhenExceptionOccurs() {
         // given
-        given(builderPsiClassBuilder.aBuilder(project, targetDirectory, srcClass, builderClassName, psiFieldsForBuilder)).willThrow(IncorrectOperationException.class);
+        given(builderSpec.getBuilderClassName()).willReturn("builderClassName");
+        given(builderFileCreator.createBuilder(project, targetDirectory, builderSpec)).willThrow(IncorrectOperationException.class);
         Application application = mock(Application.class);
         given(psiHelper.getApplication()).willReturn(application);
 
@@ -2,7 +2,6 @@ package pl.mjedynak.idea.plugins.builder.writer;
 
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import org.junit.Before;
 import org.junit.Test;
@@ -10,9 +9,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
@@ -26,16 +25,14 @@ public class BuilderWriterRunnableTest {
 
     @Mock private PsiHelper psiHelper;
     @Mock private GuiHelper guiHelper;
-    @Mock private BuilderPsiClassBuilder builderPsiClassBuilder;
+    @Mock private BuilderFileCreator builderFileCreator;
     @Mock private Project project;
     @Mock private PsiDirectory targetDirectory;
-    @Mock private PsiClass srcClass;
-    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private BuilderSpec builderSpec;
 
     @Before
     public void setUp() {
-        builderWriterRunnable = new BuilderWriterRunnable(
-                builderPsiClassBuilder, project, psiFieldsForBuilder, targetDirectory, "anyBuilderClassName", srcClass, psiHelper, guiHelper, "anyMethodPrefix");
+        builderWriterRunnable = new BuilderWriterRunnable(builderFileCreator, project, builderSpec, null, targetDirectory, psiHelper, guiHelper);
     }
 
     @Test
@@ -1,36 +1,50 @@
 package pl.mjedynak.idea.plugins.builder.writer;
 
+import com.intellij.openapi.application.Application;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import org.mockito.stubbing.Answer;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderFileCreator;
+import pl.mjedynak.idea.plugins.builder.psi.InnerBuilderCreator;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderWriterRunnable;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
+import static pl.mjedynak.idea.plugins.builder.GarbageCollectionAssert.assertGarbageCollected;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BuilderWriterTest {
 
     @InjectMocks private BuilderWriter builderWriter;
     @Mock private PsiHelper psiHelper;
-    @Mock private BuilderPsiClassBuilder builderPsiClassBuilder;
+    @Mock private BuilderFileCreator builderFileCreator;
+    @Mock private InnerBuilderCreator innerBuilderCreator;
     @Mock private Project project;
     @Mock private PsiDirectory targetDirectory;
-    @Mock private PsiClass srcClass;
-    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private BuilderSpec builderSpec;
+    @Mock private GuiHelper guiHelper;
 
 
     @Test
@@ -40,9 +54,86 @@ public class BuilderWriterTest {
         given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
 
         // when
-        builderWriter.writeBuilder(project, psiFieldsForBuilder, targetDirectory, "anyBuilderClassName", srcClass, "anyMethodPrefix");
+        builderWriter.writeBuilder(project, builderSpec, targetDirectory);
 
         // then
         verify(commandProcessor).executeCommand(eq(project), any(BuilderWriterRunnable.class), eq(BuilderWriter.CREATE_BUILDER_STRING), eq(builderWriter));
     }
+
+    @Test
+    public void shouldExecuteCommandWithRunnableForAlreadyRenderedBuilder() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+
+        // when
+        builderWriter.writeBuilder(project, builderSpec, "text", targetDirectory);
+
+        // then
+        verify(commandProcessor).executeCommand(eq(project), any(BuilderWriterRunnable.class), eq(BuilderWriter.CREATE_BUILDER_STRING), eq(builderWriter));
+    }
+
+    @Test
+    public void shouldExecuteCommandWithRunnableForInnerBuilder() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+
+        // when
+        builderWriter.writeInnerBuilder(project, builderSpec, "text", mock(PsiClass.class));
+
+        // then
+        verify(commandProcessor).executeCommand(eq(project), any(InnerBuilderWriterRunnable.class), eq(BuilderWriter.CREATE_BUILDER_STRING), eq(builderWriter));
+    }
+
+    @Test
+    public void shouldExecuteBatchAsCommandOfGivenGroup() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+        Object groupId = new Object();
+
+        // when
+        builderWriter.writeBuilders(project, Arrays.asList(BuilderTarget.of("Person", builderSpec, targetDirectory)), groupId);
+
+        // then
+        verify(commandProcessor).executeCommand(eq(project), any(BulkBuilderWriterRunnable.class), eq(BuilderWriter.CREATE_BUILDERS_STRING), eq(groupId));
+    }
+
+    @Test
+    public void shouldNotRetainProjectAfterWriting() {
+        // given
+        WeakReference<Project> projectReference = writeBuilderInNewProject();
+
+        // then
+        assertGarbageCollected(projectReference);
+    }
+
+    @SuppressWarnings("unchecked")
+    private WeakReference<Project> writeBuilderInNewProject() {
+        Project newProject = mock(Project.class);
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        Application application = mock(Application.class);
+        PsiClass builderClass = mock(PsiClass.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+        given(psiHelper.getApplication()).willReturn(application);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[1]).run();
+                return null;
+            }
+        }).when(commandProcessor).executeCommand(eq(newProject), any(Runnable.class), any(String.class), any());
+        given(application.runWriteAction(any(Computable.class))).willAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return ((Computable) invocation.getArguments()[0]).compute();
+            }
+        });
+        given(builderFileCreator.createBuilder(newProject, targetDirectory, builderSpec, "text")).willReturn(builderClass);
+        builderWriter.writeBuilder(newProject, builderSpec, "text", targetDirectory);
+        verify(builderFileCreator).createBuilder(newProject, targetDirectory, builderSpec, "text");
+        reset(psiHelper, builderFileCreator, guiHelper);
+        return new WeakReference<Project>(newProject);
+    }
 }
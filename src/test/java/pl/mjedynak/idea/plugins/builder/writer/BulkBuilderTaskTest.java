@@ -0,0 +1,127 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BulkBuilderAnalyzer;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderSpec;
+import pl.mjedynak.idea.plugins.builder.psi.model.BuilderTarget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkBuilderTaskTest {
+
+    @Mock private Project project;
+    @Mock private BulkBuilderAnalyzer bulkBuilderAnalyzer;
+    @Mock private BuilderWriter builderWriter;
+    @Mock private PsiHelper psiHelper;
+    @Mock private GuiHelper guiHelper;
+    @Mock private ProgressIndicator indicator;
+    @Mock private Application application;
+
+    private BulkBuilderTask bulkBuilderTask;
+
+    @Before
+    public void setUp() {
+        bulkBuilderTask = new BulkBuilderTask(project, new PsiElement[0], bulkBuilderAnalyzer, builderWriter, psiHelper, guiHelper);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(application).invokeAndWait(any(Runnable.class), any(ModalityState.class));
+    }
+
+    @Test
+    public void shouldBeCancellableBackgroundTask() {
+        // then
+        assertThat(bulkBuilderTask.isCancellable(), is(true));
+        assertThat(bulkBuilderTask.getTitle(), is(BulkBuilderTask.TITLE));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldWriteBuildersInBatchesOfOneUndoGroup() {
+        // given
+        List<BuilderTarget> targets = new ArrayList<BuilderTarget>();
+        for (int i = 0; i < BulkBuilderTask.WRITE_BATCH_SIZE + 1; i++) {
+            targets.add(BuilderTarget.of("Class" + i, mock(BuilderSpec.class), null));
+        }
+        given(builderWriter.writeBuilders(eq(project), anyListOf(BuilderTarget.class), any())).willReturn(Collections.<String>emptyList(),
+                Arrays.asList("Class20"));
+
+        // when
+        List<String> result = bulkBuilderTask.write(indicator, application, targets);
+
+        // then
+        verify(builderWriter).writeBuilders(eq(project), eq(targets.subList(0, BulkBuilderTask.WRITE_BATCH_SIZE)), any());
+        verify(builderWriter).writeBuilders(eq(project), eq(targets.subList(BulkBuilderTask.WRITE_BATCH_SIZE, targets.size())), any());
+        verify(indicator, times(2)).checkCanceled();
+        assertThat(result, is(Arrays.asList("Class20")));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldUseSameGroupIdForAllBatches() {
+        // given
+        List<BuilderTarget> targets = new ArrayList<BuilderTarget>();
+        for (int i = 0; i < BulkBuilderTask.WRITE_BATCH_SIZE * 2; i++) {
+            targets.add(BuilderTarget.of("Class" + i, mock(BuilderSpec.class), null));
+        }
+        final List<Object> groupIds = new ArrayList<Object>();
+        given(builderWriter.writeBuilders(eq(project), anyListOf(BuilderTarget.class), any())).willAnswer(new Answer<List<String>>() {
+            @Override
+            public List<String> answer(InvocationOnMock invocation) {
+                groupIds.add(invocation.getArguments()[2]);
+                return Collections.emptyList();
+            }
+        });
+
+        // when
+        bulkBuilderTask.write(indicator, application, targets);
+
+        // then
+        assertThat(groupIds.size(), is(2));
+        assertThat(groupIds.get(1), is(sameInstance(groupIds.get(0))));
+    }
+
+    @Test
+    public void shouldListSkippedAndFailedClassesInSummary() {
+        // given
+        List<BuilderTarget> skipped = Arrays.asList(BuilderTarget.skipped("Person", "builder already exists"));
+
+        // when
+        String result = bulkBuilderTask.createSummary(3, skipped, Arrays.asList("Address"));
+
+        // then
+        assertThat(result, is("Created builders: 3\n\nSkipped classes:\nPerson - builder already exists\n\nFailed to create builders for:\nAddress"));
+    }
+}